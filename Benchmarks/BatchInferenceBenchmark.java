@@ -0,0 +1,114 @@
+package Benchmarks;
+
+import IO.Dataset;
+import Model.Model;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+//Measures the throughput of Model.predictBatch() with batches of 1 to 4096 samples against calling Model.predict()
+//for each sample, on a network like MNIST (784 inputs, a hidden layer of 256 and 10 outputs).
+//Also checks that both return the same outputs and classes
+//Usage: java Benchmarks.BatchInferenceBenchmark [SAMPLES] [ROUNDS]
+public class BatchInferenceBenchmark {
+    private static final int inputs = 784;
+    private static final int labels = 10;
+    private static final int hidden = 256;
+    private static final int[] batchSizes = {1, 4, 16, 64, 256, 1024, 4096};
+
+    public static void main(String[] args) throws IOException {
+        int samples = args.length > 0 ? Integer.parseInt(args[0]) : 4096;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        //The generated file is temporary, so it is always parsed instead of filling the dataset cache
+        System.setProperty("ann.cache", "none");
+
+        Model model = newModel();
+        Random r = new Random(2);
+        float[] matrix = new float[samples * inputs];
+        for (int i = 0; i < matrix.length; i++) {
+            matrix[i] = r.nextInt(256) / 255F;
+        }
+
+        float[] expectedOutputs = new float[samples * labels];
+        int[] expectedClasses = new int[samples];
+        float[] outputs = new float[samples * labels];
+        int[] classes = new int[samples];
+        predictEach(model, matrix, samples, expectedOutputs, expectedClasses);
+
+        System.out.println(inputs + "x" + hidden + "x" + labels + " network, " + samples + " samples, best of " + rounds
+                + " rounds");
+        System.out.println("Method            samples/s   speedup   same results");
+        double single = 0;
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            predictEach(model, matrix, samples, outputs, classes);
+            single = Math.max(single, samples / ((System.nanoTime() - start) * 1e-9));
+        }
+        print("predict()", single, single, true);
+
+        for (int batchSize : batchSizes) {
+            if (batchSize > samples) {
+                break;
+            }
+            float[] batch = new float[batchSize * inputs];
+            float[] batchOutputs = new float[batchSize * labels];
+            int[] batchClasses = new int[batchSize];
+
+            double best = 0;
+            for (int round = 0; round < rounds; round++) {
+                long start = System.nanoTime();
+                //The batches are copied from the matrix like a scoring job that fills a buffer before each call
+                for (int from = 0; from + batchSize <= samples; from += batchSize) {
+                    System.arraycopy(matrix, from * inputs, batch, 0, batch.length);
+                    model.predictBatch(batch, batchSize, batchOutputs, batchClasses);
+                    System.arraycopy(batchOutputs, 0, outputs, from * labels, batchOutputs.length);
+                    System.arraycopy(batchClasses, 0, classes, from, batchSize);
+                }
+                best = Math.max(best, (samples - samples % batchSize) / ((System.nanoTime() - start) * 1e-9));
+            }
+
+            boolean same = samples % batchSize == 0 && Arrays.equals(outputs, expectedOutputs)
+                    && Arrays.equals(classes, expectedClasses);
+            print("batch of " + batchSize, best, single, same);
+        }
+    }
+
+    private static void predictEach(Model model, float[] matrix, int samples, float[] outputs, int[] classes) {
+        float[] input = new float[inputs];
+        float[] output = new float[labels];
+        for (int i = 0; i < samples; i++) {
+            System.arraycopy(matrix, i * inputs, input, 0, inputs);
+            classes[i] = model.predict(input, output);
+            System.arraycopy(output, 0, outputs, i * labels, labels);
+        }
+    }
+
+    private static void print(String name, double throughput, double single, boolean same) {
+        System.out.printf("%-15s %11.0f %9.1fx   %s%n", name, throughput, throughput / single, same ? "yes" : "NO");
+    }
+
+    //The weights are random, the inference costs the same whether the model is trained or not
+    private static Model newModel() throws IOException {
+        Path file = Files.createTempFile("batch-inference", ".csv");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+                StringBuilder line = new StringBuilder();
+                for (int j = 0; j < inputs + labels; j++) {
+                    line.append(j < inputs + labels - 1 ? "0," : "1\n");
+                }
+                writer.write(line.toString());
+            }
+            Model model = new Model(new Dataset(file.toString(), file.toString(), labels), null);
+            model.setSeed(1L);
+            model.setNOfHiddenPerceptrons(hidden);
+            model.initialize();
+            return model;
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
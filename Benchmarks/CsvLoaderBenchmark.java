@@ -0,0 +1,138 @@
+package Benchmarks;
+
+import IO.CsvReader;
+import IO.DataTable;
+import IO.DataVector;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+
+//Compares the rows per second of the CsvReader against the previous Scanner based loader of the Dataset,
+//using generated files with the layout of the char datasets (63 bipolar inputs and 7 binary labels).
+//The previous loader only parses integers, so the file with decimals is only read with the CsvReader
+//Usage: java Benchmarks.CsvLoaderBenchmark [ROWS] [REPETITIONS]
+public class CsvLoaderBenchmark {
+    private static final int inputs = 63;
+    private static final int labels = 7;
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Path integers = Files.createTempFile("integers", ".csv");
+        Path decimals = Files.createTempFile("decimals", ".csv");
+        try {
+            generate(integers, rows, false);
+            generate(decimals, rows, true);
+
+            if (!sameValues(legacyLoad(integers.toString()), CsvReader.readAll(integers.toString()))) {
+                System.out.println("FAILED: the loaders read different values");
+                System.exit(1);
+            }
+
+            System.out.println(rows + " rows of " + (inputs + labels) + " values");
+            System.out.println("File        Loader        MB      rows/s       MB/s    speedup");
+            double legacy = measure("integers", "Scanner", integers, repetitions, true, 0);
+            measure("integers", "CsvReader", integers, repetitions, false, legacy);
+            measure("decimals", "CsvReader", decimals, repetitions, false, 0);
+        } finally {
+            Files.delete(integers);
+            Files.delete(decimals);
+        }
+    }
+
+    //Prints and returns the rows per second of the best repetition, after a warm-up load
+    private static double measure(String file, String loader, Path path, int repetitions, boolean useLegacy, double baseline)
+            throws IOException {
+        long best = Long.MAX_VALUE;
+        int rows = 0;
+        for (int i = -1; i < repetitions; i++) {
+            long start = System.nanoTime();
+            rows = useLegacy ? legacyLoad(path.toString()).size() : CsvReader.readAll(path.toString()).getRows();
+            long elapsed = System.nanoTime() - start;
+            if (i >= 0) {
+                best = Math.min(best, elapsed);
+            }
+        }
+
+        double megabytes = Files.size(path) / 1e6;
+        double rowsPerSecond = rows / (best / 1e9);
+        System.out.printf("%-10s %-10s %7.1f %11.0f %10.1f %9s%n", file, loader, megabytes, rowsPerSecond,
+                megabytes / (best / 1e9), baseline > 0 ? String.format("%.1fx", rowsPerSecond / baseline) : "");
+        return rowsPerSecond;
+    }
+
+    private static void generate(Path path, int rows, boolean decimals) throws IOException {
+        Random r = new Random(1);
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            //The char datasets start with a byte order mark
+            writer.write('\uFEFF');
+            for (int i = 0; i < rows; i++) {
+                StringBuilder line = new StringBuilder();
+                for (int j = 0; j < inputs; j++) {
+                    if (decimals) {
+                        line.append(r.nextFloat() * 2 - 1).append(',');
+                    } else {
+                        line.append(r.nextBoolean() ? "1," : "-1,");
+                    }
+                }
+                int label = r.nextInt(labels);
+                for (int j = 0; j < labels; j++) {
+                    line.append(j == label ? '1' : '0').append(j < labels - 1 ? "," : "\r\n");
+                }
+                writer.write(line.toString());
+            }
+        }
+    }
+
+    private static boolean sameValues(List<DataVector> vectors, DataTable table) {
+        if (vectors.size() != table.getRows()) {
+            return false;
+        }
+        float[] values = table.getValues();
+        for (int i = 0; i < vectors.size(); i++) {
+            for (int j = 0; j < inputs + labels; j++) {
+                float value = j < inputs ? vectors.get(i).getInput()[j] : vectors.get(i).getLabel()[j - inputs];
+                if (Float.compare(value, values[i * (inputs + labels) + j]) != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    //Copy of the loader the Dataset used before the CsvReader
+    private static List<DataVector> legacyLoad(String filePath) {
+        List<DataVector> vectors = new ArrayList<>();
+        try (Scanner scanner = new Scanner(new File(filePath))) {
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine().replaceAll("\\uFEFF", "");
+                String[] entry = line.split(",");
+                int inputLength = entry.length - labels;
+                float[] input = new float[inputLength];
+                float[] label = new float[labels];
+
+                for (int i = 0; i < inputLength; i++) {
+                    input[i] = (float) Integer.parseInt(entry[i].trim());
+                }
+
+                for (int i = 0; i < labels; i++) {
+                    label[i] = (float) Integer.parseInt(entry[inputLength + i].trim());
+                }
+
+                vectors.add(new DataVector(input, label));
+            }
+        } catch (Exception e) {
+            System.out.println("An error occurred while initializing dataset");
+            throw new RuntimeException(e);
+        }
+        return vectors;
+    }
+}
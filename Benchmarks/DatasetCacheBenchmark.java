@@ -0,0 +1,124 @@
+package Benchmarks;
+
+import IO.CsvReader;
+import IO.DataBlock;
+import IO.DataTable;
+import IO.DatasetCache;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+//Compares the time to load a train set by parsing the CSV file and packing it against loading it from the DatasetCache,
+//on generated files with the layout of the char datasets (bipolar inputs, stored as bits) and with decimal inputs
+//(stored as floats). The first load through the cache also parses the file and writes the cache file
+//Usage: java Benchmarks.DatasetCacheBenchmark [ROWS] [REPETITIONS]
+public class DatasetCacheBenchmark {
+    private static final int inputs = 63;
+    private static final int labels = 7;
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Path directory = Files.createTempDirectory("dataset-cache");
+        Path bipolar = directory.resolve("bipolar.csv");
+        Path decimals = directory.resolve("decimals.csv");
+        try {
+            generate(bipolar, rows, false);
+            generate(decimals, rows, true);
+            DatasetCache cache = new DatasetCache(directory.resolve("cache").toString());
+
+            System.out.println(rows + " rows of " + (inputs + labels) + " values");
+            System.out.println("File        Storage   CSV MB  cache MB   parse ms  first load ms  cached ms   speedup");
+            measure("bipolar", bipolar, cache, repetitions);
+            measure("decimals", decimals, cache, repetitions);
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    //Prints the best time of each way of loading the file, after a warm-up load
+    private static void measure(String name, Path csv, DatasetCache cache, int repetitions) throws IOException {
+        long parse = Long.MAX_VALUE;
+        DataBlock block = null;
+        for (int i = -1; i < repetitions; i++) {
+            long start = System.nanoTime();
+            DataTable table = CsvReader.readAll(csv.toString());
+            block = new DataBlock(table.getColumns() - labels, labels);
+            block.pack(table, null);
+            parse = Math.min(parse, i >= 0 ? System.nanoTime() - start : Long.MAX_VALUE);
+        }
+
+        long start = System.nanoTime();
+        DataBlock loaded = cache.load(csv.toString(), labels, null);
+        long firstLoad = System.nanoTime() - start;
+
+        long cached = Long.MAX_VALUE;
+        for (int i = -1; i < repetitions; i++) {
+            start = System.nanoTime();
+            loaded = cache.load(csv.toString(), labels, null);
+            cached = Math.min(cached, i >= 0 ? System.nanoTime() - start : Long.MAX_VALUE);
+        }
+
+        if (!sameRows(block, loaded)) {
+            System.out.println("FAILED: the cached rows are different from the parsed rows");
+            System.exit(1);
+        }
+
+        System.out.printf("%-11s %-7s %8.1f %9.1f %10.1f %14.1f %10.1f %8.1fx%n", name, loaded.getStorage(),
+                Files.size(csv) / 1e6, loaded.getEncodedBytes() / 1e6, parse / 1e6, firstLoad / 1e6, cached / 1e6,
+                (double) parse / cached);
+    }
+
+    private static boolean sameRows(DataBlock expected, DataBlock actual) {
+        if (expected.size() != actual.size()) {
+            return false;
+        }
+        float[] expectedValues = new float[inputs + labels];
+        float[] actualValues = new float[inputs + labels];
+        for (int i = 0; i < expected.size(); i++) {
+            expected.copyInput(i, expectedValues);
+            actual.copyInput(i, actualValues);
+            for (int j = 0; j < inputs; j++) {
+                if (Float.floatToRawIntBits(expectedValues[j]) != Float.floatToRawIntBits(actualValues[j])) {
+                    return false;
+                }
+            }
+            expected.copyLabel(i, expectedValues);
+            actual.copyLabel(i, actualValues);
+            for (int j = 0; j < labels; j++) {
+                if (expectedValues[j] != actualValues[j]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void generate(Path path, int rows, boolean decimal) throws IOException {
+        Random r = new Random(1);
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            for (int i = 0; i < rows; i++) {
+                StringBuilder line = new StringBuilder();
+                for (int j = 0; j < inputs; j++) {
+                    if (decimal) {
+                        line.append(r.nextFloat() * 2 - 1).append(',');
+                    } else {
+                        line.append(r.nextBoolean() ? "1," : "-1,");
+                    }
+                }
+                int label = r.nextInt(labels);
+                for (int j = 0; j < labels; j++) {
+                    line.append(j == label ? '1' : '0').append(j < labels - 1 ? "," : "\n");
+                }
+                writer.write(line.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package Benchmarks;
+
+import Model.ActivationFunctions.ReLuFunction;
+import Model.ActivationFunctions.SigmoidFunction;
+import Model.Components.Arena;
+import Model.Components.ExecutionPlan;
+import Model.Components.Layer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+//Compares the training throughput of the dense float[] layers against the previous
+//object graph, where every perceptron kept its weights in a HashMap<Perceptron, Float>
+//Usage: java Benchmarks.DenseLayerBenchmark [EPOCHS]
+public class DenseLayerBenchmark {
+    private static final float alpha = 0.35F;
+
+    public static void main(String[] args) {
+        int epochs = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+
+        System.out.println("Shape (input x hidden x output, rows)        legacy samples/s    dense samples/s    speedup");
+        //Same shape as dataset_chars_noise.csv with the default hidden layer
+        run(63, 12, 7, 21, epochs * 50);
+        run(63, 256, 7, 21, epochs * 10);
+        //Wider synthetic inputs
+        run(256, 256, 10, 100, epochs);
+        run(784, 256, 10, 100, epochs);
+    }
+
+    private static void run(int inputs, int hidden, int outputs, int rows, int epochs) {
+        float[][] data = randomBipolar(rows, inputs, 1);
+        float[][] labels = randomOneHot(rows, outputs, 2);
+
+        double legacy = measure(new LegacyNetwork(inputs, hidden, outputs), data, labels, epochs);
+        double dense = measure(new DenseNetwork(inputs, hidden, outputs), data, labels, epochs);
+
+        System.out.printf("%-44s %16.0f %18.0f %9.1fx%n",
+                inputs + " x " + hidden + " x " + outputs + ", " + rows, legacy, dense, dense / legacy);
+    }
+
+    //Returns the number of trained samples per second, after a warm-up of the same length
+    private static double measure(Network network, float[][] data, float[][] labels, int epochs) {
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            network.train(data, labels);
+        }
+
+        long start = System.nanoTime();
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            network.train(data, labels);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        return (double) epochs * data.length / (elapsed / 1e9);
+    }
+
+    private static float[][] randomBipolar(int rows, int columns, long seed) {
+        Random r = new Random(seed);
+        float[][] data = new float[rows][columns];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                data[i][j] = r.nextBoolean() ? 1F : -1F;
+            }
+        }
+        return data;
+    }
+
+    private static float[][] randomOneHot(int rows, int columns, long seed) {
+        Random r = new Random(seed);
+        float[][] labels = new float[rows][columns];
+        for (int i = 0; i < rows; i++) {
+            labels[i][r.nextInt(columns)] = 1F;
+        }
+        return labels;
+    }
+
+    private interface Network {
+        void train(float[][] data, float[][] labels);
+    }
+
+    //Runs one online epoch through the current dense layers, with an execution plan the same way Model does
+    private static class DenseNetwork implements Network {
+        private ExecutionPlan plan;
+        private Arena arena;
+
+        DenseNetwork(int inputs, int hidden, int outputs) {
+            Layer inputLayer = new Layer(inputs, null, null);
+            Layer hiddenLayer = new Layer(hidden, inputLayer, new ReLuFunction());
+            Layer outputLayer = new Layer(outputs, hiddenLayer, new SigmoidFunction());
+            plan = new ExecutionPlan(Arrays.asList(inputLayer, hiddenLayer, outputLayer));
+            arena = plan.newArena();
+        }
+
+        public void train(float[][] data, float[][] labels) {
+            for (int n = 0; n < data.length; n++) {
+                System.arraycopy(data[n], 0, arena.getOutputs(), 0, data[n].length);
+                plan.forward(arena);
+                plan.backward(arena, alpha, labels[n]);
+                plan.update(arena, alpha);
+            }
+        }
+    }
+
+    //Condensed copy of the HashMap based Perceptron that the dense layers replaced, kept as the baseline
+    private static class LegacyNetwork implements Network {
+        private List<LegacyPerceptron> inputLayer = new ArrayList<>();
+        private List<LegacyPerceptron> hiddenLayer = new ArrayList<>();
+        private List<LegacyPerceptron> outputLayer = new ArrayList<>();
+
+        LegacyNetwork(int inputs, int hidden, int outputs) {
+            for (int i = 0; i < inputs; i++) inputLayer.add(new LegacyPerceptron(new ArrayList<>()));
+            for (int i = 0; i < hidden; i++) hiddenLayer.add(new LegacyPerceptron(inputLayer));
+            for (int i = 0; i < outputs; i++) outputLayer.add(new LegacyPerceptron(hiddenLayer));
+        }
+
+        public void train(float[][] data, float[][] labels) {
+            for (int n = 0; n < data.length; n++) {
+                for (int i = 0; i < inputLayer.size(); i++) inputLayer.get(i).outputSignal = data[n][i];
+                for (LegacyPerceptron p : hiddenLayer) p.calculateOutput(true);
+                for (LegacyPerceptron p : outputLayer) p.calculateOutput(false);
+
+                for (int i = 0; i < outputLayer.size(); i++) {
+                    LegacyPerceptron p = outputLayer.get(i);
+                    Float error = (labels[n][i] - p.outputSignal) * sigmoid(p.inputSignal) * (1.0F - sigmoid(p.inputSignal));
+                    p.calculateDeltaWeights(error, alpha);
+                }
+                for (LegacyPerceptron p : hiddenLayer) {
+                    Float errorIn = 0.0F;
+                    for (LegacyPerceptron op : outputLayer) {
+                        errorIn += op.weights.get(p) * op.error;
+                    }
+                    p.calculateDeltaWeights(errorIn * (p.inputSignal > 0F ? 1F : 0F), alpha);
+                }
+
+                outputLayer.forEach(LegacyPerceptron::updateWeights);
+                hiddenLayer.forEach(LegacyPerceptron::updateWeights);
+            }
+        }
+
+        //Boxed functions as they were implemented by the previous ReLuFunction and SigmoidFunction
+        private Float sigmoid(Float signal) {
+            return 1.0F / (1.0F + (float) Math.pow(Math.E, -signal));
+        }
+
+        private class LegacyPerceptron {
+            Float inputSignal;
+            Float outputSignal;
+            Float biasWeight;
+            Float deltaBias;
+            Float error;
+            HashMap<LegacyPerceptron, Float> weights = new HashMap<>();
+            HashMap<LegacyPerceptron, Float> deltaWeights = new HashMap<>();
+
+            LegacyPerceptron(List<LegacyPerceptron> inputPerceptrons) {
+                Random r = new Random();
+                for (LegacyPerceptron perceptron : inputPerceptrons) {
+                    weights.put(perceptron, r.nextFloat() - 0.5F);
+                }
+                biasWeight = r.nextFloat();
+            }
+
+            void calculateOutput(boolean hidden) {
+                inputSignal = biasWeight * 1F;
+                for (LegacyPerceptron perceptron : weights.keySet()) {
+                    inputSignal += perceptron.outputSignal * weights.get(perceptron);
+                }
+                outputSignal = hidden ? (inputSignal > 0F ? inputSignal : 0F) : sigmoid(inputSignal);
+            }
+
+            void calculateDeltaWeights(Float error, Float alpha) {
+                this.error = error;
+                for (LegacyPerceptron perceptron : weights.keySet()) {
+                    deltaWeights.put(perceptron, alpha * error * perceptron.outputSignal);
+                }
+                deltaBias = alpha * error * 1;
+            }
+
+            void updateWeights() {
+                for (LegacyPerceptron perceptron : weights.keySet()) {
+                    weights.put(perceptron, weights.get(perceptron) + deltaWeights.get(perceptron));
+                }
+                biasWeight = biasWeight + deltaBias;
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package Benchmarks;
+
+import IO.DataBlock;
+import IO.DataTable;
+import Model.ActivationFunctions.ReLuFunction;
+import Model.ActivationFunctions.SigmoidFunction;
+import Model.Components.Arena;
+import Model.Components.ExecutionPlan;
+import Model.Components.Layer;
+import Model.Components.WeightInitializer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+//Trains networks from 1 to MAX DEPTH hidden layers through the ExecutionPlan and through a list of layers each with
+//its own state (the buffers of a layer, like the LayerState the model used), and reports the time per sample and per
+//weight, to check that a deeper network costs in proportion to its weights
+//Usage: java Benchmarks.DepthScalingBenchmark [MAX DEPTH] [WIDTH] [EPOCHS]
+public class DepthScalingBenchmark {
+    private static final int inputs = 256;
+    private static final int outputs = 10;
+    private static final int rows = 512;
+    private static final float alpha = 0.01F;
+
+    public static void main(String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        int width = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int epochs = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        DataBlock data = randomData(new Random(1));
+        System.out.println(inputs + " inputs, hidden layers of " + width + ", " + outputs + " outputs, " + rows + " rows");
+        System.out.println("Hidden layers   weights   plan us/sample   plan ns/weight   layers us/sample   layers ns/weight");
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            long weights = newLayers(depth, width).stream().mapToLong(layer -> layer.getWeights().length).sum();
+            //Both are measured alternately and the fastest run of each is kept, the first ones also warm up the JIT
+            double plan = Double.MAX_VALUE;
+            double layers = Double.MAX_VALUE;
+            for (int run = 0; run < 4; run++) {
+                plan = Math.min(plan, measurePlan(data, depth, width, epochs));
+                layers = Math.min(layers, measureLayers(data, depth, width, epochs));
+            }
+            System.out.printf("%13d %9d %16.2f %16.3f %18.2f %18.3f%n", depth, weights, plan / 1e3, plan / weights,
+                    layers / 1e3, layers / weights);
+        }
+    }
+
+    //Returns the nanoseconds per sample of the online training through an execution plan
+    private static double measurePlan(DataBlock data, int depth, int width, int epochs) {
+        ExecutionPlan plan = new ExecutionPlan(newLayers(depth, width));
+        Arena arena = plan.newArena();
+        float[] label = new float[outputs];
+        float errorSum = 0F;
+
+        long start = System.nanoTime();
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            for (int i = 0; i < data.size(); i++) {
+                data.copyInput(i, arena.getOutputs());
+                data.copyLabel(i, label);
+                plan.forward(arena);
+                plan.backward(arena, alpha, label);
+                errorSum += plan.calculateInstantError(arena, label);
+                plan.update(arena, alpha);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        check(errorSum);
+        return (double) elapsed / epochs / data.size();
+    }
+
+    //Same training walking a list of layers, each with its own state, like the model did with a fixed hidden layer
+    private static double measureLayers(DataBlock data, int depth, int width, int epochs) {
+        List<Layer> layers = newLayers(depth, width);
+        List<LayerState> states = new ArrayList<>();
+        for (Layer layer : layers) {
+            states.add(new LayerState(layer.getSize(), layer.getInputSize()));
+        }
+        int last = layers.size() - 1;
+        float[] label = new float[outputs];
+        float errorSum = 0F;
+
+        long start = System.nanoTime();
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            for (int i = 0; i < data.size(); i++) {
+                data.copyInput(i, states.get(0).outputSignals);
+                data.copyLabel(i, label);
+                for (int k = 1; k <= last; k++) {
+                    LayerState state = states.get(k);
+                    layers.get(k).calculateOutput(states.get(k - 1).outputSignals, 0, state.inputSignals, state.outputSignals, 0);
+                }
+                for (int k = last; k > 0; k--) {
+                    LayerState state = states.get(k);
+                    if (k == last) {
+                        layers.get(k).calculateErrorsFromLabel(label, state.outputSignals, state.errors, 0);
+                    } else {
+                        layers.get(k).propagateError(layers.get(k + 1), states.get(k + 1).errors, 0, state.outputSignals,
+                                state.errors, 0);
+                    }
+                    layers.get(k).calculateDeltaWeights(alpha, states.get(k - 1).outputSignals, 0, state.errors, 0,
+                            state.deltaWeights, 0, state.deltaBiases);
+                }
+                errorSum += layers.get(last).calculateInstantError(label, states.get(last).outputSignals, 0);
+                for (int k = last; k > 0; k--) {
+                    LayerState state = states.get(k);
+                    layers.get(k).updateWeights(state.deltaWeights, 0, state.deltaBiases, 0);
+                    state.clearDeltaWeights();
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        check(errorSum);
+        return (double) elapsed / epochs / data.size();
+    }
+
+    private static List<Layer> newLayers(int depth, int width) {
+        Random random = new Random(2);
+        WeightInitializer initializer = new WeightInitializer(WeightInitializer.Scheme.UNIFORM, 1);
+        List<Layer> layers = new ArrayList<>();
+        layers.add(new Layer(inputs, null, null, initializer, random.nextLong()));
+        for (int k = 0; k < depth; k++) {
+            layers.add(new Layer(width, layers.get(k), new ReLuFunction(), initializer, random.nextLong()));
+        }
+        layers.add(new Layer(outputs, layers.get(depth), new SigmoidFunction(), initializer, random.nextLong()));
+        return layers;
+    }
+
+    //Everything a layer wrote while a sample went through it, one object per layer
+    private static class LayerState {
+        private float[] inputSignals;
+        private float[] outputSignals;
+        private float[] errors;
+        private float[] deltaWeights;
+        private float[] deltaBiases;
+
+        LayerState(int size, int inputSize) {
+            this.inputSignals = new float[size];
+            this.outputSignals = new float[size];
+            this.errors = new float[size];
+            this.deltaWeights = new float[size * inputSize];
+            this.deltaBiases = new float[size];
+            clearDeltaWeights();
+        }
+
+        //-0 + x == x for every x, so the deltas of a single sample are added to the weights unchanged
+        void clearDeltaWeights() {
+            Arrays.fill(deltaWeights, -0.0F);
+            Arrays.fill(deltaBiases, -0.0F);
+        }
+    }
+
+    //Uses the result of the training so the JIT can't remove it
+    private static void check(float errorSum) {
+        if (Float.isInfinite(errorSum)) {
+            System.out.println("The training diverged");
+        }
+    }
+
+    private static DataBlock randomData(Random r) {
+        DataTable table = new DataTable();
+        for (int i = 0; i < rows; i++) {
+            float[] input = new float[inputs];
+            float[] label = new float[outputs];
+            for (int j = 0; j < inputs; j++) {
+                input[j] = r.nextBoolean() ? 1F : -1F;
+            }
+            label[r.nextInt(outputs)] = 1F;
+            table.addRow(input, label);
+        }
+
+        DataBlock data = new DataBlock(inputs, outputs);
+        data.pack(table, DataBlock.Storage.FLOAT);
+        return data;
+    }
+}
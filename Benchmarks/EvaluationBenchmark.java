@@ -0,0 +1,126 @@
+package Benchmarks;
+
+import Evaluation.Evaluation;
+import IO.Dataset;
+import IO.Output;
+import Model.Model;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+//Scores a large test set with Model.testModel() and with Model.evaluate() from 1 thread up to the number of cores,
+//then trains two models for a few epochs (the label of a row is its largest of the first 10 inputs) and evaluates two models at the same time and checks that each one gets the same results as when it is evaluated
+//alone (with the counters of the previous Output, the two evaluations were summed in the same static counters)
+//Usage: java Benchmarks.EvaluationBenchmark [TEST ROWS] [REPETITIONS]
+public class EvaluationBenchmark {
+    private static final int inputs = 256;
+    private static final int labels = 10;
+    private static final int hidden = 64;
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int cores = Runtime.getRuntime().availableProcessors();
+        //The generated file is temporary, so it is always parsed instead of filling the dataset cache
+        System.setProperty("ann.cache", "none");
+
+        Path directory = Files.createTempDirectory("evaluation");
+        try {
+            Path train = directory.resolve("train.csv");
+            Path test = directory.resolve("test.csv");
+            generate(train, 2000, 1);
+            generate(test, rows, 2);
+            Dataset dataset = new Dataset(train.toString(), test.toString(), labels);
+            Output output = new Output(directory.toString(), Output.Level.OFF, 1);
+            Model first = newModel(dataset, output, 1L);
+            Model second = newModel(dataset, output, 2L);
+
+            System.out.println(inputs + "x" + hidden + "x" + labels + " network, " + rows + " test rows, " + cores + " cores");
+            System.out.println("Scoring             ms   samples/s");
+            for (int round = 0; round < 2; round++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < repetitions; i++) {
+                    first.testModel(true);
+                }
+                print(round, "testModel", System.nanoTime() - start, rows * repetitions);
+
+                for (int threads = 1; threads <= cores; threads *= 2) {
+                    start = System.nanoTime();
+                    for (int i = 0; i < repetitions; i++) {
+                        first.evaluate(threads);
+                    }
+                    print(round, "evaluate, " + threads + " threads", System.nanoTime() - start, rows * repetitions);
+                }
+            }
+
+            for (int epoch = 0; epoch < 20; epoch++) {
+                first.trainEpoch();
+                second.trainEpoch();
+            }
+            Evaluation firstAlone = first.evaluate(1);
+            Evaluation secondAlone = second.evaluate(1);
+            CompletableFuture<Evaluation> firstConcurrent = CompletableFuture.supplyAsync(() -> first.evaluate(cores));
+            CompletableFuture<Evaluation> secondConcurrent = CompletableFuture.supplyAsync(() -> second.evaluate(cores));
+            boolean same = sameCounts(firstAlone, firstConcurrent.join()) && sameCounts(secondAlone, secondConcurrent.join());
+            System.out.println();
+            System.out.println("Two models evaluated at the same time: " + (same ? "same results as alone" : "DIFFERENT results"));
+            System.out.println("Model 1 accuracy " + firstAlone.getAccuracy() + ", model 2 accuracy " + secondAlone.getAccuracy());
+            output.generateOutputFiles();
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static boolean sameCounts(Evaluation expected, Evaluation actual) {
+        return expected.getCorrectResponses() == actual.getCorrectResponses()
+                && expected.getEmptyOutputs() == actual.getEmptyOutputs()
+                && Arrays.deepEquals(expected.getConfusionMatrix(), actual.getConfusionMatrix());
+    }
+
+    private static Model newModel(Dataset dataset, Output output, long seed) {
+        Model model = new Model(dataset, output);
+        model.setSeed(seed);
+        model.setNOfHiddenPerceptrons(hidden);
+        model.setAlpha(0.05F);
+        model.initialize();
+        return model;
+    }
+
+    //The first round warms up the JIT
+    private static void print(int round, String name, long nanos, long samples) {
+        if (round == 1) {
+            System.out.println(String.format("%-18s %6d %11.0f", name, nanos / 1_000_000, samples / (nanos / 1e9)));
+        }
+    }
+
+    private static void generate(Path path, int rows, long seed) throws IOException {
+        Random r = new Random(seed);
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            for (int i = 0; i < rows; i++) {
+                StringBuilder line = new StringBuilder();
+                int label = 0;
+                float largest = -1F;
+                for (int j = 0; j < inputs; j++) {
+                    float input = r.nextInt(256) / 255F;
+                    if (j < labels && input > largest) {
+                        largest = input;
+                        label = j;
+                    }
+                    line.append(input).append(',');
+                }
+                for (int j = 0; j < labels; j++) {
+                    line.append(j == label ? '1' : '0').append(j < labels - 1 ? "," : "\n");
+                }
+                writer.write(line.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package Benchmarks;
+
+import IO.Dataset;
+import Model.ActivationFunctions.ActivatorFunction;
+import Model.ActivationFunctions.LeakyReLuFunction;
+import Model.ActivationFunctions.ReLuFunction;
+import Model.ActivationFunctions.SigmoidFunction;
+import Model.ActivationFunctions.TanhFunction;
+import Model.Search.HyperparameterSearch;
+import Model.Search.Trial;
+import Model.Search.TrialConfig;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+//Compares the time and the best validation error of the same random configurations searched like the previous sweeps
+//of Main (one after the other, every configuration trained for the whole budget) against the parallel search,
+//with the whole budget and with successive halving. The parallel speedup is bounded by the number of cores,
+//successive halving saves most of the epochs on any machine
+//Usage: java Benchmarks.HyperparameterSearchBenchmark [CONFIGURATIONS] [MAX_EPOCHS]
+public class HyperparameterSearchBenchmark {
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 27;
+        int maxEpochs = args.length > 1 ? Integer.parseInt(args[1]) : 270;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        Dataset dataset = new Dataset("datasets/dataset_chars_clean.csv", "datasets/dataset_chars_noise.csv", 7);
+        List<ActivatorFunction> functions = Arrays.asList(new SigmoidFunction(), new ReLuFunction(), new LeakyReLuFunction(),
+                new TanhFunction());
+        List<TrialConfig> configs = HyperparameterSearch.random(count, new Random(1), 2, 63, functions, functions, 0.01F, 0.96F);
+
+        System.out.println(count + " configurations, up to " + maxEpochs + " epochs, " + threads + " threads");
+        System.out.println("Search                      time ms   epochs   best validation error");
+        measure("serial, whole budget", dataset, configs, 1, maxEpochs, maxEpochs, 1);
+        measure("parallel, whole budget", dataset, configs, threads, maxEpochs, maxEpochs, 1);
+        measure("parallel, halving", dataset, configs, threads, Math.max(1, maxEpochs / 27), maxEpochs, 3);
+    }
+
+    private static void measure(String name, Dataset dataset, List<TrialConfig> configs, int threads, int minEpochs,
+                                int maxEpochs, int eta) {
+        HyperparameterSearch search = new HyperparameterSearch(dataset);
+        search.setThreads(threads);
+        search.setSchedule(minEpochs, maxEpochs, eta);
+
+        long start = System.nanoTime();
+        List<Trial> trials = search.run(configs);
+        long time = (System.nanoTime() - start) / 1_000_000;
+
+        long epochs = 0;
+        for (Trial trial : trials) {
+            epochs += trial.getEpochs();
+        }
+        System.out.println(String.format("%-26s %9d %8d   %s", name, time, epochs, trials.get(0)));
+    }
+}
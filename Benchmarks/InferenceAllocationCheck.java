@@ -0,0 +1,62 @@
+package Benchmarks;
+
+import IO.DataVector;
+import IO.Dataset;
+import IO.Output;
+import Model.Model;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+//Checks that Model.predict() doesn't allocate any memory once the JIT has warmed up,
+//exits with status 1 when any byte is allocated per call
+//Usage: java Benchmarks.InferenceAllocationCheck [TRAIN DATASET] [TEST DATASET] [LABEL LENGTH] [CALLS]
+public class InferenceAllocationCheck {
+    public static void main(String[] args) {
+        String trainDatasetPath = args.length > 0 ? args[0] : "datasets/dataset_chars_clean.csv";
+        String testDatasetPath = args.length > 1 ? args[1] : "datasets/dataset_chars_noise.csv";
+        int labelLength = args.length > 2 ? Integer.parseInt(args[2]) : 7;
+        int calls = args.length > 3 ? Integer.parseInt(args[3]) : 1_000_000;
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        Dataset dataset = new Dataset(trainDatasetPath, testDatasetPath, labelLength);
+        Model model = new Model(dataset, new Output());
+        model.setSeed(1L);
+        model.trainModel(false, 0.01F);
+
+        List<DataVector> samples = dataset.getTestSet();
+        float[] output = new float[dataset.getLabelLength()];
+
+        //Warm up so the measured calls run compiled code
+        int checksum = run(model, samples, output, calls);
+
+        //The cost of reading the allocation counter itself is measured and discounted
+        long counterCost = -threads.getThreadAllocatedBytes(threadId) + threads.getThreadAllocatedBytes(threadId);
+        long before = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        checksum += run(model, samples, output, calls);
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before - counterCost;
+
+        System.out.println();
+        System.out.println("Calls: " + calls + " (checksum " + checksum + ")");
+        System.out.printf("Mean latency: %.1f ns%n", (double) elapsed / calls);
+        System.out.printf("Allocated: %d bytes (%.4f bytes per call)%n", allocated, (double) allocated / calls);
+
+        if (allocated > 0) {
+            System.out.println("FAILED: predict() allocated memory");
+            System.exit(1);
+        }
+        System.out.println("OK: predict() is allocation free");
+    }
+
+    private static int run(Model model, List<DataVector> samples, float[] output, int calls) {
+        int checksum = 0;
+        for (int i = 0; i < calls; i++) {
+            checksum += model.predict(samples.get(i % samples.size()).getInput(), output);
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,167 @@
+package Benchmarks;
+
+import IO.Dataset;
+import Inference.InferenceServer;
+import Metrics.Histogram;
+import Model.Model;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//Sends predictions to an inference server from concurrent clients, each sending its next request as soon as it gets
+//the previous answer, and reports the throughput and the latency percentiles seen by the clients.
+//Without a URL it starts servers for a network like MNIST (784 inputs, a hidden layer of 256 and 10 outputs)
+//and compares a server that scores each request alone (latency budget 0) against micro-batching with 2 ms
+//Usage: java Benchmarks.InferenceLoadGenerator [CLIENTS] [SECONDS] [URL OF /predict] [INPUT LENGTH]
+public class InferenceLoadGenerator {
+    private static final int inputs = 784;
+    private static final int labels = 10;
+    private static final int hidden = 256;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        System.out.println(clients + " clients, " + seconds + " seconds per run");
+        System.out.println("Server                  requests/s   p50 ms   p99 ms  p99.9 ms   max ms   errors");
+        if (args.length > 2) {
+            int inputLength = args.length > 3 ? Integer.parseInt(args[3]) : inputs;
+            print(args[2], run(new URL(args[2]), inputLength, clients, seconds));
+            return;
+        }
+
+        //The generated file is temporary, so it is always parsed instead of filling the dataset cache
+        System.setProperty("ann.cache", "none");
+        Model model = newModel();
+        for (long budgetMicros : new long[]{0, 2000}) {
+            InferenceServer server = new InferenceServer(model, 0, budgetMicros * 1000, 256);
+            try {
+                URL url = new URL("http://localhost:" + server.getPort() + "/predict");
+                //The first run warms up the JIT of the client and the server
+                run(url, inputs, clients, Math.max(1, seconds / 5));
+                print("budget " + budgetMicros + " us", run(url, inputs, clients, seconds));
+                System.out.println("    server: " + server.getStats());
+            } finally {
+                server.stop();
+            }
+        }
+    }
+
+    private static Result run(URL url, int inputLength, int clients, int seconds) throws InterruptedException {
+        Random random = new Random(1);
+        List<byte[]> bodies = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            StringBuilder body = new StringBuilder();
+            for (int j = 0; j < inputLength; j++) {
+                body.append(j > 0 ? "," : "").append(random.nextInt(256) / 255F);
+            }
+            bodies.add(body.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        Result result = new Result();
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            Thread thread = new Thread(() -> {
+                int i = client;
+                while (running.get()) {
+                    long start = System.nanoTime();
+                    boolean ok = send(url, bodies.get(i++ % bodies.size()));
+                    if (!running.get()) {
+                        break;
+                    }
+                    if (ok) {
+                        result.latency.record(System.nanoTime() - start);
+                    } else {
+                        synchronized (result) {
+                            result.errors++;
+                        }
+                    }
+                }
+            }, "load-client-" + c);
+            thread.setDaemon(true);
+            threads.add(thread);
+        }
+
+        long start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        result.seconds = (System.nanoTime() - start) * 1e-9;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return result;
+    }
+
+    //The connections are kept alive by HttpURLConnection when the answer is read to the end
+    private static boolean send(URL url, byte[] body) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(body.length);
+            try (OutputStream stream = connection.getOutputStream()) {
+                stream.write(body);
+            }
+            int status = connection.getResponseCode();
+            InputStream response = status == 200 ? connection.getInputStream() : connection.getErrorStream();
+            if (response != null) {
+                try (InputStream stream = response) {
+                    stream.readAllBytes();
+                }
+            }
+            return status == 200;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void print(String name, Result result) {
+        Histogram latency = result.latency;
+        System.out.printf("%-22s %11.0f %8.2f %8.2f %9.2f %8.2f %8d%n", name, latency.getCount() / result.seconds,
+                latency.percentile(0.5) / 1e6, latency.percentile(0.99) / 1e6, latency.percentile(0.999) / 1e6,
+                latency.getMax() / 1e6, result.errors);
+    }
+
+    //The weights are random, the inference costs the same whether the model is trained or not
+    private static Model newModel() throws IOException {
+        Path file = Files.createTempFile("load-generator", ".csv");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+                StringBuilder line = new StringBuilder();
+                for (int j = 0; j < inputs + labels; j++) {
+                    line.append(j < inputs + labels - 1 ? "0," : "1\n");
+                }
+                writer.write(line.toString());
+            }
+            Model model = new Model(new Dataset(file.toString(), file.toString(), labels), null);
+            model.setSeed(1L);
+            model.setNOfHiddenPerceptrons(hidden);
+            model.initialize();
+            return model;
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static class Result {
+        private Histogram latency = new Histogram();
+        private int errors = 0;
+        private double seconds;
+    }
+}
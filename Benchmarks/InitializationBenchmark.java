@@ -0,0 +1,109 @@
+package Benchmarks;
+
+import IO.Dataset;
+import IO.Output;
+import Model.ActivationFunctions.ActivatorFunction;
+import Model.ActivationFunctions.ReLuFunction;
+import Model.ActivationFunctions.SigmoidFunction;
+import Model.Components.Layer;
+import Model.Components.WeightInitializer;
+import Model.Model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+
+//Builds an INPUTS x HIDDEN x 10 network with the previous Random of each layer and with the WeightInitializer from
+//1 thread up to twice the number of cores, and checks that every number of threads gives the same weights for a seed.
+//Then trains the chars dataset with each initialization scheme until the mean error is below 0.01 and reports the
+//mean number of epochs over the seeds and the error on the noisy test set
+//Usage: java Benchmarks.InitializationBenchmark [INPUTS] [HIDDEN] [SEEDS]
+public class InitializationBenchmark {
+    private static final int outputs = 10;
+    private static final long seed = 42L;
+
+    public static void main(String[] args) throws IOException {
+        int inputs = args.length > 0 ? Integer.parseInt(args[0]) : 4096;
+        int hidden = args.length > 1 ? Integer.parseInt(args[1]) : 4096;
+        int seeds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        System.out.println(inputs + "x" + hidden + "x" + outputs + " network, " + cores + " cores");
+        System.out.println("Initialization          build ms   weights hash");
+        //The first round warms up the JIT
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            Random random = new Random(seed);
+            Layer input = randomLayer(inputs, null, null, random);
+            Layer layer = randomLayer(hidden, input, new ReLuFunction(), random);
+            randomLayer(outputs, layer, new SigmoidFunction(), random);
+            print(round, "Random per layer", System.nanoTime() - start, Arrays.hashCode(layer.getWeights()));
+
+            for (WeightInitializer.Scheme scheme : new WeightInitializer.Scheme[]{WeightInitializer.Scheme.UNIFORM,
+                    WeightInitializer.Scheme.AUTO}) {
+                for (int threads = 1; threads <= 2 * cores; threads *= 2) {
+                    WeightInitializer initializer = new WeightInitializer(scheme, threads);
+                    start = System.nanoTime();
+                    input = new Layer(inputs, null, null, initializer, seed);
+                    layer = new Layer(hidden, input, new ReLuFunction(), initializer, seed + 1);
+                    new Layer(outputs, layer, new SigmoidFunction(), initializer, seed + 2);
+                    print(round, scheme + ", " + threads + " threads", System.nanoTime() - start,
+                            Arrays.hashCode(layer.getWeights()));
+                }
+            }
+        }
+
+        Dataset dataset = new Dataset("datasets/dataset_chars_clean.csv", "datasets/dataset_chars_noise.csv", 7);
+        Path directory = Files.createTempDirectory("initialization");
+        try {
+            System.out.println();
+            System.out.println("Chars dataset, mean error below 0.01, " + seeds + " seeds");
+            System.out.println("Scheme      epochs   test error");
+            for (WeightInitializer.Scheme scheme : WeightInitializer.Scheme.values()) {
+                long epochs = 0;
+                float testError = 0F;
+                for (int s = 1; s <= seeds; s++) {
+                    Output output = new Output(directory.toString(), Output.Level.OFF, 1);
+                    Model model = new Model(dataset, output);
+                    model.setSeed((long) s);
+                    model.setCheckpointPath(null);
+                    model.setWeightInitialization(scheme);
+                    model.trainModel(false, 0.01F);
+                    epochs += model.getProgress().getEpoch() + 1;
+                    testError += model.validate();
+                    output.generateOutputFiles();
+                }
+                System.out.println(String.format("%-9s %8d   %.4f", scheme, epochs / seeds, testError / seeds));
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    //Draws the weights one after the other from a single Random, the way the layers were built before the initializer
+    private static Layer randomLayer(int size, Layer previousLayer, ActivatorFunction function, Random r) {
+        if (previousLayer == null) {
+            return new Layer(size, null, null);
+        }
+        float[] weights = new float[size * previousLayer.getSize()];
+        float[] biasWeights = new float[size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < previousLayer.getSize(); j++) {
+                weights[i * previousLayer.getSize() + j] = r.nextFloat() - 0.5F;
+            }
+            biasWeights[i] = r.nextFloat();
+        }
+        return new Layer(previousLayer, function, weights, biasWeights);
+    }
+
+    private static void print(int round, String name, long nanos, int hash) {
+        if (round == 1) {
+            System.out.println(String.format("%-22s %9.1f   %d", name, nanos / 1e6, hash));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package Benchmarks.Jmh;
+
+import IO.Dataset;
+
+public class BenchmarkDatasets {
+    //Loads one of the bundled datasets (from the datasets folder) for both training and testing,
+    //using the label length each of them was created with
+    public static Dataset load(String name) {
+        String path = "datasets/" + name;
+        return new Dataset(path, path, labelLength(name));
+    }
+
+    private static int labelLength(String name) {
+        if (name.startsWith("dataset_chars")) {
+            return 7;
+        }
+        return 1;
+    }
+}
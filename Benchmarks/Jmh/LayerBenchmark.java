@@ -0,0 +1,111 @@
+package Benchmarks.Jmh;
+
+import IO.DataVector;
+import IO.Dataset;
+import Model.ActivationFunctions.ReLuFunction;
+import Model.ActivationFunctions.SigmoidFunction;
+import Model.Components.Layer;
+import Model.Components.WeightInitializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+//Measures each step of the training of a single sample through the hidden and output layers
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LayerBenchmark {
+    @Param({"dataset_chars_clean.csv", "dataset_chars_noise.csv", "dataset_chars_noise_20.csv", "dataset_XOR.csv"})
+    public String dataset;
+
+    @Param({"12", "64", "256", "1024"})
+    public int hiddenSize;
+
+    private static final float alpha = 0.35F;
+
+    private Layer hiddenLayer;
+    private Layer outputLayer;
+    private DataVector sample;
+
+    //Signals, outputs, errors and deltas of each layer, the outputs of the input layer are the input of the sample
+    private float[] hiddenSignals;
+    private float[] hiddenOutputs;
+    private float[] hiddenErrors;
+    private float[] hiddenDeltaWeights;
+    private float[] hiddenDeltaBiases;
+    private float[] outputSignals;
+    private float[] outputOutputs;
+    private float[] outputErrors;
+    private float[] outputDeltaWeights;
+    private float[] outputDeltaBiases;
+
+    @Setup
+    public void setup() {
+        Dataset data = BenchmarkDatasets.load(dataset);
+        Random random = new Random(1);
+        WeightInitializer initializer = new WeightInitializer(WeightInitializer.Scheme.UNIFORM, 1);
+
+        Layer inputLayer = new Layer(data.getInputLength(), null, null, initializer, random.nextLong());
+        hiddenLayer = new Layer(hiddenSize, inputLayer, new ReLuFunction(), initializer, random.nextLong());
+        outputLayer = new Layer(data.getLabelLength(), hiddenLayer, new SigmoidFunction(), initializer, random.nextLong());
+        sample = data.getTestSet().get(0);
+
+        hiddenSignals = new float[hiddenSize];
+        hiddenOutputs = new float[hiddenSize];
+        hiddenErrors = new float[hiddenSize];
+        hiddenDeltaWeights = new float[hiddenLayer.getWeights().length];
+        hiddenDeltaBiases = new float[hiddenSize];
+        outputSignals = new float[outputLayer.getSize()];
+        outputOutputs = new float[outputLayer.getSize()];
+        outputErrors = new float[outputLayer.getSize()];
+        outputDeltaWeights = new float[outputLayer.getWeights().length];
+        outputDeltaBiases = new float[outputLayer.getSize()];
+
+        //Runs the sample once so every signal and error used by the benchmarks is set
+        calculateOutput();
+        outputLayer.calculateErrorsFromLabel(sample.getLabel(), outputOutputs, outputErrors, 0);
+        outputLayer.calculateDeltaWeights(alpha, hiddenOutputs, 0, outputErrors, 0, outputDeltaWeights, 0, outputDeltaBiases);
+        propagateError();
+    }
+
+    @Benchmark
+    public float calculateOutput() {
+        hiddenLayer.calculateOutput(sample.getInput(), 0, hiddenSignals, hiddenOutputs, 0);
+        outputLayer.calculateOutput(hiddenOutputs, 0, outputSignals, outputOutputs, 0);
+        return outputOutputs[0];
+    }
+
+    @Benchmark
+    public float propagateError() {
+        hiddenLayer.propagateError(outputLayer, outputErrors, 0, hiddenOutputs, hiddenErrors, 0);
+        hiddenLayer.calculateDeltaWeights(alpha, sample.getInput(), 0, hiddenErrors, 0, hiddenDeltaWeights, 0,
+                hiddenDeltaBiases);
+        return hiddenErrors[0];
+    }
+
+    @Benchmark
+    public float updateWeights() {
+        outputLayer.updateWeights(outputDeltaWeights, 0, outputDeltaBiases, 0);
+        hiddenLayer.updateWeights(hiddenDeltaWeights, 0, hiddenDeltaBiases, 0);
+        Arrays.fill(outputDeltaWeights, -0.0F);
+        Arrays.fill(outputDeltaBiases, -0.0F);
+        Arrays.fill(hiddenDeltaWeights, -0.0F);
+        Arrays.fill(hiddenDeltaBiases, -0.0F);
+        return hiddenLayer.getWeights()[0];
+    }
+}
@@ -0,0 +1,67 @@
+package Benchmarks.Jmh;
+
+import IO.DataVector;
+import IO.Dataset;
+import Model.Model;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+//Measures a full training epoch and the inference of a single sample through Model,
+//without the console and file outputs of trainModel() and testModel()
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ModelBenchmark {
+    @Param({"dataset_chars_clean.csv", "dataset_chars_noise.csv", "dataset_chars_noise_20.csv", "dataset_XOR.csv"})
+    public String dataset;
+
+    @Param({"12", "64", "256", "1024"})
+    public int hiddenSize;
+
+    private Model model;
+    private DataVector sample;
+    private float[] output;
+
+    @Setup
+    public void setup() {
+        Dataset data = BenchmarkDatasets.load(dataset);
+
+        model = new Model(data, null);
+        model.setSeed(1L);
+        model.setNOfHiddenPerceptrons(hiddenSize);
+        model.initialize();
+
+        sample = data.getTestSet().get(0);
+        output = new float[data.getLabelLength()];
+    }
+
+    @TearDown
+    public void tearDown() {
+        model.close();
+    }
+
+    @Benchmark
+    public int epoch() {
+        return model.trainEpoch();
+    }
+
+    @Benchmark
+    public int predict() {
+        return model.predict(sample.getInput(), output);
+    }
+}
@@ -0,0 +1,102 @@
+package Benchmarks;
+
+import IO.Dataset;
+import IO.Output;
+import Model.Model;
+import Model.Optimizers.AdamOptimizer;
+import Model.Optimizers.ConstantSchedule;
+import Model.Optimizers.CosineSchedule;
+import Model.Optimizers.ExponentialSchedule;
+import Model.Optimizers.LearningRateSchedule;
+import Model.Optimizers.MomentumOptimizer;
+import Model.Optimizers.Optimizer;
+import Model.Optimizers.RmsPropOptimizer;
+import Model.Optimizers.SgdOptimizer;
+import Model.Optimizers.StepSchedule;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+//Trains the chars dataset until the mean error of the training is below MIN ERROR with each optimizer and learning rate
+//schedule, online (a batch of 1 sample) and with the whole train set in a batch, and reports the mean number of epochs
+//and time over the seeds (a training that doesn't get there counts as MAX EPOCHS) and the error on the noisy test set.
+//The alphas are about the best ones for each optimizer on this dataset. The deltas of a batch are summed, so plain
+//SGD and momentum need a smaller alpha for larger batches, while RMSProp and Adam only use the direction of the deltas
+//Usage: java Benchmarks.OptimizerBenchmark [MIN ERROR] [SEEDS] [MAX EPOCHS]
+public class OptimizerBenchmark {
+    public static void main(String[] args) throws IOException {
+        float minError = args.length > 0 ? Float.parseFloat(args[0]) : 0.01F;
+        int seeds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int maxEpochs = args.length > 2 ? Integer.parseInt(args[2]) : 5000;
+
+        Dataset dataset = new Dataset("datasets/dataset_chars_clean.csv", "datasets/dataset_chars_noise.csv", 7);
+        int rows = dataset.getTrainSet().size();
+        Path directory = Files.createTempDirectory("optimizers");
+        try {
+            System.out.println("Mean error below " + minError + ", " + seeds + " seeds, up to " + maxEpochs + " epochs");
+            for (int batchSize : new int[]{1, rows}) {
+                System.out.println();
+                System.out.println("Batch size " + batchSize);
+                System.out.println("Optimizer   Schedule                            alpha    epochs   time ms   test error");
+                boolean online = batchSize == 1;
+                Benchmark benchmark = new Benchmark(dataset, directory, batchSize, minError, seeds, maxEpochs);
+                benchmark.measure(new SgdOptimizer(), new ConstantSchedule(), online ? 0.35F : 0.05F);
+                benchmark.measure(new SgdOptimizer(), new StepSchedule(100, 0.5F), online ? 0.35F : 0.1F);
+                benchmark.measure(new MomentumOptimizer(0.9F, false), new ConstantSchedule(), online ? 0.01F : 0.002F);
+                benchmark.measure(new MomentumOptimizer(0.9F, true), new ConstantSchedule(), online ? 0.01F : 0.002F);
+                benchmark.measure(new RmsPropOptimizer(), new ConstantSchedule(), online ? 0.01F : 0.02F);
+                benchmark.measure(new RmsPropOptimizer(), new ExponentialSchedule(0.99F), online ? 0.01F : 0.02F);
+                benchmark.measure(new AdamOptimizer(), new ConstantSchedule(), online ? 0.01F : 0.02F);
+                benchmark.measure(new AdamOptimizer(), new CosineSchedule(300, 0.001F), online ? 0.01F : 0.02F);
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static class Benchmark {
+        private Dataset dataset;
+        private Path directory;
+        private int batchSize;
+        private float minError;
+        private int seeds;
+        private int maxEpochs;
+
+        private Benchmark(Dataset dataset, Path directory, int batchSize, float minError, int seeds, int maxEpochs) {
+            this.dataset = dataset;
+            this.directory = directory;
+            this.batchSize = batchSize;
+            this.minError = minError;
+            this.seeds = seeds;
+            this.maxEpochs = maxEpochs;
+        }
+
+        private void measure(Optimizer optimizer, LearningRateSchedule schedule, float alpha) {
+            long epochs = 0;
+            long time = 0;
+            float testError = 0F;
+            for (int seed = 1; seed <= seeds; seed++) {
+                Output output = new Output(directory.toString(), Output.Level.OFF, 1);
+                Model model = new Model(dataset, output);
+                model.setSeed((long) seed);
+                model.setMaxEpochs(maxEpochs);
+                model.setBatchSize(batchSize);
+                model.setCheckpointPath(null);
+                model.setAlpha(alpha);
+                model.setOptimizer(optimizer);
+                model.setLearningRateSchedule(schedule);
+
+                time += model.trainModel(false, minError);
+                epochs += model.getProgress().getEpoch() + 1;
+                testError += model.validate();
+                output.generateOutputFiles();
+            }
+            System.out.println(String.format("%-11s %-33s %7.3f %9d %9d   %.4f", optimizer.getOptimizerName(),
+                    schedule.getScheduleName(), alpha, epochs / seeds, time / seeds, testError / seeds));
+        }
+    }
+}
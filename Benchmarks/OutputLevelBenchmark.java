@@ -0,0 +1,154 @@
+package Benchmarks;
+
+import IO.Dataset;
+import IO.Output;
+import Model.Components.Layer;
+import Model.Components.Perceptron;
+import Model.Model;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+//Measures the time the training thread spends on the output of each epoch with each output level, against the previous
+//Output that formatted and wrote the weights of every epoch on the training thread. The network is large (784 inputs,
+//a hidden layer of 256 and 10 outputs, like MNIST) and the train set small, so the output is a large part of the epoch
+//Usage: java Benchmarks.OutputLevelBenchmark [EPOCHS] [SNAPSHOT_EPOCHS]
+public class OutputLevelBenchmark {
+    private static final int inputs = 784;
+    private static final int labels = 10;
+    private static final int hidden = 256;
+    private static final int rows = 64;
+
+    public static void main(String[] args) throws IOException {
+        int epochs = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+        int snapshotEpochs = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        //The generated file is temporary, so it is always parsed instead of filling the dataset cache
+        System.setProperty("ann.cache", "none");
+
+        Path directory = Files.createTempDirectory("output-levels");
+        try {
+            Path file = directory.resolve("train.csv");
+            generate(file);
+            Dataset dataset = new Dataset(file.toString(), file.toString(), labels);
+
+            System.out.println(inputs + "x" + hidden + "x" + labels + " network, " + rows + " rows, " + epochs
+                    + " epochs, snapshots every " + snapshotEpochs + " epochs");
+            System.out.println("Level           epoch ms   output ms/epoch   drain ms   train_model MB   dropped");
+            measureLegacy(dataset, directory.resolve("legacy"), epochs);
+            for (Output.Level level : Output.Level.values()) {
+                measure(dataset, directory.resolve(level.name()), level, snapshotEpochs, epochs);
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static void measure(Dataset dataset, Path directory, Output.Level level, int snapshotEpochs, int epochs) {
+        Output output = new Output(directory.toString(), level, snapshotEpochs);
+        Model model = newModel(dataset, output);
+
+        long total = 0;
+        long outputTime = 0;
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            long start = System.nanoTime();
+            model.trainEpoch();
+            long trained = System.nanoTime();
+            output.printTrainStep(model.getLayers(), 0.5F, epoch);
+            long end = System.nanoTime();
+            total += end - start;
+            outputTime += end - trained;
+        }
+        long start = System.nanoTime();
+        output.generateOutputFiles();
+        long drain = System.nanoTime() - start;
+
+        print(level.name(), total, outputTime, drain, directory, epochs, output.getDropped());
+    }
+
+    //Same as measure, with the weights formatted and written on the training thread like the previous Output did
+    private static void measureLegacy(Dataset dataset, Path directory, int epochs) throws IOException {
+        Files.createDirectories(directory);
+        Model model = newModel(dataset, null);
+        PrintWriter trainOutput = new PrintWriter(new File(directory.toFile(), "train_model.txt"), "UTF-8");
+        PrintWriter trainErrorsOutput = new PrintWriter(new File(directory.toFile(), "train_errors.txt"), "UTF-8");
+
+        long total = 0;
+        long outputTime = 0;
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            long start = System.nanoTime();
+            model.trainEpoch();
+            long trained = System.nanoTime();
+            trainOutput.println("--------------------------------Epoch " + epoch + "--------------------------------");
+            legacyPrintWeights(model.getLayers().get(1).getPerceptrons(), trainOutput, "hidden layer");
+            legacyPrintWeights(model.getOutputLayer().getPerceptrons(), trainOutput, "output layer");
+            trainOutput.println("Mean square error: " + 0.5F);
+            trainOutput.println();
+            trainErrorsOutput.println(0.5F);
+            long end = System.nanoTime();
+            total += end - start;
+            outputTime += end - trained;
+        }
+        long start = System.nanoTime();
+        trainOutput.close();
+        trainErrorsOutput.close();
+        long drain = System.nanoTime() - start;
+
+        print("synchronous", total, outputTime, drain, directory, epochs, 0);
+    }
+
+    private static void legacyPrintWeights(List<Perceptron> perceptrons, PrintWriter out, String layer) {
+        for (int i = 0; i < perceptrons.size(); i++) {
+            out.write("Input weights for perceptron " + (i + 1) + " of " + layer + ": ");
+            float[] weights = perceptrons.get(i).getWeights();
+            for (int weightIndex = 0; weightIndex < weights.length; weightIndex++) {
+                if (weightIndex == 0) {
+                    out.println(weights[weightIndex]);
+                } else {
+                    out.println("                                                " + weights[weightIndex]);
+                }
+            }
+            out.println("                                                " + perceptrons.get(i).getBiasWeight() + " (bias)");
+            out.println();
+        }
+    }
+
+    private static Model newModel(Dataset dataset, Output output) {
+        Model model = new Model(dataset, output);
+        model.setSeed(1L);
+        model.setNOfHiddenPerceptrons(hidden);
+        model.initialize();
+        return model;
+    }
+
+    private static void print(String name, long total, long outputTime, long drain, Path directory, int epochs, int dropped) {
+        File trainModel = new File(directory.toFile(), "train_model.txt");
+        System.out.printf("%-14s %9.2f %17.2f %10.1f %16.1f %9d%n", name, total / 1e6 / epochs, outputTime / 1e6 / epochs,
+                drain / 1e6, trainModel.length() / 1e6, dropped);
+    }
+
+    private static void generate(Path path) throws IOException {
+        Random r = new Random(1);
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            for (int i = 0; i < rows; i++) {
+                StringBuilder line = new StringBuilder();
+                for (int j = 0; j < inputs; j++) {
+                    line.append(r.nextInt(256) / 255F).append(',');
+                }
+                int label = r.nextInt(labels);
+                for (int j = 0; j < labels; j++) {
+                    line.append(j == label ? '1' : '0').append(j < labels - 1 ? "," : "\n");
+                }
+                writer.write(line.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package Benchmarks;
+
+import Evaluation.Evaluation;
+import IO.AsyncWriter;
+import IO.DataVector;
+import IO.Output;
+import Model.ActivationFunctions.SigmoidFunction;
+import Model.Components.Layer;
+import Model.Components.WeightInitializer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+//Checks that the errors of the epochs, the final weights and the test results reach the output files when the queue
+//of the writer is full: the writer thread is stalled until the queue is full and the weights of the epochs are dropped,
+//then more epochs and the final writes are queued while the writer is released, exits with status 1 when any of them
+//is missing from the files
+//Usage: java Benchmarks.OutputWritesCheck [QUEUE CAPACITY]
+public class OutputWritesCheck {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int capacity = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+
+        Path directory = Files.createTempDirectory("output-writes");
+        AsyncWriter writer = new AsyncWriter(capacity, 1L << 20);
+        Output output = new Output(directory.toString(), Output.Level.FULL, 1, writer);
+
+        WeightInitializer initializer = new WeightInitializer(WeightInitializer.Scheme.UNIFORM, 1);
+        Layer input = new Layer(4, null, null, initializer, 1L);
+        Layer outputLayer = new Layer(3, input, new SigmoidFunction(), initializer, 2L);
+        List<Layer> layers = Arrays.asList(input, outputLayer);
+
+        //Stalls the writer thread and fills its queue with the logs of the epochs until their weights start to be dropped
+        CountDownLatch stall = new CountDownLatch(1);
+        writer.submit(() -> {
+            try {
+                stall.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        int epoch = 0;
+        while (output.getDropped() == 0) {
+            output.printTrainStep(layers, 0.5F, ++epoch);
+        }
+        //The weights are dropped when half the queue is used, the errors of the validations fill the rest of it
+        int dropped = output.getDropped();
+        while (output.getDropped() == dropped) {
+            output.printTestError(0.5F);
+        }
+
+        //The writer is released later, while the next writes wait for room in the queue
+        Thread release = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            stall.countDown();
+        });
+        release.start();
+
+        //The next epochs wait for room in the queue, only their weights can still be dropped
+        for (int i = 0; i < 4; i++) {
+            output.printTrainStep(layers, 0.5F, ++epoch);
+        }
+
+        DataVector test = new DataVector(new float[]{1, 0, 1, 0}, new float[]{0, 1, 0});
+        float[] outputs = {0.05F, 0.95F, 0.05F};
+        Evaluation evaluation = new Evaluation(3);
+        boolean correct = evaluation.add(outputs, 0, test.getLabel(), 0.0025F);
+        output.printFinalWeights(layers);
+        output.printModelOutput(outputs, test, correct);
+        output.printConfusionMatrix(evaluation);
+        output.printFinalResult(0.0025F, evaluation);
+        output.printTestSummary(layers, 0.1F, 1);
+        output.generateOutputFiles();
+        release.join();
+
+        boolean passed = true;
+        passed &= contains(directory, "final_weights.txt", "Input weights for perceptron 3 of output layer");
+        passed &= contains(directory, "model_output.txt", "Correct response");
+        passed &= contains(directory, "model_output.txt", "Number of correct responses 1 out of 1");
+        passed &= contains(directory, "model_confusion_matrix.txt", "Accuracy: 1.0");
+        passed &= contains(directory, "tests_summary.txt", "Time in ms: 1");
+        //The weights of the epochs were dropped, but every epoch still has its header and its error
+        passed &= count(directory, "train_model.txt", "Mean square error: 0.5", epoch);
+        passed &= count(directory, "train_errors.txt", "0.5", epoch);
+
+        System.out.println();
+        System.out.println("Queue capacity: " + capacity + ", epochs logged: " + epoch + ", writes dropped: " + output.getDropped());
+        if (!passed) {
+            System.out.println("FAILED: errors of the epochs, final weights or test results were dropped");
+            System.exit(1);
+        }
+        System.out.println("OK: the errors of the epochs, the final weights and the test results were written");
+    }
+
+    private static boolean contains(Path directory, String file, String text) throws IOException {
+        boolean found = Files.readString(directory.resolve(file)).contains(text);
+        if (!found) {
+            System.out.println("Missing from " + file + ": " + text);
+        }
+        return found;
+    }
+
+    //Checks that the lines of a file starting with the text are exactly the given number
+    private static boolean count(Path directory, String file, String text, int expected) throws IOException {
+        long lines = Files.readAllLines(directory.resolve(file)).stream().filter(line -> line.startsWith(text)).count();
+        if (lines != expected) {
+            System.out.println(file + " has " + lines + " lines starting with \"" + text + "\" instead of " + expected);
+        }
+        return lines == expected;
+    }
+}
@@ -0,0 +1,155 @@
+package Benchmarks;
+
+import IO.CsvReader;
+import IO.DataBlock;
+import IO.DataTable;
+import IO.DataVector;
+import IO.Dataset;
+import Model.ActivationFunctions.ReLuFunction;
+import Model.ActivationFunctions.SigmoidFunction;
+import Model.Components.Arena;
+import Model.Components.ExecutionPlan;
+import Model.Components.Layer;
+import Model.Components.WeightInitializer;
+import Model.Model;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+//Compares the memory retained by the train set and the time of an epoch when the train set is a List<DataVector>
+//shuffled with Collections.shuffle (as before the DataBlock) and when it is packed in a DataBlock with each storage,
+//on a generated file with the layout of the char datasets (63 bipolar inputs and 7 binary labels)
+//Usage: java Benchmarks.PackedDatasetBenchmark [ROWS] [EPOCHS]
+public class PackedDatasetBenchmark {
+    private static final int inputs = 63;
+    private static final int labels = 7;
+    private static final int hidden = 12;
+    private static final float alpha = 0.35F;
+    //Sum of the instant errors of the legacy epochs, like the sum kept by the Model
+    private static float errorSum;
+
+    public static void main(String[] args) throws IOException {
+        //The generated files are temporary, so they are always parsed instead of filling the dataset cache
+        System.setProperty("ann.cache", "none");
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int epochs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Path file = Files.createTempFile("packed", ".csv");
+        try {
+            generate(file, rows);
+            System.out.println(rows + " rows, " + inputs + " inputs, " + labels + " labels, hidden layer of " + hidden);
+            System.out.println("Train set              retained MB    bytes/row    epoch ms");
+
+            long before = usedHeap();
+            List<DataVector> vectors = toVectors(CsvReader.readAll(file.toString()));
+            long retained = usedHeap() - before;
+            print("List<DataVector>", retained, rows, legacyEpochMillis(vectors, epochs));
+
+            for (DataBlock.Storage storage : DataBlock.Storage.values()) {
+                before = usedHeap();
+                //The test set isn't used, the char dataset is only passed because the Dataset needs one
+                Dataset dataset = new Dataset(file.toString(), "datasets/dataset_chars_clean.csv", labels, storage);
+                retained = usedHeap() - before;
+                print("DataBlock " + storage, retained, rows, epochMillis(dataset, epochs));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void print(String name, long retained, int rows, double epochMillis) {
+        System.out.printf("%-22s %12.1f %12.1f %11.1f%n", name, retained / 1e6, (double) retained / rows, epochMillis);
+    }
+
+    //Returns the mean time of an epoch through Model.trainEpoch(), after a warm-up of the same number of epochs
+    private static double epochMillis(Dataset dataset, int epochs) {
+        Model model = new Model(dataset, null);
+        model.setSeed(1L);
+        model.setNOfHiddenPerceptrons(hidden);
+        model.initialize();
+
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            model.trainEpoch();
+        }
+        long start = System.nanoTime();
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            model.trainEpoch();
+        }
+        return (System.nanoTime() - start) / 1e6 / epochs;
+    }
+
+    //Same as epochMillis, with the epoch Model.trainEpoch() ran over a list of vectors before the DataBlock
+    //(the samples go through an execution plan like they do now, only the train set is stored as before)
+    private static double legacyEpochMillis(List<DataVector> vectors, int epochs) {
+        Random random = new Random(1);
+        WeightInitializer initializer = new WeightInitializer(WeightInitializer.Scheme.UNIFORM, 1);
+        Layer inputLayer = new Layer(inputs, null, null, initializer, random.nextLong());
+        Layer hiddenLayer = new Layer(hidden, inputLayer, new ReLuFunction(), initializer, random.nextLong());
+        Layer outputLayer = new Layer(labels, hiddenLayer, new SigmoidFunction(), initializer, random.nextLong());
+        ExecutionPlan plan = new ExecutionPlan(Arrays.asList(inputLayer, hiddenLayer, outputLayer));
+        Arena arena = plan.newArena();
+        List<DataVector> shuffled = new ArrayList<>();
+
+        long start = 0;
+        for (int epoch = -epochs; epoch < epochs; epoch++) {
+            if (epoch == 0) {
+                start = System.nanoTime();
+            }
+            shuffled.clear();
+            shuffled.addAll(vectors);
+            Collections.shuffle(shuffled, random);
+
+            for (DataVector data : shuffled) {
+                System.arraycopy(data.getInput(), 0, arena.getOutputs(), 0, inputs);
+                plan.forward(arena);
+                plan.backward(arena, alpha, data.getLabel());
+                errorSum += plan.calculateInstantError(arena, data.getLabel());
+                plan.update(arena, alpha);
+            }
+        }
+        return (System.nanoTime() - start) / 1e6 / epochs;
+    }
+
+    //Splits the rows of the table in vectors, like the Dataset did before the DataBlock
+    private static List<DataVector> toVectors(DataTable table) {
+        List<DataVector> vectors = new ArrayList<>();
+        float[] values = table.getValues();
+        for (int i = 0; i < table.getRows(); i++) {
+            int row = i * table.getColumns();
+            vectors.add(new DataVector(Arrays.copyOfRange(values, row, row + inputs),
+                    Arrays.copyOfRange(values, row + inputs, row + inputs + labels)));
+        }
+        return vectors;
+    }
+
+    //Returns the heap used once the garbage is collected
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void generate(Path path, int rows) throws IOException {
+        Random r = new Random(1);
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            for (int i = 0; i < rows; i++) {
+                StringBuilder line = new StringBuilder();
+                for (int j = 0; j < inputs; j++) {
+                    line.append(r.nextBoolean() ? "1," : "-1,");
+                }
+                int label = r.nextInt(labels);
+                for (int j = 0; j < labels; j++) {
+                    line.append(j == label ? '1' : '0').append(j < labels - 1 ? "," : "\n");
+                }
+                writer.write(line.toString());
+            }
+        }
+    }
+}
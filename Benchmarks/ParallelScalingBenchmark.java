@@ -0,0 +1,85 @@
+package Benchmarks;
+
+import IO.DataBlock;
+import IO.DataTable;
+import Model.ActivationFunctions.ReLuFunction;
+import Model.ActivationFunctions.SigmoidFunction;
+import Model.Components.ExecutionPlan;
+import Model.Components.Layer;
+import Model.Components.WeightInitializer;
+import Model.ParallelTrainer;
+
+import java.util.Arrays;
+import java.util.Random;
+
+//Reports the number of epochs per second of the ParallelTrainer from 1 thread up to the number of cores
+//Usage: java Benchmarks.ParallelScalingBenchmark [MAX THREADS] [BATCH SIZE] [EPOCHS]
+public class ParallelScalingBenchmark {
+    private static final int inputs = 784;
+    private static final int hidden = 256;
+    private static final int outputs = 10;
+    private static final int rows = 1024;
+    private static final float alpha = 0.01F;
+
+    public static void main(String[] args) {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int epochs = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        DataBlock data = randomData(new Random(1));
+
+        System.out.println("Network " + inputs + " x " + hidden + " x " + outputs + ", " + rows + " rows, batch size " + batchSize);
+        System.out.println("Threads    epochs/s    speedup");
+
+        double single = 0;
+        for (int threads = 1; threads <= maxThreads; threads++) {
+            double epochsPerSecond = measure(data, threads, batchSize, epochs);
+            if (threads == 1) {
+                single = epochsPerSecond;
+            }
+            System.out.printf("%7d %11.2f %9.2fx%n", threads, epochsPerSecond, epochsPerSecond / single);
+        }
+    }
+
+    private static double measure(DataBlock data, int threads, int batchSize, int epochs) {
+        Random random = new Random(2);
+        WeightInitializer initializer = new WeightInitializer(WeightInitializer.Scheme.UNIFORM, 1);
+        Layer inputLayer = new Layer(inputs, null, null, initializer, random.nextLong());
+        Layer hiddenLayer = new Layer(hidden, inputLayer, new ReLuFunction(), initializer, random.nextLong());
+        Layer outputLayer = new Layer(outputs, hiddenLayer, new SigmoidFunction(), initializer, random.nextLong());
+        ParallelTrainer trainer = new ParallelTrainer(new ExecutionPlan(Arrays.asList(inputLayer, hiddenLayer, outputLayer)), threads);
+        float[] instantErrors = new float[data.size()];
+
+        //The first epoch is only used to warm up the JIT and the thread pool
+        long start = 0;
+        for (int epoch = -1; epoch < epochs; epoch++) {
+            if (epoch == 0) {
+                start = System.nanoTime();
+            }
+            for (int from = 0; from < data.size(); from += batchSize) {
+                trainer.trainBatch(data, from, Math.min(from + batchSize, data.size()), alpha, instantErrors);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        trainer.shutdown();
+
+        return epochs / (elapsed / 1e9);
+    }
+
+    private static DataBlock randomData(Random r) {
+        DataTable table = new DataTable();
+        for (int i = 0; i < rows; i++) {
+            float[] input = new float[inputs];
+            float[] label = new float[outputs];
+            for (int j = 0; j < inputs; j++) {
+                input[j] = r.nextBoolean() ? 1F : -1F;
+            }
+            label[r.nextInt(outputs)] = 1F;
+            table.addRow(input, label);
+        }
+
+        DataBlock data = new DataBlock(inputs, outputs);
+        data.pack(table, DataBlock.Storage.FLOAT);
+        return data;
+    }
+}
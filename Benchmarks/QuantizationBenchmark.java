@@ -0,0 +1,143 @@
+package Benchmarks;
+
+import Evaluation.Evaluation;
+import IO.DataVector;
+import IO.Dataset;
+import IO.Output;
+import Inference.QuantizedModel;
+import Model.Model;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+//Trains the chars dataset, quantizes the model to int8 and float16 and compares them with the float model on the test
+//set with 20% of noise: accuracy, mean square error, how many samples get the same class as the float model and the
+//bytes of the weights. Then measures the samples per second of predict() on the chars model and on a wider random
+//model (INPUTS x HIDDEN x 10) whose float weights don't fit in the caches, where the smaller weights matter the most
+//Usage: java Benchmarks.QuantizationBenchmark [INPUTS] [HIDDEN] [SAMPLES]
+public class QuantizationBenchmark {
+    private static final int labels = 10;
+
+    public static void main(String[] args) throws IOException {
+        int inputs = args.length > 0 ? Integer.parseInt(args[0]) : 784;
+        int hidden = args.length > 1 ? Integer.parseInt(args[1]) : 1024;
+        int samples = args.length > 2 ? Integer.parseInt(args[2]) : 20000;
+        System.setProperty("ann.cache", "none");
+
+        Path directory = Files.createTempDirectory("quantization");
+        try {
+            Dataset chars = new Dataset("datasets/dataset_chars_clean.csv", "datasets/dataset_chars_noise_20.csv", 7);
+            Output output = new Output(directory.toString(), Output.Level.OFF, 1);
+            Model model = new Model(chars, output);
+            model.setSeed(1L);
+            model.setCheckpointPath(null);
+            model.trainModel(false, 0.01F);
+            output.generateOutputFiles();
+
+            QuantizedModel int8 = QuantizedModel.quantize(model, QuantizedModel.Precision.INT8);
+            QuantizedModel half = QuantizedModel.quantize(model, QuantizedModel.Precision.FLOAT16);
+            List<DataVector> testSet = chars.getTestSet();
+            System.out.println("Chars model, " + testSet.size() + " test samples with 20% of noise");
+            System.out.println("Precision   accuracy   mean error   same class   weight bytes");
+            Evaluation reference = model.evaluate(1);
+            System.out.println(String.format("%-11s %8.4f %12.6f %12s %14d", "FLOAT", reference.getAccuracy(),
+                    reference.getMeanSquareError(), "-", floatBytes(model)));
+            compare("INT8", model, int8, testSet);
+            compare("FLOAT16", model, half, testSet);
+
+            System.out.println();
+            System.out.println("predict() samples/s");
+            throughput("Chars " + model.getInputLength() + "x" + model.getLayers().get(1).getSize() + "x7", model,
+                    testSet, samples * 10);
+
+            Path train = directory.resolve("train.csv");
+            generate(train, inputs, 200);
+            Dataset random = new Dataset(train.toString(), train.toString(), labels);
+            Model wide = new Model(random, output);
+            wide.setSeed(1L);
+            wide.setNOfHiddenPerceptrons(hidden);
+            wide.initialize();
+            throughput("Random " + inputs + "x" + hidden + "x" + labels, wide, random.getTestSet(), samples);
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static void compare(String name, Model model, QuantizedModel quantized, List<DataVector> testSet) {
+        Evaluation evaluation = quantized.evaluate(testSet);
+        float[] floatOutput = new float[model.getLabelLength()];
+        float[] quantizedOutput = new float[model.getLabelLength()];
+        int same = 0;
+        for (DataVector test : testSet) {
+            if (model.predict(test.getInput(), floatOutput) == quantized.predict(test.getInput(), quantizedOutput)) {
+                same++;
+            }
+        }
+        System.out.println(String.format("%-11s %8.4f %12.6f %7d/%-4d %14d", name, evaluation.getAccuracy(),
+                evaluation.getMeanSquareError(), same, testSet.size(), quantized.getWeightBytes()));
+    }
+
+    private static void throughput(String name, Model model, List<DataVector> testSet, int samples) {
+        QuantizedModel int8 = QuantizedModel.quantize(model, QuantizedModel.Precision.INT8);
+        QuantizedModel half = QuantizedModel.quantize(model, QuantizedModel.Precision.FLOAT16);
+        float[] output = new float[model.getLabelLength()];
+        System.out.println(name + ", " + floatBytes(model) + " bytes of float weights");
+        //The first round warms up the JIT
+        for (int round = 0; round < 2; round++) {
+            long floatNanos = 0, int8Nanos = 0, halfNanos = 0;
+            int checksum = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < samples; i++) {
+                checksum += model.predict(testSet.get(i % testSet.size()).getInput(), output);
+            }
+            floatNanos += System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < samples; i++) {
+                checksum += int8.predict(testSet.get(i % testSet.size()).getInput(), output);
+            }
+            int8Nanos += System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < samples; i++) {
+                checksum += half.predict(testSet.get(i % testSet.size()).getInput(), output);
+            }
+            halfNanos += System.nanoTime() - start;
+
+            if (round == 1) {
+                System.out.println(String.format("  FLOAT %10.0f   INT8 %10.0f   FLOAT16 %10.0f   (checksum %d)",
+                        samples / (floatNanos / 1e9), samples / (int8Nanos / 1e9), samples / (halfNanos / 1e9), checksum));
+            }
+        }
+    }
+
+    private static long floatBytes(Model model) {
+        long bytes = 0;
+        for (int k = 1; k < model.getLayers().size(); k++) {
+            bytes += 4L * (model.getLayers().get(k).getWeights().length + model.getLayers().get(k).getBiasWeights().length);
+        }
+        return bytes;
+    }
+
+    private static void generate(Path path, int inputs, int rows) throws IOException {
+        Random r = new Random(3);
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            for (int i = 0; i < rows; i++) {
+                StringBuilder line = new StringBuilder();
+                for (int j = 0; j < inputs; j++) {
+                    line.append(r.nextInt(256) / 255F).append(',');
+                }
+                int label = r.nextInt(labels);
+                for (int j = 0; j < labels; j++) {
+                    line.append(j == label ? '1' : '0').append(j < labels - 1 ? "," : "\n");
+                }
+                writer.write(line.toString());
+            }
+        }
+    }
+}
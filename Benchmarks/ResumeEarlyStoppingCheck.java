@@ -0,0 +1,114 @@
+package Benchmarks;
+
+import IO.Dataset;
+import IO.Output;
+import IO.TrainingSnapshot;
+import Model.EarlyStopping;
+import Model.Model;
+import Model.Components.Layer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+//Checks that a training with the early stop on, which restores the best weights at the end, gives the same weights
+//when it is resumed from a snapshot: the training takes a snapshot every epoch until the early stop ends it, then
+//a second training resumes from the last snapshot and has to stop at the same epoch with the same weights and mean error,
+//exits with status 1 when they differ. The labels of the generated rows are random, so the validation error soon
+//goes up and the early stop keeps the weights of an epoch before the last snapshot
+//Usage: java Benchmarks.ResumeEarlyStoppingCheck [PATIENCE]
+public class ResumeEarlyStoppingCheck {
+    private static final int inputs = 32;
+    private static final int labels = 4;
+    private static final int trainRows = 64;
+    private static final int testRows = 128;
+
+    public static void main(String[] args) throws IOException {
+        int patience = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        //The generated files are temporary, so they are always parsed instead of filling the dataset cache
+        System.setProperty("ann.cache", "none");
+
+        Path directory = Files.createTempDirectory("resume-early-stopping");
+        try {
+            Path train = directory.resolve("train.csv");
+            Path test = directory.resolve("test.csv");
+            generate(train, trainRows, 1);
+            generate(test, testRows, 2);
+            Dataset dataset = new Dataset(train.toString(), test.toString(), labels);
+            String snapshotPath = directory.resolve("training.snapshot").toString();
+
+            Output output = new Output(directory.toString(), Output.Level.OFF, 1);
+            Model trained = newModel(dataset, output, patience);
+            trained.setSnapshots(snapshotPath, 1, 0);
+            trained.trainModel(true, 0F);
+
+            Model resumed = newModel(dataset, output, patience);
+            resumed.setResumePath(snapshotPath);
+            resumed.trainModel(true, 0F);
+            output.generateOutputFiles();
+
+            float trainedError = trained.getOutputLayer().getMeanSquareError();
+            float resumedError = resumed.getOutputLayer().getMeanSquareError();
+            int trainedEpoch = trained.getProgress().getEpoch();
+            int resumedEpoch = resumed.getProgress().getEpoch();
+            boolean sameWeights = sameWeights(trained.getLayers(), resumed.getLayers());
+
+            System.out.println();
+            System.out.println("Last epoch: " + trainedEpoch + " trained, " + resumedEpoch + " resumed from the snapshot of epoch "
+                    + TrainingSnapshot.read(snapshotPath).getEpoch());
+            System.out.println("Mean square error: " + trainedError + " trained, " + resumedError + " resumed");
+            if (!sameWeights || trainedError != resumedError || trainedEpoch != resumedEpoch) {
+                System.out.println("FAILED: the resumed training stopped at another epoch or with different weights");
+                System.exit(1);
+            }
+            System.out.println("OK: the resumed training stopped at the same epoch with the same weights");
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    //The mean error is never low enough, so the trainings are ended by the early stop
+    private static Model newModel(Dataset dataset, Output output, int patience) {
+        Model model = new Model(dataset, output);
+        model.setSeed(1L);
+        model.setCheckpointPath(null);
+        model.setMaxEpochs(100_000);
+        model.setValidation(1, 1F);
+        model.setEarlyStopping(EarlyStopping.patience(patience, 0F, true));
+        return model;
+    }
+
+    private static boolean sameWeights(List<Layer> trained, List<Layer> resumed) {
+        for (int k = 1; k < trained.size(); k++) {
+            if (!Arrays.equals(trained.get(k).getWeights(), resumed.get(k).getWeights())
+                    || !Arrays.equals(trained.get(k).getBiasWeights(), resumed.get(k).getBiasWeights())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void generate(Path path, int rows, long seed) throws IOException {
+        Random r = new Random(seed);
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            for (int i = 0; i < rows; i++) {
+                StringBuilder line = new StringBuilder();
+                for (int j = 0; j < inputs; j++) {
+                    line.append(r.nextInt(256) / 255F).append(',');
+                }
+                int label = r.nextInt(labels);
+                for (int j = 0; j < labels; j++) {
+                    line.append(j == label ? '1' : '0').append(j < labels - 1 ? "," : "\n");
+                }
+                writer.write(line.toString());
+            }
+        }
+    }
+}
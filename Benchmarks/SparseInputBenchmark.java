@@ -0,0 +1,126 @@
+package Benchmarks;
+
+import IO.DataBlock;
+import IO.DataTable;
+import Model.ActivationFunctions.ReLuFunction;
+import Model.ActivationFunctions.SigmoidFunction;
+import Model.Components.Arena;
+import Model.Components.ExecutionPlan;
+import Model.Components.Layer;
+import Model.Components.WeightInitializer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+//Trains a network with INPUTS inputs online on random rows with a fraction of nonzero inputs (float values, and 0/1
+//values stored as bits) through the dense and the sparse input paths of the execution plan, and reports the storage
+//the block chose, its memory against floats, the path chosen from the density, the time per sample of each path
+//and whether both paths end with the same weights
+//Usage: java Benchmarks.SparseInputBenchmark [INPUTS] [HIDDEN] [ROWS] [EPOCHS]
+public class SparseInputBenchmark {
+    private static final int outputs = 10;
+    private static final float alpha = 0.01F;
+    private static final float[] densities = {0.01F, 0.05F, 0.2F, 0.33F, 0.5F, 1F};
+
+    public static void main(String[] args) {
+        int inputs = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int hidden = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int rows = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int epochs = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+
+        System.out.println(inputs + " inputs, " + hidden + " hidden, " + outputs + " outputs, " + rows + " rows");
+        System.out.println("Values  density  storage  memory/float  chosen path   dense us/sample  sparse us/sample  speedup  same weights");
+        for (boolean binary : new boolean[]{false, true}) {
+            for (float density : densities) {
+                DataBlock data = randomData(new Random(1), inputs, rows, density, binary);
+                DataBlock floats = randomData(new Random(1), inputs, rows, density, binary, DataBlock.Storage.FLOAT);
+
+                //Both paths are measured alternately and the fastest run of each is kept, the first ones also warm up the JIT
+                double dense = Double.MAX_VALUE;
+                double sparse = Double.MAX_VALUE;
+                List<Layer> denseLayers = null;
+                List<Layer> sparseLayers = null;
+                for (int run = 0; run < 3; run++) {
+                    denseLayers = newLayers(inputs, hidden);
+                    dense = Math.min(dense, measure(data, denseLayers, ExecutionPlan.InputPath.DENSE, epochs));
+                    sparseLayers = newLayers(inputs, hidden);
+                    sparse = Math.min(sparse, measure(data, sparseLayers, ExecutionPlan.InputPath.SPARSE, epochs));
+                }
+                boolean same = true;
+                for (int k = 1; k < denseLayers.size(); k++) {
+                    same &= Arrays.equals(denseLayers.get(k).getWeights(), sparseLayers.get(k).getWeights())
+                            && Arrays.equals(denseLayers.get(k).getBiasWeights(), sparseLayers.get(k).getBiasWeights());
+                }
+
+                System.out.printf("%-7s %7.3f  %-7s %13.3f  %-11s %16.1f %17.1f %8.2fx  %s%n", binary ? "0/1" : "float",
+                        data.getInputDensity(), data.getStorage(), (double) data.getMemoryBytes() / floats.getMemoryBytes(),
+                        ExecutionPlan.choosePath(data), dense / 1e3, sparse / 1e3, dense / sparse, same ? "yes" : "NO");
+            }
+        }
+    }
+
+    //Returns the nanoseconds per sample of the online training through the given input path
+    private static double measure(DataBlock data, List<Layer> layers, ExecutionPlan.InputPath path, int epochs) {
+        ExecutionPlan plan = new ExecutionPlan(layers);
+        Arena arena = plan.newArena();
+        float[] label = new float[outputs];
+        float errorSum = 0F;
+
+        long start = System.nanoTime();
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            for (int i = 0; i < data.size(); i++) {
+                plan.loadInput(data, i, arena, path);
+                data.copyLabel(i, label);
+                plan.forward(arena, path);
+                plan.backward(arena, path, alpha, label);
+                errorSum += plan.calculateInstantError(arena, label);
+                plan.update(arena, alpha);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (Float.isNaN(errorSum)) {
+            System.out.println("The training diverged");
+        }
+        return (double) elapsed / epochs / data.size();
+    }
+
+    //Every network starts from the same weights
+    private static List<Layer> newLayers(int inputs, int hidden) {
+        Random r = new Random(2);
+        WeightInitializer initializer = new WeightInitializer(WeightInitializer.Scheme.UNIFORM, 1);
+        List<Layer> layers = new ArrayList<>();
+        layers.add(new Layer(inputs, null, null, initializer, r.nextLong()));
+        layers.add(new Layer(hidden, layers.get(0), new ReLuFunction(), initializer, r.nextLong()));
+        layers.add(new Layer(outputs, layers.get(1), new SigmoidFunction(), initializer, r.nextLong()));
+        return layers;
+    }
+
+    private static DataBlock randomData(Random r, int inputs, int rows, float density, boolean binary) {
+        return randomData(r, inputs, rows, density, binary, null);
+    }
+
+    //The label is the class of the first nonzero input, so the rows can be learned
+    private static DataBlock randomData(Random r, int inputs, int rows, float density, boolean binary,
+                                        DataBlock.Storage storage) {
+        DataTable table = new DataTable();
+        for (int i = 0; i < rows; i++) {
+            float[] input = new float[inputs];
+            float[] label = new float[outputs];
+            int first = -1;
+            for (int j = 0; j < inputs; j++) {
+                if (r.nextFloat() < density) {
+                    input[j] = binary ? 1F : 0.1F + 0.9F * r.nextFloat();
+                    first = first < 0 ? j : first;
+                }
+            }
+            label[Math.max(first, 0) % outputs] = 1F;
+            table.addRow(input, label);
+        }
+
+        DataBlock data = new DataBlock(inputs, outputs);
+        data.pack(table, storage);
+        return data;
+    }
+}
@@ -0,0 +1,87 @@
+package Benchmarks;
+
+import IO.Dataset;
+import IO.StreamingDataset;
+import IO.TrainingSource;
+import Model.Model;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+//Compares the training throughput and the memory retained by the train set when it is loaded in memory (Dataset)
+//and when it is streamed from the file (StreamingDataset), on a generated file with the layout of the char datasets.
+//To train on a file larger than the heap, run only the streaming mode with a small heap, e.g.
+//java -Xmx32m Benchmarks.StreamingTrainingBenchmark 2000000 1 stream
+//Usage: java Benchmarks.StreamingTrainingBenchmark [ROWS] [EPOCHS] [memory|stream|both]
+public class StreamingTrainingBenchmark {
+    private static final int inputs = 63;
+    private static final int labels = 7;
+
+    public static void main(String[] args) throws IOException {
+        //The generated files are temporary, so they are always parsed instead of filling the dataset cache
+        System.setProperty("ann.cache", "none");
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        int epochs = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        String mode = args.length > 2 ? args[2] : "both";
+
+        Path file = Files.createTempFile("streaming", ".csv");
+        try {
+            generate(file, rows);
+            System.out.printf("%d rows, %.1f MB file, %.1f MB max heap%n", rows, Files.size(file) / 1e6,
+                    Runtime.getRuntime().maxMemory() / 1e6);
+            System.out.println("Source      epoch    samples/s    retained heap MB");
+
+            if (!mode.equals("stream")) {
+                //The test set isn't used, the char dataset is only passed because the Dataset needs one
+                measure("memory", new Dataset(file.toString(), "datasets/dataset_chars_clean.csv", labels), epochs);
+            }
+            if (!mode.equals("memory")) {
+                measure("stream", new StreamingDataset(file.toString(), labels), epochs);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    //Runs a warm-up epoch and then prints the throughput of each epoch and the heap used once the garbage is collected
+    private static void measure(String name, TrainingSource source, int epochs) {
+        Model model = new Model(null, null);
+        model.setTrainingSource(source);
+        model.setSeed(1L);
+        model.initialize();
+        model.trainEpoch();
+
+        for (int epoch = 1; epoch <= epochs; epoch++) {
+            long start = System.nanoTime();
+            int samples = model.trainEpoch();
+            long elapsed = System.nanoTime() - start;
+
+            System.gc();
+            Runtime runtime = Runtime.getRuntime();
+            double retained = (runtime.totalMemory() - runtime.freeMemory()) / 1e6;
+            System.out.printf("%-10s %6d %12.0f %19.1f%n", name, epoch, samples / (elapsed / 1e9), retained);
+        }
+
+        source.close();
+    }
+
+    private static void generate(Path path, int rows) throws IOException {
+        Random r = new Random(1);
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            for (int i = 0; i < rows; i++) {
+                StringBuilder line = new StringBuilder();
+                for (int j = 0; j < inputs; j++) {
+                    line.append(r.nextBoolean() ? "1," : "-1,");
+                }
+                int label = r.nextInt(labels);
+                for (int j = 0; j < labels; j++) {
+                    line.append(j == label ? '1' : '0').append(j < labels - 1 ? "," : "\n");
+                }
+                writer.write(line.toString());
+            }
+        }
+    }
+}
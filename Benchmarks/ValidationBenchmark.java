@@ -0,0 +1,119 @@
+package Benchmarks;
+
+import IO.Dataset;
+import IO.Output;
+import Model.EarlyStopping;
+import Model.Model;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+//Measures the time of an epoch of a training with the early stop on, validating with testModel(true) after each epoch
+//like the training did before, against the ValidationEngine validating every epoch, every 5 epochs and on a quarter
+//of the test set. The test set is 4 times larger than the train set, so the validation is most of the epoch.
+//The engine validates while the next epoch is trained, so with more than one core the validation is hidden behind
+//the training, and on any machine it scores the test set in blocks, which is faster than feeding the samples one by one
+//Usage: java Benchmarks.ValidationBenchmark [EPOCHS]
+public class ValidationBenchmark {
+    private static final int inputs = 256;
+    private static final int labels = 10;
+    private static final int hidden = 64;
+    private static final int trainRows = 512;
+    private static final int testRows = 2048;
+
+    public static void main(String[] args) throws IOException {
+        int epochs = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+        //The generated files are temporary, so they are always parsed instead of filling the dataset cache
+        System.setProperty("ann.cache", "none");
+
+        Path directory = Files.createTempDirectory("validation");
+        try {
+            Path train = directory.resolve("train.csv");
+            Path test = directory.resolve("test.csv");
+            generate(train, trainRows, 1);
+            generate(test, testRows, 2);
+            Dataset dataset = new Dataset(train.toString(), test.toString(), labels);
+
+            System.out.println(inputs + "x" + hidden + "x" + labels + " network, " + trainRows + " train rows, " + testRows
+                    + " test rows, " + epochs + " epochs, " + Runtime.getRuntime().availableProcessors() + " cores");
+            System.out.println("Validation                       epoch ms");
+            //The first round warms up the JIT
+            for (int round = 0; round < 2; round++) {
+                measure("none", dataset, directory, epochs, 0, 1F, round == 1);
+                measureTestModel(dataset, directory, epochs, round == 1);
+                measure("engine, every epoch", dataset, directory, epochs, 1, 1F, round == 1);
+                measure("engine, every 5 epochs", dataset, directory, epochs, 5, 1F, round == 1);
+                measure("engine, 25% of the test set", dataset, directory, epochs, 1, 0.25F, round == 1);
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static void measureTestModel(Dataset dataset, Path directory, int epochs, boolean print) {
+        Output output = new Output(directory.toString(), Output.Level.OFF, 1);
+        Model model = newModel(dataset, output, epochs);
+        model.initialize();
+
+        long start = System.nanoTime();
+        for (int epoch = 0; epoch <= epochs; epoch++) {
+            model.trainEpoch();
+            model.testModel(true);
+        }
+        long time = System.nanoTime() - start;
+        output.generateOutputFiles();
+        if (print) {
+            System.out.println(String.format("%-30s %10.2f", "testModel, every epoch", time / 1e6 / (epochs + 1)));
+        }
+    }
+
+    //everyEpochs = 0 trains without the early stop, so nothing is validated
+    private static void measure(String name, Dataset dataset, Path directory, int epochs, int everyEpochs, float fraction,
+                                boolean print) {
+        Output output = new Output(directory.toString(), Output.Level.OFF, 1);
+        Model model = newModel(dataset, output, epochs);
+        if (everyEpochs > 0) {
+            model.setValidation(everyEpochs, fraction);
+        }
+
+        long time = model.trainModel(everyEpochs > 0, 0F);
+        output.generateOutputFiles();
+        if (print) {
+            System.out.println(String.format("%-30s %10.2f", name, time / (double) (epochs + 1)));
+        }
+    }
+
+    private static Model newModel(Dataset dataset, Output output, int epochs) {
+        Model model = new Model(dataset, output);
+        model.setSeed(1L);
+        model.setNOfHiddenPerceptrons(hidden);
+        model.setMaxEpochs(epochs);
+        model.setCheckpointPath(null);
+        //The training never stops early, so every run trains the same epochs
+        model.setEarlyStopping(EarlyStopping.patience(Integer.MAX_VALUE, 0F, false));
+        return model;
+    }
+
+    private static void generate(Path path, int rows, long seed) throws IOException {
+        Random r = new Random(seed);
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            for (int i = 0; i < rows; i++) {
+                StringBuilder line = new StringBuilder();
+                for (int j = 0; j < inputs; j++) {
+                    line.append(r.nextInt(256) / 255F).append(',');
+                }
+                int label = r.nextInt(labels);
+                for (int j = 0; j < labels; j++) {
+                    line.append(j == label ? '1' : '0').append(j < labels - 1 ? "," : "\n");
+                }
+                writer.write(line.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package Evaluation;
+
+public class Evaluation {
+    //Results of scoring a model on a test set: the number of correct and wrong responses, the confusion matrix,
+    //the number of empty outputs and the sum of the instant errors. Each evaluation belongs to a single run,
+    //and it is only written by one thread: a test set scored by several threads gives each one its own evaluation
+    //and merges them at the end, so evaluations of different models never share anything.
+    //An output signal above 0.9 is read as 1, below 0.1 as 0 and anything between as -1 (no answer),
+    //and a response is correct when every output read matches the label
+    private int labelLength;
+    private int correctResponses;
+    private int wrongResponses;
+    //Expected outputs in the rows and actual outputs in the columns, an output with more than one 1 adds to
+    //more than one column of its row and an output without any 1 is an empty output.
+    //A label without any 1 (e.g. the 0 of a single output) has no row, it only counts as a response
+    private int[][] confusionMatrix;
+    private int[] labelCounts;
+    private int emptyOutputs;
+    private float errorSum;
+
+    public Evaluation(int labelLength) {
+        this.labelLength = labelLength;
+        this.confusionMatrix = new int[labelLength][labelLength];
+        this.labelCounts = new int[labelLength];
+    }
+
+    //Reads an output signal: 1 above 0.9, 0 below 0.1 and -1 otherwise
+    public static int threshold(float outputSignal) {
+        if (outputSignal > 0.9F) {
+            return 1;
+        }
+        return outputSignal < 0.1F ? 0 : -1;
+    }
+
+    //Adds the response of a sample, whose output signals are at outputs[offset .. offset + labelLength - 1],
+    //and its instant error. Returns true when the response is correct
+    public boolean add(float[] outputs, int offset, float[] label, float instantError) {
+        boolean correct = true;
+        int row = -1;
+        for (int i = 0; i < labelLength; i++) {
+            int expected = Math.round(label[i]);
+            if (expected != threshold(outputs[offset + i])) {
+                correct = false;
+            }
+            if (row == -1 && expected == 1) {
+                row = i;
+            }
+        }
+
+        boolean hasOnes = false;
+        for (int column = 0; column < labelLength; column++) {
+            if (outputs[offset + column] > 0.9F) {
+                if (row != -1) {
+                    confusionMatrix[row][column]++;
+                }
+                hasOnes = true;
+            }
+        }
+        if (!hasOnes) {
+            emptyOutputs++;
+        }
+        if (row != -1) {
+            labelCounts[row]++;
+        }
+
+        if (correct) {
+            correctResponses++;
+        } else {
+            wrongResponses++;
+        }
+        errorSum += instantError;
+        return correct;
+    }
+
+    //Adds the responses of another evaluation of the same labels to this one
+    public void merge(Evaluation other) {
+        if (other.labelLength != labelLength) {
+            throw new IllegalArgumentException("Expected an evaluation of " + labelLength + " labels");
+        }
+        correctResponses += other.correctResponses;
+        wrongResponses += other.wrongResponses;
+        emptyOutputs += other.emptyOutputs;
+        errorSum += other.errorSum;
+        for (int i = 0; i < labelLength; i++) {
+            labelCounts[i] += other.labelCounts[i];
+            for (int j = 0; j < labelLength; j++) {
+                confusionMatrix[i][j] += other.confusionMatrix[i][j];
+            }
+        }
+    }
+
+    public int getCount() { return correctResponses + wrongResponses; }
+
+    public int getCorrectResponses() { return correctResponses; }
+
+    public int getWrongResponses() { return wrongResponses; }
+
+    public int[][] getConfusionMatrix() { return confusionMatrix; }
+
+    public int getEmptyOutputs() { return emptyOutputs; }
+
+    public float getErrorSum() { return errorSum; }
+
+    //E{av} = 1/N * Σ E{n}
+    public float getMeanSquareError() { return errorSum / getCount(); }
+
+    public double getAccuracy() { return (double) correctResponses / getCount(); }
+
+    public double getEmptyOutputRate() { return (double) emptyOutputs / getCount(); }
+
+    //Fraction of the outputs read as the class that were expected to be the class (NaN when no output was)
+    public double getPrecision(int label) {
+        int predicted = 0;
+        for (int i = 0; i < labelLength; i++) {
+            predicted += confusionMatrix[i][label];
+        }
+        return (double) confusionMatrix[label][label] / predicted;
+    }
+
+    //Fraction of the samples of the class whose output was read as the class (NaN when there are no samples of it)
+    public double getRecall(int label) {
+        return (double) confusionMatrix[label][label] / labelCounts[label];
+    }
+}
@@ -0,0 +1,81 @@
+package Evaluation;
+
+import IO.DataVector;
+import Model.Components.Arena;
+import Model.Components.ExecutionPlan;
+import Model.Components.Layer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class Evaluator {
+    //Scores a test set with the weights of a model on several threads. The test set is split in contiguous shards,
+    //one per thread, and each shard is fed forward through the execution plan with its own arena and counted in its
+    //own Evaluation. The evaluations are merged in the order of the shards, so with one thread the results are the
+    //same as Model.testModel() and with more threads only the sum of the errors can differ in the last bits.
+    //The layers are only read, so the model must not be trained while it is evaluated
+    private ExecutionPlan plan;
+    private int threads;
+    private ExecutorService executor;
+
+    public Evaluator(List<Layer> layers, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads should be at least 1");
+        }
+        this.plan = new ExecutionPlan(layers);
+        this.threads = threads;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "evaluator");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public Evaluation evaluate(List<DataVector> testSet) {
+        int shardSize = (testSet.size() + threads - 1) / threads;
+        List<Future<Evaluation>> shards = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int from = Math.min(i * shardSize, testSet.size());
+            int to = Math.min(from + shardSize, testSet.size());
+            shards.add(executor.submit(shard(testSet, from, to)));
+        }
+
+        Evaluation evaluation = new Evaluation(plan.getLabelLength());
+        try {
+            for (Future<Evaluation> shard : shards) {
+                evaluation.merge(shard.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            System.out.println("An error occurred while evaluating the model");
+            throw new RuntimeException(e.getCause());
+        }
+        return evaluation;
+    }
+
+    private Callable<Evaluation> shard(List<DataVector> testSet, int from, int to) {
+        return () -> {
+            Arena arena = plan.newArena();
+            Evaluation evaluation = new Evaluation(plan.getLabelLength());
+            for (int i = from; i < to; i++) {
+                DataVector test = testSet.get(i);
+                System.arraycopy(test.getInput(), 0, arena.getOutputs(), 0, plan.getInputLength());
+                plan.forward(arena);
+                evaluation.add(arena.getOutputs(), plan.getOutputOffset(), test.getLabel(),
+                        plan.calculateInstantError(arena, test.getLabel()));
+            }
+            return evaluation;
+        };
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
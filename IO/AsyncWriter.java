@@ -0,0 +1,111 @@
+package IO;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AsyncWriter {
+    //Runs the writes of the output files on a background thread, so the training never waits for the disk.
+    //The writes wait in a bounded queue: when it is full a write submitted with submit() is dropped (and counted)
+    //instead of blocking, which is only used for the logs of the training. The writes that must not be lost (the
+    //weights, the results of the tests) are queued with put(), which waits for room in the queue instead.
+    //Large writes (e.g. a copy of the weights of a layer) also count their bytes against a memory limit,
+    //and they are dropped first: they can only use half of the queue, so the small ones (the errors) still fit
+    private static final Runnable stop = () -> { };
+
+    private BlockingQueue<Runnable> queue;
+    private int capacity;
+    private long memoryLimit;
+    private AtomicLong pendingBytes = new AtomicLong(0);
+    private AtomicInteger dropped = new AtomicInteger(0);
+    private Thread thread;
+    private volatile RuntimeException failure;
+
+    public AsyncWriter(int capacity, long memoryLimit) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.capacity = capacity;
+        this.memoryLimit = memoryLimit;
+        this.thread = new Thread(this::run, "output-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    //Queues a small write, returns false when the queue is full and the write was dropped
+    public boolean submit(Runnable write) {
+        if (!queue.offer(write)) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    //Queues a write that must not be lost, waiting for room in the queue when it is full
+    public void put(Runnable write) {
+        try {
+            queue.put(write);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    //Queues a write that keeps the given number of bytes in memory until it runs.
+    //It is dropped when it would take more than half of the queue or of the memory limit
+    public boolean submit(Runnable write, long bytes) {
+        if (queue.size() >= capacity / 2 || pendingBytes.get() + bytes > memoryLimit / 2) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        pendingBytes.addAndGet(bytes);
+        if (!queue.offer(() -> {
+            try {
+                write.run();
+            } finally {
+                pendingBytes.addAndGet(-bytes);
+            }
+        })) {
+            pendingBytes.addAndGet(-bytes);
+            dropped.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private void run() {
+        try {
+            Runnable write;
+            while ((write = queue.take()) != stop) {
+                try {
+                    write.run();
+                } catch (RuntimeException e) {
+                    //Only the first error is kept, the next writes still run
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //Waits for the queued writes to run and stops the writer thread
+    public void close() {
+        try {
+            queue.put(stop);
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        if (failure != null) {
+            System.out.println("An error occurred while writing output files");
+            throw new RuntimeException(failure);
+        }
+    }
+
+    public int getDropped() { return dropped.get(); }
+
+    public long getPendingBytes() { return pendingBytes.get(); }
+}
@@ -0,0 +1,337 @@
+package IO;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+public class CsvReader implements AutoCloseable {
+    //This class reads a CSV file of numbers row by row without creating any String.
+    //The file is read in blocks into a buffer and every value is parsed by hand from the bytes straight
+    //into the float array of a DataTable. The values can be integers or decimals with an optional exponent
+    //("1", "-0.25", "3e-2"); blank lines, spaces, carriage returns and byte order marks are ignored
+    private static final int bufferSize = 1 << 20;
+
+    //Powers of ten that are exact as floats and as doubles
+    private static final float[] floatPowersOfTen = {1e0F, 1e1F, 1e2F, 1e3F, 1e4F, 1e5F, 1e6F, 1e7F, 1e8F, 1e9F, 1e10F};
+    private static final double[] doublePowersOfTen = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private static final int row = 0;
+    private static final int blankLine = 1;
+    private static final int incompleteLine = 2;
+    private static final int endOfFile = 3;
+
+    private String path;
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private boolean lastBuffer;
+    private long line;
+    private int columns;
+    private int numberEnd;
+
+    public CsvReader(String path) {
+        this.path = path;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.buffer.limit(0);
+
+        try {
+            this.channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        } catch (IOException e) {
+            System.out.println("An error occurred while opening " + path);
+            throw new RuntimeException(e);
+        }
+    }
+
+    //Returns a table with all the rows of the file
+    public static DataTable readAll(String path) {
+        DataTable table = new DataTable();
+        try (CsvReader reader = new CsvReader(path)) {
+            while (reader.readRow(table)) {
+            }
+        }
+        return table;
+    }
+
+    //Parses the next row of the file at the end of the table, returns false when there are no rows left
+    public boolean readRow(DataTable table) {
+        while (true) {
+            switch (parseRow(table)) {
+                case row:
+                    line++;
+                    return true;
+                case blankLine:
+                    line++;
+                    break;
+                case incompleteLine:
+                    fill();
+                    break;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    //Parses the line at the position of the buffer. The position is only moved when the whole line was in the buffer,
+    //otherwise the buffer is filled and the line is parsed again from the start
+    private int parseRow(DataTable table) {
+        byte[] bytes = buffer.array();
+        int limit = buffer.limit();
+        int i = buffer.position();
+        if (i == limit) {
+            return lastBuffer ? endOfFile : incompleteLine;
+        }
+
+        float[] values = table.getValues();
+        int start = table.size();
+        int count = 0;
+
+        while (true) {
+            i = skipSpaces(bytes, i, limit);
+            if (i == limit) {
+                if (!lastBuffer) {
+                    return incompleteLine;
+                }
+                break;
+            }
+            if (bytes[i] == '\n') {
+                i++;
+                break;
+            }
+
+            if (start + count == values.length) {
+                values = table.grow();
+            }
+            values[start + count++] = parseNumber(bytes, i, limit);
+
+            i = skipSpaces(bytes, numberEnd, limit);
+            if (i == limit) {
+                if (!lastBuffer) {
+                    return incompleteLine;
+                }
+                break;
+            }
+            byte b = bytes[i++];
+            if (b == '\n') {
+                break;
+            }
+            if (b != ',') {
+                throw error("unexpected character '" + (char) b + "' after value " + count);
+            }
+        }
+
+        buffer.position(i);
+        if (count == 0) {
+            return blankLine;
+        }
+        if (columns == 0) {
+            columns = count;
+        } else if (count != columns) {
+            throw error(count + " values but the first row has " + columns);
+        }
+        table.addRow(count);
+        return row;
+    }
+
+    private static int skipSpaces(byte[] bytes, int i, int limit) {
+        while (i < limit) {
+            byte b = bytes[i];
+            //The bytes of the UTF-8 byte order mark (EF BB BF) are skipped as well
+            if (b != ' ' && b != '\t' && b != '\r' && b != (byte) 0xEF && b != (byte) 0xBB && b != (byte) 0xBF) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    //Parses the number that starts at the position start and sets numberEnd to the position right after it.
+    //Integers, by far the most common values, are parsed here and the other numbers by parseDecimal,
+    //which keeps this method small enough to be inlined in the loop of the row
+    private float parseNumber(byte[] bytes, int start, int limit) {
+        int i = start;
+        boolean negative = bytes[i] == '-';
+        if (negative || bytes[i] == '+') {
+            i++;
+        }
+
+        int digitsStart = i;
+        long value = 0;
+        byte b;
+        while (i < limit && (b = bytes[i]) >= '0' && b <= '9' && i - digitsStart < 18) {
+            value = value * 10 + (b - '0');
+            i++;
+        }
+
+        if (i == digitsStart || (i < limit && ((b = bytes[i]) == '.' || b == 'e' || b == 'E' || (b >= '0' && b <= '9')))) {
+            return parseDecimal(bytes, start, limit);
+        }
+
+        numberEnd = i;
+        return negative ? -(float) value : (float) value;
+    }
+
+    //The digits are accumulated in a long and scaled by a power of ten, the result is rounded exactly like Float.parseFloat
+    private float parseDecimal(byte[] bytes, int start, int limit) {
+        int i = start;
+        byte b = bytes[i];
+        boolean negative = b == '-';
+        if (b == '-' || b == '+') {
+            i++;
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean hasDigits = false;
+        boolean truncated = false;
+
+        while (i < limit && (b = bytes[i]) >= '0' && b <= '9') {
+            if (significantDigits < 18) {
+                mantissa = mantissa * 10 + (b - '0');
+                significantDigits += mantissa != 0 ? 1 : 0;
+            } else {
+                truncated = true;
+            }
+            hasDigits = true;
+            i++;
+        }
+
+        if (i < limit && bytes[i] == '.') {
+            i++;
+            while (i < limit && (b = bytes[i]) >= '0' && b <= '9') {
+                if (significantDigits < 18) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    significantDigits += mantissa != 0 ? 1 : 0;
+                    exponent--;
+                } else {
+                    truncated = true;
+                }
+                hasDigits = true;
+                i++;
+            }
+        }
+
+        if (!hasDigits) {
+            //"NaN" and "Infinity", as written by Float.toString, are left to the JDK
+            while (i < limit && Character.isLetter(bytes[i])) {
+                i++;
+            }
+            numberEnd = i;
+            if (i == limit && !lastBuffer) {
+                //The number continues in the part of the file that wasn't read yet
+                return 0F;
+            }
+            return parseText(bytes, start, i);
+        }
+
+        if (i < limit && ((b = bytes[i]) == 'e' || b == 'E')) {
+            i++;
+            boolean negativeExponent = i < limit && bytes[i] == '-';
+            if (i < limit && (bytes[i] == '-' || bytes[i] == '+')) {
+                i++;
+            }
+            int digitsStart = i;
+            int value = 0;
+            while (i < limit && (b = bytes[i]) >= '0' && b <= '9') {
+                value = Math.min(value * 10 + (b - '0'), 100000);
+                i++;
+            }
+            if (i == digitsStart) {
+                if (i == limit && !lastBuffer) {
+                    //The number continues in the part of the file that wasn't read yet
+                    numberEnd = limit;
+                    return 0F;
+                }
+                throw error("invalid exponent");
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+
+        numberEnd = i;
+
+        //Numbers that can't be converted exactly with the fast paths are left to the JDK
+        float value = truncated ? Float.NaN : toFloat(mantissa, exponent);
+        if (Float.isNaN(value)) {
+            return parseText(bytes, start, i);
+        }
+        return negative ? -value : value;
+    }
+
+    private float parseText(byte[] bytes, int start, int end) {
+        String text = new String(bytes, start, end - start, StandardCharsets.US_ASCII);
+        try {
+            return Float.parseFloat(text);
+        } catch (NumberFormatException e) {
+            throw error("invalid number " + text);
+        }
+    }
+
+    //Returns mantissa * 10^exponent rounded to the nearest float, or NaN when it can't be done exactly here
+    private static float toFloat(long mantissa, int exponent) {
+        if (mantissa == 0 || exponent == 0) {
+            return (float) mantissa;
+        }
+
+        //Both operands are exact floats, so a single float operation rounds correctly
+        if (mantissa < 1 << 24 && exponent >= -10 && exponent <= 10) {
+            return exponent < 0 ? mantissa / floatPowersOfTen[-exponent] : mantissa * floatPowersOfTen[exponent];
+        }
+
+        //Both operands are exact doubles, so the double is correctly rounded. Rounding it again to a float gives
+        //the same result as rounding the exact value unless the double landed exactly halfway between two floats
+        if (mantissa < 1L << 53 && exponent >= -22 && exponent <= 22) {
+            double value = exponent < 0 ? mantissa / doublePowersOfTen[-exponent] : mantissa * doublePowersOfTen[exponent];
+            boolean halfway = (Double.doubleToRawLongBits(value) & 0x1FFFFFFFL) == 0x10000000L;
+            if (value >= Float.MIN_NORMAL && !halfway) {
+                return (float) value;
+            }
+        }
+
+        return Float.NaN;
+    }
+
+    //Moves the incomplete line to the start of the buffer and reads the rest of the buffer from the file,
+    //the buffer is doubled when the line doesn't fit in it
+    private void fill() {
+        if (buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+            ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+            larger.put(buffer);
+            buffer = larger;
+        } else {
+            buffer.compact();
+        }
+
+        try {
+            int read = 0;
+            while (read == 0) {
+                read = channel.read(buffer);
+            }
+            lastBuffer = read < 0;
+        } catch (IOException e) {
+            System.out.println("An error occurred while reading " + path);
+            throw new RuntimeException(e);
+        }
+
+        buffer.flip();
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Line " + (line + 1) + " of " + path + ": " + message);
+    }
+
+    //Returns the number of values of the first row, 0 before the first row is read
+    public int getColumns() { return this.columns; }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.out.println("An error occurred while closing " + path);
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,516 @@
+package IO;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+public class DataBlock {
+    //Samples packed in contiguous arrays instead of one DataVector per row: the inputs of the row r start at
+    //r * inputLength in the input storage and its labels at r * labelLength in the labels array.
+    //The inputs are stored as floats, as bytes when they are all integers from -128 to 127, or as a single bit
+    //each when they only take two values (e.g. -1 and 1 in the char datasets), which uses 4 and 32 times less memory.
+    //Mostly zero inputs are stored as compressed sparse rows instead: the index and the value of each nonzero input,
+    //the ones of the row r from sparseStarts[r] to sparseStarts[r + 1] - 1.
+    //The rows are visited through the order array, so shuffling the block only moves ints
+    public enum Storage { FLOAT, INT8, BITS, SPARSE }
+
+    private int inputLength;
+    private int labelLength;
+    private int size;
+    private Storage storage;
+
+    private float[] floatInputs = new float[0];
+    private byte[] byteInputs = new byte[0];
+    private long[] bitInputs = new long[0];
+    private int wordsPerRow;
+    //Values of the clear (index 0) and set (index 1) bits when the inputs are stored as bits
+    private float[] levels = new float[2];
+    private int[] sparseStarts = new int[1];
+    private int[] sparseIndices = new int[0];
+    private float[] sparseValues = new float[0];
+    //Number of inputs of all the rows that aren't 0, counted when the block is packed or decoded
+    private long nonzeroInputs;
+
+    private float[] labels = new float[0];
+    private int[] order = new int[0];
+
+    public DataBlock(int inputLength, int labelLength) {
+        this.inputLength = inputLength;
+        this.labelLength = labelLength;
+        this.wordsPerRow = (inputLength + 63) / 64;
+    }
+
+    //Replaces the rows of the block with the rows of the table (inputs followed by labels), in the order of the table.
+    //When storage is null the smallest storage that keeps the inputs exact is used, a storage that can't keep them exact fails.
+    //The arrays of the block are reused when they are large enough
+    public void pack(DataTable table, Storage storage) {
+        if (table.getRows() > 0 && table.getColumns() != inputLength + labelLength) {
+            throw new IllegalArgumentException("Expected rows with " + (inputLength + labelLength)
+                    + " values but got " + table.getColumns());
+        }
+
+        if (storage != null && !fits(table, inputLength, storage)) {
+            throw new IllegalArgumentException("The inputs can't be stored exactly as " + storage);
+        }
+
+        this.size = table.getRows();
+        this.storage = storage != null ? storage : chooseStorage(table, inputLength);
+        float[] values = table.getValues();
+        int columns = table.getColumns();
+
+        if (order.length < size) {
+            order = new int[size];
+        }
+        if (labels.length < size * labelLength) {
+            labels = new float[size * labelLength];
+        }
+        for (int r = 0; r < size; r++) {
+            order[r] = r;
+            System.arraycopy(values, r * columns + inputLength, labels, r * labelLength, labelLength);
+        }
+
+        switch (this.storage) {
+            case FLOAT:
+                if (floatInputs.length < size * inputLength) {
+                    floatInputs = new float[size * inputLength];
+                }
+                for (int r = 0; r < size; r++) {
+                    System.arraycopy(values, r * columns, floatInputs, r * inputLength, inputLength);
+                }
+                break;
+            case INT8:
+                if (byteInputs.length < size * inputLength) {
+                    byteInputs = new byte[size * inputLength];
+                }
+                for (int r = 0; r < size; r++) {
+                    for (int j = 0; j < inputLength; j++) {
+                        byteInputs[r * inputLength + j] = (byte) values[r * columns + j];
+                    }
+                }
+                break;
+            case SPARSE:
+                int count = 0;
+                for (int r = 0; r < size; r++) {
+                    count += countNonzero(values, r * columns, inputLength);
+                }
+                if (sparseStarts.length < size + 1) {
+                    sparseStarts = new int[size + 1];
+                }
+                if (sparseIndices.length < count) {
+                    sparseIndices = new int[count];
+                    sparseValues = new float[count];
+                }
+                count = 0;
+                for (int r = 0; r < size; r++) {
+                    sparseStarts[r] = count;
+                    for (int j = 0; j < inputLength; j++) {
+                        float value = values[r * columns + j];
+                        if (value != 0F) {
+                            sparseIndices[count] = j;
+                            sparseValues[count++] = value;
+                        }
+                    }
+                }
+                sparseStarts[size] = count;
+                break;
+            default:
+                if (bitInputs.length < size * wordsPerRow) {
+                    bitInputs = new long[size * wordsPerRow];
+                }
+                levels = bitLevels(table, inputLength);
+                for (int r = 0; r < size; r++) {
+                    for (int w = 0; w < wordsPerRow; w++) {
+                        bitInputs[r * wordsPerRow + w] = 0L;
+                    }
+                    for (int j = 0; j < inputLength; j++) {
+                        if (values[r * columns + j] == levels[1]) {
+                            bitInputs[r * wordsPerRow + (j >>> 6)] |= 1L << j;
+                        }
+                    }
+                }
+        }
+        this.nonzeroInputs = countNonzeroInputs();
+    }
+
+    //Returns the smallest storage that keeps all the inputs of the table exact. A sparse row takes 8 bytes per nonzero
+    //input, so sparse rows are chosen when less than half of the float inputs, an eighth of the byte inputs
+    //or a 64th of the bit inputs aren't 0
+    public static Storage chooseStorage(DataTable table, int inputLength) {
+        Storage dense;
+        long denseBytes;
+        if (fits(table, inputLength, Storage.BITS)) {
+            dense = Storage.BITS;
+            denseBytes = 8L * table.getRows() * ((inputLength + 63) / 64);
+        } else if (fits(table, inputLength, Storage.INT8)) {
+            dense = Storage.INT8;
+            denseBytes = (long) table.getRows() * inputLength;
+        } else {
+            dense = Storage.FLOAT;
+            denseBytes = 4L * table.getRows() * inputLength;
+        }
+
+        long nonzero = 0;
+        for (int r = 0; r < table.getRows(); r++) {
+            nonzero += countNonzero(table.getValues(), r * table.getColumns(), inputLength);
+        }
+        return 4L * (table.getRows() + 1) + 8L * nonzero < denseBytes ? Storage.SPARSE : dense;
+    }
+
+    //Returns whether all the inputs of the table can be kept exact with the given storage
+    public static boolean fits(DataTable table, int inputLength, Storage storage) {
+        if (storage == Storage.FLOAT || storage == Storage.SPARSE) {
+            return true;
+        }
+        if (storage == Storage.BITS) {
+            return bitLevels(table, inputLength) != null;
+        }
+
+        float[] values = table.getValues();
+        for (int r = 0; r < table.getRows(); r++) {
+            for (int j = 0; j < inputLength; j++) {
+                float value = values[r * table.getColumns() + j];
+                if (value != (byte) value || Float.floatToRawIntBits(value) == 0x80000000) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    //Returns the two values taken by the inputs (the lowest first), or null when they take more than two values.
+    //When they only take one value, it is used for both the clear and the set bits
+    private static float[] bitLevels(DataTable table, int inputLength) {
+        float[] values = table.getValues();
+        boolean hasFirst = false;
+        boolean hasSecond = false;
+        float first = 0F;
+        float second = 0F;
+
+        for (int r = 0; r < table.getRows(); r++) {
+            for (int j = 0; j < inputLength; j++) {
+                float value = values[r * table.getColumns() + j];
+                //NaN and -0.0 can't be told apart from other values by ==, so they are left to the other storages
+                if (Float.isNaN(value) || Float.floatToRawIntBits(value) == 0x80000000) {
+                    return null;
+                }
+                if (!hasFirst) {
+                    first = value;
+                    hasFirst = true;
+                } else if (value != first) {
+                    if (!hasSecond) {
+                        second = value;
+                        hasSecond = true;
+                    } else if (value != second) {
+                        return null;
+                    }
+                }
+            }
+        }
+
+        if (!hasSecond) {
+            return new float[] {first, first};
+        }
+        return new float[] {Math.min(first, second), Math.max(first, second)};
+    }
+
+    //-0.0 == 0 too, so it is left out of the sparse rows like 0
+    private static int countNonzero(float[] values, int from, int length) {
+        int count = 0;
+        for (int j = from; j < from + length; j++) {
+            if (values[j] != 0F) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long countNonzeroInputs() {
+        switch (storage) {
+            case FLOAT:
+                return countNonzero(floatInputs, 0, size * inputLength);
+            case INT8:
+                long count = 0;
+                for (int k = 0; k < size * inputLength; k++) {
+                    if (byteInputs[k] != 0) {
+                        count++;
+                    }
+                }
+                return count;
+            case SPARSE:
+                return sparseStarts[size];
+            default:
+                long setBits = 0;
+                for (int k = 0; k < size * wordsPerRow; k++) {
+                    setBits += Long.bitCount(bitInputs[k]);
+                }
+                return (levels[1] != 0F ? setBits : 0) + (levels[0] != 0F ? (long) size * inputLength - setBits : 0);
+        }
+    }
+
+    //Returns a block with the same rows but its own order, so it can be shuffled and read by another thread
+    //while this one is used. The rows aren't copied, so neither block must be packed again
+    public DataBlock view() {
+        DataBlock view = new DataBlock(inputLength, labelLength);
+        view.size = size;
+        view.storage = storage;
+        view.floatInputs = floatInputs;
+        view.byteInputs = byteInputs;
+        view.bitInputs = bitInputs;
+        view.levels = levels;
+        view.sparseStarts = sparseStarts;
+        view.sparseIndices = sparseIndices;
+        view.sparseValues = sparseValues;
+        view.nonzeroInputs = nonzeroInputs;
+        view.labels = labels;
+        view.order = new int[size];
+        for (int r = 0; r < size; r++) {
+            view.order[r] = r;
+        }
+        return view;
+    }
+
+    //Puts the rows in a random order. It starts from the order of the table and swaps the rows exactly like
+    //Collections.shuffle, so the order only depends on the state of the generator
+    public void shuffle(Random random) {
+        for (int r = 0; r < size; r++) {
+            order[r] = r;
+        }
+        for (int i = size; i > 1; i--) {
+            int j = random.nextInt(i);
+            int row = order[i - 1];
+            order[i - 1] = order[j];
+            order[j] = row;
+        }
+    }
+
+    //Writes the inputs of the i-th row in the current order to destination
+    public void copyInput(int i, float[] destination) {
+        int row = order[i];
+        switch (storage) {
+            case FLOAT:
+                System.arraycopy(floatInputs, row * inputLength, destination, 0, inputLength);
+                break;
+            case INT8:
+                int start = row * inputLength;
+                for (int j = 0; j < inputLength; j++) {
+                    destination[j] = byteInputs[start + j];
+                }
+                break;
+            case SPARSE:
+                Arrays.fill(destination, 0, inputLength, 0F);
+                for (int k = sparseStarts[row]; k < sparseStarts[row + 1]; k++) {
+                    destination[sparseIndices[k]] = sparseValues[k];
+                }
+                break;
+            default:
+                //The bit selects the value, without any branch
+                int words = row * wordsPerRow;
+                for (int j = 0; j < inputLength; j++) {
+                    destination[j] = levels[(int) (bitInputs[words + (j >>> 6)] >>> j) & 1];
+                }
+        }
+    }
+
+    //Writes the indices (in ascending order) and the values of the inputs of the i-th row in the current order that
+    //aren't 0 to indices and values, and returns how many there are. Both arrays need room for inputLength inputs
+    public int copySparseInput(int i, int[] indices, float[] values) {
+        int row = order[i];
+        int count = 0;
+        switch (storage) {
+            case FLOAT:
+                int start = row * inputLength;
+                for (int j = 0; j < inputLength; j++) {
+                    if (floatInputs[start + j] != 0F) {
+                        indices[count] = j;
+                        values[count++] = floatInputs[start + j];
+                    }
+                }
+                return count;
+            case INT8:
+                start = row * inputLength;
+                for (int j = 0; j < inputLength; j++) {
+                    if (byteInputs[start + j] != 0) {
+                        indices[count] = j;
+                        values[count++] = byteInputs[start + j];
+                    }
+                }
+                return count;
+            case SPARSE:
+                count = sparseStarts[row + 1] - sparseStarts[row];
+                System.arraycopy(sparseIndices, sparseStarts[row], indices, 0, count);
+                System.arraycopy(sparseValues, sparseStarts[row], values, 0, count);
+                return count;
+            default:
+                if (levels[0] != 0F && levels[1] != 0F) {
+                    for (int j = 0; j < inputLength; j++) {
+                        indices[j] = j;
+                    }
+                    copyInput(i, values);
+                    return inputLength;
+                }
+                //Only the bits of the nonzero level are visited, a word at a time (flipped when it is the clear level)
+                long flip = levels[0] != 0F ? -1L : 0L;
+                float value = levels[0] != 0F ? levels[0] : levels[1];
+                if (value == 0F) {
+                    return 0;
+                }
+                int words = row * wordsPerRow;
+                for (int w = 0; w < wordsPerRow; w++) {
+                    long word = bitInputs[words + w] ^ flip;
+                    if (w == wordsPerRow - 1 && (inputLength & 63) != 0) {
+                        word &= (1L << inputLength) - 1;
+                    }
+                    while (word != 0L) {
+                        indices[count] = (w << 6) + Long.numberOfTrailingZeros(word);
+                        values[count++] = value;
+                        word &= word - 1;
+                    }
+                }
+                return count;
+        }
+    }
+
+    //Writes the labels of the i-th row in the current order to destination
+    public void copyLabel(int i, float[] destination) {
+        System.arraycopy(labels, order[i] * labelLength, destination, 0, labelLength);
+    }
+
+    //Returns the i-th row in the current order as a new vector
+    public DataVector getVector(int i) {
+        float[] input = new float[inputLength];
+        float[] label = new float[labelLength];
+        copyInput(i, input);
+        copyLabel(i, label);
+        return new DataVector(input, label);
+    }
+
+    //Returns the number of bytes written by encode
+    public long getEncodedBytes() {
+        return 24 + (getMemoryBytes() - 4L * size * (labelLength + 1) + 7) / 8 * 8 + 4L * size * labelLength;
+    }
+
+    //Writes the rows of the block, in the order of the table they were packed from, at the position of the buffer
+    //(which must be little endian). The layout is:
+    //  int input length, int label length, int rows, int storage, float clear level, float set level
+    //  inputs in the storage of the block (floats, bytes or longs, or for sparse rows the int starts of the rows followed
+    //  by the int indices and the float values), padding up to a multiple of 8 bytes
+    //  float labels[rows * label length]
+    public void encode(ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.putInt(inputLength).putInt(labelLength).putInt(size).putInt(storage.ordinal());
+        buffer.putFloat(levels[0]).putFloat(levels[1]);
+        switch (storage) {
+            case FLOAT:
+                buffer.asFloatBuffer().put(floatInputs, 0, size * inputLength);
+                buffer.position(buffer.position() + 4 * size * inputLength);
+                break;
+            case INT8:
+                buffer.put(byteInputs, 0, size * inputLength);
+                break;
+            case SPARSE:
+                int count = sparseStarts[size];
+                buffer.asIntBuffer().put(sparseStarts, 0, size + 1);
+                buffer.position(buffer.position() + 4 * (size + 1));
+                buffer.asIntBuffer().put(sparseIndices, 0, count);
+                buffer.position(buffer.position() + 4 * count);
+                buffer.asFloatBuffer().put(sparseValues, 0, count);
+                buffer.position(buffer.position() + 4 * count);
+                break;
+            default:
+                buffer.asLongBuffer().put(bitInputs, 0, size * wordsPerRow);
+                buffer.position(buffer.position() + 8 * size * wordsPerRow);
+        }
+        buffer.position(start + (buffer.position() - start + 7) / 8 * 8);
+        buffer.asFloatBuffer().put(labels, 0, size * labelLength);
+        buffer.position(buffer.position() + 4 * size * labelLength);
+    }
+
+    //Reads a block written by encode from the position of the buffer, the arrays are bulk copied out of the buffer
+    public static DataBlock decode(ByteBuffer buffer) {
+        int start = buffer.position();
+        DataBlock block = new DataBlock(buffer.getInt(), buffer.getInt());
+        int size = buffer.getInt();
+        int storage = buffer.getInt();
+        if (block.inputLength < 0 || block.labelLength < 0 || size < 0 || storage < 0 || storage >= Storage.values().length) {
+            throw new IllegalArgumentException("Invalid block header");
+        }
+        block.size = size;
+        block.storage = Storage.values()[storage];
+        block.levels = new float[] {buffer.getFloat(), buffer.getFloat()};
+
+        switch (block.storage) {
+            case FLOAT:
+                block.floatInputs = new float[size * block.inputLength];
+                buffer.asFloatBuffer().get(block.floatInputs);
+                buffer.position(buffer.position() + 4 * block.floatInputs.length);
+                break;
+            case INT8:
+                block.byteInputs = new byte[size * block.inputLength];
+                buffer.get(block.byteInputs);
+                break;
+            case SPARSE:
+                block.sparseStarts = new int[size + 1];
+                buffer.asIntBuffer().get(block.sparseStarts);
+                buffer.position(buffer.position() + 4 * (size + 1));
+                int count = block.sparseStarts[size];
+                if (block.sparseStarts[0] != 0 || count < 0) {
+                    throw new IllegalArgumentException("Invalid sparse rows");
+                }
+                block.sparseIndices = new int[count];
+                block.sparseValues = new float[count];
+                buffer.asIntBuffer().get(block.sparseIndices);
+                buffer.position(buffer.position() + 4 * count);
+                buffer.asFloatBuffer().get(block.sparseValues);
+                buffer.position(buffer.position() + 4 * count);
+                break;
+            default:
+                block.bitInputs = new long[size * block.wordsPerRow];
+                buffer.asLongBuffer().get(block.bitInputs);
+                buffer.position(buffer.position() + 8 * block.bitInputs.length);
+        }
+        buffer.position(start + (buffer.position() - start + 7) / 8 * 8);
+        block.labels = new float[size * block.labelLength];
+        buffer.asFloatBuffer().get(block.labels);
+        buffer.position(buffer.position() + 4 * block.labels.length);
+
+        block.order = new int[size];
+        for (int r = 0; r < size; r++) {
+            block.order[r] = r;
+        }
+        block.nonzeroInputs = block.countNonzeroInputs();
+        return block;
+    }
+
+    //Returns the number of bytes used by the rows of the block (inputs, labels and order)
+    public long getMemoryBytes() {
+        long inputBytes;
+        switch (storage) {
+            case FLOAT:
+                inputBytes = 4L * size * inputLength;
+                break;
+            case INT8:
+                inputBytes = (long) size * inputLength;
+                break;
+            case SPARSE:
+                inputBytes = 4L * (size + 1) + 8L * sparseStarts[size];
+                break;
+            default:
+                inputBytes = 8L * size * wordsPerRow;
+        }
+        return inputBytes + 4L * size * labelLength + 4L * size;
+    }
+
+    public int size() { return this.size; }
+
+    public Storage getStorage() { return this.storage; }
+
+    //Fraction of the inputs of all the rows that aren't 0 (1 for an empty block)
+    public float getInputDensity() {
+        long inputs = (long) size * inputLength;
+        return inputs > 0 ? (float) ((double) nonzeroInputs / inputs) : 1F;
+    }
+
+    public int getInputLength() { return this.inputLength; }
+
+    public int getLabelLength() { return this.labelLength; }
+}
@@ -0,0 +1,55 @@
+package IO;
+
+import java.util.Arrays;
+
+public class DataTable {
+    //Rows of numbers packed one after the other in a single float array,
+    //the value in the column j of the row i is at values[i * columns + j]
+    private float[] values;
+    private int columns;
+    private int rows;
+
+    public DataTable() {
+        this.values = new float[1024];
+    }
+
+    //Doubles the capacity of the table and returns the new array of values
+    public float[] grow() {
+        this.values = Arrays.copyOf(values, values.length * 2);
+        return this.values;
+    }
+
+    //Adds the row that was written right after the last one, the first row sets the number of columns
+    public void addRow(int columns) {
+        if (rows == 0) {
+            this.columns = columns;
+        } else if (columns != this.columns) {
+            throw new IllegalArgumentException("Expected rows with " + this.columns + " values but got " + columns);
+        }
+        this.rows++;
+    }
+
+    //Adds a row with the input followed by the label
+    public void addRow(float[] input, float[] label) {
+        while (size() + input.length + label.length > values.length) {
+            grow();
+        }
+        System.arraycopy(input, 0, values, size(), input.length);
+        System.arraycopy(label, 0, values, size() + input.length, label.length);
+        addRow(input.length + label.length);
+    }
+
+    //Removes all the rows but keeps the memory, so the table can be filled again
+    public void clear() {
+        this.rows = 0;
+    }
+
+    public float[] getValues() { return this.values; }
+
+    public int getColumns() { return this.columns; }
+
+    public int getRows() { return this.rows; }
+
+    //Returns the number of values in the table
+    public int size() { return this.rows * this.columns; }
+}
@@ -1,69 +1,136 @@
 package IO;
 
-import java.io.File;
+import Metrics.Counter;
+import Metrics.Histogram;
+import Metrics.Metrics;
+
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Collections;
-import java.util.Scanner;
+import java.util.Random;
+
+public class Dataset implements TrainingSource {
+    //The train set is packed in a single DataBlock (the inputs of the char datasets take a bit each) and each epoch
+    //only shuffles its order. The test set is kept as vectors, since the tests read it in order and print each vector.
+    //Both files are loaded through the DatasetCache, so a file is only parsed the first time it is loaded (and when it
+    //changes); -Dann.cache sets the directory of the cache and -Dann.cache=none parses the files every time
+    private static final String cacheDirectory = System.getProperty("ann.cache", "cache");
+    private static final Histogram loadLatency = Metrics.histogram("ann_dataset_load_seconds",
+            "Time to load a dataset file (parsed or from the cache)");
+    private static final Counter loadedRows = Metrics.counter("ann_dataset_rows_total", "Rows loaded from dataset files");
 
-public class Dataset {
-    private List<DataVector> vectorsTrain;
+    private DataBlock train;
     private List<DataVector> vectorsTest;
+    private boolean epochRead = true;
     private int inputLength;
     private int labelLength;
 
     public Dataset(String trainDataset, String testDataset, int labelLength) throws RuntimeException {
-        vectorsTrain = new ArrayList<>();
+        this(trainDataset, testDataset, labelLength, null);
+    }
+
+    //Packs the train set with the given storage, or with the smallest storage that keeps it exact when it is null
+    public Dataset(String trainDataset, String testDataset, int labelLength, DataBlock.Storage storage) {
         vectorsTest = new ArrayList<>();
         this.labelLength = labelLength;
 
-        this.getEntryFromFile(trainDataset, vectorsTrain);
+        this.train = this.readFile(trainDataset, storage);
         this.getEntryFromFile(testDataset, vectorsTest);
     }
 
-    private void getEntryFromFile(String filePath, List<DataVector> vectors) {
-        try (Scanner scanner = new Scanner(new File(filePath))) {
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine().replaceAll("\\uFEFF", ""); //Remove ZERO WIDTH NO-BREAK SPACE
-                String[] entry = line.split(",");
-                addVectorFromEntry(entry, labelLength, vectors);
+    //Loads only the test set, for models that are trained from another TrainingSource (e.g. a StreamingDataset)
+    public Dataset(String testDataset, int labelLength) {
+        vectorsTest = new ArrayList<>();
+        this.labelLength = labelLength;
+
+        this.getEntryFromFile(testDataset, vectorsTest);
+        this.train = new DataBlock(inputLength, labelLength);
+        this.train.pack(new DataTable(), DataBlock.Storage.FLOAT);
+    }
+
+    private Dataset(DataBlock train, List<DataVector> vectorsTest, int inputLength, int labelLength) {
+        this.train = train;
+        this.vectorsTest = vectorsTest;
+        this.inputLength = inputLength;
+        this.labelLength = labelLength;
+    }
+
+    //Returns a dataset with the same train and test sets that shuffles its own order of the train set,
+    //so several models can train from the same rows at the same time (the rows must not be changed)
+    public Dataset view() {
+        return new Dataset(train.view(), vectorsTest, inputLength, labelLength);
+    }
+
+    //Loads the rows of the file into a block, the number of inputs is the number of values of a row minus the label length
+    private DataBlock readFile(String filePath, DataBlock.Storage storage) {
+        long start = Metrics.enabled ? System.nanoTime() : 0;
+        try {
+            DataBlock block;
+            if (cacheDirectory.equals("none")) {
+                DataTable table = CsvReader.readAll(filePath);
+                block = new DataBlock(table.getRows() > 0 ? table.getColumns() - labelLength : 0, labelLength);
+                block.pack(table, storage);
+            } else {
+                block = new DatasetCache(cacheDirectory).load(filePath, labelLength, storage);
+            }
+            if (block.size() > 0) {
+                this.inputLength = block.getInputLength();
             }
+            if (Metrics.enabled) {
+                loadLatency.record(System.nanoTime() - start);
+                loadedRows.add(block.size());
+            }
+            return block;
         } catch (Exception e) {
             System.out.println("An error occurred while initializing dataset");
             throw new RuntimeException(e);
         }
     }
 
-    private void addVectorFromEntry(String[] entry, int labelLength, List<DataVector> vectors) {
-        this.inputLength = entry.length - this.labelLength;
-        float[] input = new float[inputLength];
-        float[] label = new float[labelLength];
-
-        for (int i = 0; i < this.inputLength; i++) {
-            input[i] = (float) Integer.parseInt(entry[i].trim());
-        }
-
-        for (int i = 0; i < this.labelLength; i++) {
-            int index = inputLength + i;
-            label[i] = (float) Integer.parseInt(entry[index].trim());
+    //Each row of the file becomes a vector with its input and its label
+    private void getEntryFromFile(String filePath, List<DataVector> vectors) {
+        DataBlock block = readFile(filePath, null);
+        for (int i = 0; i < block.size(); i++) {
+            vectors.add(block.getVector(i));
         }
-
-        vectors.add(new DataVector(input, label));
     }
 
     public List<DataVector> getTestSet() {
         return vectorsTest;
     }
 
-    public List<DataVector> getTrainSet() {
-        Collections.shuffle(vectorsTrain);
-        return vectorsTrain;
+    //Returns the packed train set, in the order of the last epoch
+    public DataBlock getTrainSet() {
+        return train;
+    }
+
+    //The whole train set is a single block, shuffled at the start of the epoch.
+    //The shuffle always starts from the order of the file, so the order only depends on the state of the generator
+    //(which is what allows a training to be resumed from a snapshot in the same order)
+    @Override
+    public void startEpoch(Random random) {
+        train.shuffle(random);
+        epochRead = false;
+    }
+
+    @Override
+    public DataBlock nextBlock() {
+        if (epochRead) {
+            return null;
+        }
+        epochRead = true;
+        return train;
+    }
+
+    @Override
+    public void close() {
     }
 
+    @Override
     public int getInputLength() {
         return this.inputLength;
     }
 
+    @Override
     public int getLabelLength() {
         return this.labelLength;
     }
@@ -0,0 +1,155 @@
+package IO;
+
+import Metrics.Counter;
+import Metrics.Metrics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+public class DatasetCache {
+    //This class keeps a binary copy of each CSV file that was parsed, so the next time the same file is loaded the
+    //packed rows are mapped from the cache instead of parsing the text again.
+    //The cache file is little endian and has the following layout:
+    //  int magic ("ANND"), int version
+    //  fingerprint of the CSV file: long size, long last modified time (ms), long hash of sampled chunks
+    //  the packed rows, as written by DataBlock.encode (it starts with the input and label lengths)
+    //A cache file is only used when the fingerprint still matches the CSV file and it was packed with the same
+    //label length and storage, otherwise the CSV file is parsed and the cache is written again.
+    //Version 2 added the sparse rows, which can also change the storage chosen for a file
+    public static final int magic = 0x414E4E44;
+    public static final int version = 2;
+    private static final int headerBytes = 32;
+    //The hash reads the start and the end of the file and a few chunks in between, so it doesn't read large files whole
+    private static final int edgeBytes = 64 * 1024;
+    private static final int chunkBytes = 4 * 1024;
+    private static final int chunks = 62;
+    private static final Counter hits = Metrics.counter("ann_dataset_cache_hits_total", "Datasets loaded from the cache");
+    private static final Counter misses = Metrics.counter("ann_dataset_cache_misses_total",
+            "Datasets parsed because their cache file was missing or out of date");
+
+    private Path directory;
+
+    public DatasetCache(String directory) {
+        this.directory = Paths.get(directory);
+    }
+
+    //Returns the rows of the CSV file packed with the given storage (or the smallest exact one when it is null)
+    public DataBlock load(String csvPath, int labelLength, DataBlock.Storage storage) {
+        Path source = Paths.get(csvPath);
+        Path cached = cachePath(source, labelLength, storage);
+        long[] fingerprint = fingerprint(source);
+
+        DataBlock block = read(cached, fingerprint, labelLength);
+        if (block != null) {
+            if (Metrics.enabled) {
+                hits.increment();
+            }
+            return block;
+        }
+        if (Metrics.enabled) {
+            misses.increment();
+        }
+
+        DataTable table = CsvReader.readAll(csvPath);
+        block = new DataBlock(table.getRows() > 0 ? table.getColumns() - labelLength : 0, labelLength);
+        block.pack(table, storage);
+        write(cached, fingerprint, block);
+        return block;
+    }
+
+    //Returns the size, the last modified time and the sampled hash of the file
+    public static long[] fingerprint(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            CRC32C crc = new CRC32C();
+            ByteBuffer chunk = ByteBuffer.allocate(edgeBytes);
+
+            if (size <= 2L * edgeBytes + (long) chunks * chunkBytes) {
+                hashRange(channel, 0, size, chunk, crc);
+            } else {
+                hashRange(channel, 0, edgeBytes, chunk, crc);
+                long step = (size - 2L * edgeBytes) / (chunks + 1);
+                for (int i = 1; i <= chunks; i++) {
+                    hashRange(channel, edgeBytes + i * step, chunkBytes, chunk, crc);
+                }
+                hashRange(channel, size - edgeBytes, edgeBytes, chunk, crc);
+            }
+            return new long[] {size, Files.getLastModifiedTime(file).toMillis(), crc.getValue()};
+        } catch (IOException e) {
+            //The dataset that loads the file reports the error
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void hashRange(FileChannel channel, long position, long length, ByteBuffer chunk, CRC32C crc)
+            throws IOException {
+        long end = position + length;
+        while (position < end) {
+            chunk.clear();
+            chunk.limit((int) Math.min(chunk.capacity(), end - position));
+            int read = channel.read(chunk, position);
+            if (read < 0) {
+                return;
+            }
+            chunk.flip();
+            crc.update(chunk);
+            position += read;
+        }
+    }
+
+    //The name keeps the name of the CSV file to be readable, followed by a hash of its absolute path and of the packing
+    private Path cachePath(Path source, int labelLength, DataBlock.Storage storage) {
+        CRC32C crc = new CRC32C();
+        String key = source.toAbsolutePath().normalize() + "|" + labelLength + "|" + (storage != null ? storage : "AUTO");
+        crc.update(key.getBytes(StandardCharsets.UTF_8));
+        return directory.resolve(source.getFileName() + "." + Long.toHexString(crc.getValue()) + ".bin");
+    }
+
+    //Returns the cached rows, or null when there is no cache file or it doesn't match the CSV file anymore
+    private DataBlock read(Path cached, long[] fingerprint, int labelLength) {
+        if (!Files.isRegularFile(cached)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(cached, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (channel.size() < headerBytes || buffer.getInt() != magic || buffer.getInt() != version
+                    || buffer.getLong() != fingerprint[0] || buffer.getLong() != fingerprint[1]
+                    || buffer.getLong() != fingerprint[2]) {
+                return null;
+            }
+            DataBlock block = DataBlock.decode(buffer);
+            return block.getLabelLength() == labelLength ? block : null;
+        } catch (IOException | RuntimeException e) {
+            //A damaged cache file is only a cache miss, the CSV file is parsed again
+            return null;
+        }
+    }
+
+    //The cache is only an optimization, so failing to write it doesn't stop the loading of the dataset
+    private void write(Path cached, long[] fingerprint, DataBlock block) {
+        long bytes = headerBytes + block.getEncodedBytes();
+        if (bytes > Integer.MAX_VALUE) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) bytes).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(magic).putInt(version);
+        buffer.putLong(fingerprint[0]).putLong(fingerprint[1]).putLong(fingerprint[2]);
+        block.encode(buffer);
+        buffer.flip();
+        try {
+            ModelCheckpoint.writeAtomically(cached, buffer);
+        } catch (RuntimeException e) {
+            System.out.println("The dataset cache was not written, the CSV file will be parsed again next time");
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package IO;
+
+import Model.ActivationFunctions.ActivatorFunction;
+import Model.ActivationFunctions.ActivatorFunctions;
+import Model.Components.Layer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ModelCheckpoint {
+    //This class saves the topology and weights of a model in a binary file and loads them back.
+    //The file is little endian and has the following layout:
+    //  int magic ("ANNC"), int version, int number of layers (including the input layer)
+    //  for each layer: int size, float function parameter, short name length, function name (UTF-8, empty for the input layer)
+    //  padding up to a multiple of 8 bytes
+    //  for each layer but the input one: float weights[size * size of previous layer] (row-major), float bias weights[size]
+    //Loading maps the file and copies the weights straight into the layers, without any parsing
+    public static final int magic = 0x414E4E43;
+    public static final int version = 1;
+
+    public static void write(String path, List<Layer> layers) {
+        int[] sizes = new int[layers.size()];
+        ActivatorFunction[] functions = new ActivatorFunction[layers.size()];
+        float[][] weights = new float[layers.size()][];
+        float[][] biasWeights = new float[layers.size()][];
+
+        for (int i = 0; i < layers.size(); i++) {
+            sizes[i] = layers.get(i).getSize();
+            functions[i] = layers.get(i).getFunction();
+            weights[i] = layers.get(i).getWeights();
+            biasWeights[i] = layers.get(i).getBiasWeights();
+        }
+
+        writeAtomically(Paths.get(path), encode(sizes, functions, weights, biasWeights));
+    }
+
+    //Returns the layers saved in the checkpoint, starting with the input layer
+    public static List<Layer> read(String path) {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return decode(buffer.order(ByteOrder.LITTLE_ENDIAN), path);
+        } catch (IOException e) {
+            System.out.println("An error occurred while reading the model checkpoint");
+            throw new RuntimeException(e);
+        }
+    }
+
+    //Returns the checkpoint as a buffer ready to be written, the arrays of the input layer (index 0) are ignored
+    public static ByteBuffer encode(int[] sizes, ActivatorFunction[] functions, float[][] weights, float[][] biasWeights) {
+        List<byte[]> names = new ArrayList<>();
+        int headerLength = 12;
+        int dataLength = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            byte[] name = i == 0 ? new byte[0] : functions[i].getFunctionName().getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            headerLength += 10 + name.length;
+            dataLength += i == 0 ? 0 : 4 * (weights[i].length + biasWeights[i].length);
+        }
+        int dataOffset = (headerLength + 7) / 8 * 8;
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(dataOffset + dataLength).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(magic).putInt(version).putInt(sizes.length);
+        for (int i = 0; i < sizes.length; i++) {
+            buffer.putInt(sizes[i]);
+            buffer.putFloat(i == 0 ? 0F : ActivatorFunctions.getParameter(functions[i]));
+            buffer.putShort((short) names.get(i).length).put(names.get(i));
+        }
+
+        buffer.position(dataOffset);
+        for (int i = 1; i < sizes.length; i++) {
+            putFloats(buffer, weights[i]);
+            putFloats(buffer, biasWeights[i]);
+        }
+
+        return buffer.flip();
+    }
+
+    //Reads a checkpoint from the current position of the buffer, which must be little endian
+    public static List<Layer> decode(ByteBuffer buffer, String source) {
+        int start = buffer.position();
+        if (buffer.getInt() != magic) {
+            throw new IllegalArgumentException(source + " is not a model checkpoint");
+        }
+        int fileVersion = buffer.getInt();
+        if (fileVersion != version) {
+            throw new IllegalArgumentException("Unsupported checkpoint version " + fileVersion + " in " + source);
+        }
+
+        int numberOfLayers = buffer.getInt();
+        int[] sizes = new int[numberOfLayers];
+        ActivatorFunction[] functions = new ActivatorFunction[numberOfLayers];
+        for (int i = 0; i < numberOfLayers; i++) {
+            sizes[i] = buffer.getInt();
+            float parameter = buffer.getFloat();
+            byte[] name = new byte[buffer.getShort()];
+            buffer.get(name);
+            if (i > 0) {
+                functions[i] = ActivatorFunctions.create(new String(name, StandardCharsets.UTF_8), parameter);
+            }
+        }
+        buffer.position(start + (buffer.position() - start + 7) / 8 * 8);
+
+        List<Layer> layers = new ArrayList<>();
+        layers.add(new Layer(sizes[0], null, null));
+        for (int i = 1; i < numberOfLayers; i++) {
+            float[] weights = getFloats(buffer, sizes[i] * sizes[i - 1]);
+            float[] biasWeights = getFloats(buffer, sizes[i]);
+            layers.add(new Layer(layers.get(i - 1), functions[i], weights, biasWeights));
+        }
+        return layers;
+    }
+
+    //Writes the buffer next to the destination and then renames it, so a reader never sees a half written file
+    public static void writeAtomically(Path destination, ByteBuffer buffer) {
+        Path temporary = Paths.get(destination + ".tmp");
+        try {
+            if (destination.getParent() != null) {
+                Files.createDirectories(destination.getParent());
+            }
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(temporary, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("An error occurred while writing " + destination);
+            throw new RuntimeException(e);
+        }
+    }
+
+    //Bulk copies between float arrays and the buffer, moving the position of the buffer past the floats
+    public static void putFloats(ByteBuffer buffer, float[] values) {
+        buffer.asFloatBuffer().put(values);
+        buffer.position(buffer.position() + 4 * values.length);
+    }
+
+    public static float[] getFloats(ByteBuffer buffer, int length) {
+        float[] values = new float[length];
+        buffer.asFloatBuffer().get(values);
+        buffer.position(buffer.position() + 4 * length);
+        return values;
+    }
+}
@@ -1,16 +1,36 @@
 package IO;
 
+import Evaluation.Evaluation;
 import Model.Components.Layer;
-import Model.Components.Perceptron;
+import Model.Components.WeightInitializer;
+import Model.Optimizers.LearningRateSchedule;
+import Model.Optimizers.Optimizer;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 
 public class Output {
     //This class is responsible for formatting and printing the output files,
-    //used to verify data about the train and test methods as well as the results
+    //used to verify data about the train and test methods as well as the results.
+    //The files are written by an AsyncWriter thread: the training only queues the text (or a copy of the weights,
+    //which are formatted by the writer thread) and only waits for the disk when the queue of the writer is full.
+    //The level sets what is written during the training (the initial parameters and weights, the final weights
+    //and the test results are always written, and they are never dropped when the writer is behind: only the weights
+    //of the epochs and the errors of the validations are):
+    //  OFF: nothing, METRICS: the mean errors of each epoch and validation,
+    //  SNAPSHOTS: the errors and the weights every snapshotEpochs epochs, FULL: the errors and the weights of every epoch
+    //It is set with -Dann.output=off|metrics|snapshots|full (full by default) and -Dann.output.every=N (100 by default)
+    public enum Level { OFF, METRICS, SNAPSHOTS, FULL }
+
+    private static final int bufferBytes = 1 << 16;
+    private Level level;
+    private int snapshotEpochs;
+    private AsyncWriter writer;
+
     private PrintWriter initialParamsOutput;
     private PrintWriter initialWeightsOutput;
     private PrintWriter trainOutput;
@@ -23,29 +43,41 @@ public class Output {
 
     private List<PrintWriter> allFiles;
 
-    private static int correctResponses = 0;
-    private static int wrongResponses = 0;
 
-    private static int[][] confusionMatrix;
-    private static int emptyOutputCount = 0;
+    public Output() {
+        this("outputs", Level.valueOf(System.getProperty("ann.output", "full").toUpperCase(Locale.ROOT)),
+                Integer.getInteger("ann.output.every", 100));
+    }
 
+    //The queue has room for many small writes, the weights are bounded by the memory they take
+    public Output(String directory, Level level, int snapshotEpochs) {
+        this(directory, level, snapshotEpochs, new AsyncWriter(1 << 16, 256L << 20));
+    }
+
+    //Writes the files with the given writer, which is closed by generateOutputFiles()
+    public Output(String directory, Level level, int snapshotEpochs, AsyncWriter writer) {
+        if (snapshotEpochs < 1) {
+            throw new IllegalArgumentException("The weights should be written every 1 or more epochs");
+        }
+        this.level = level;
+        this.snapshotEpochs = snapshotEpochs;
+        this.writer = writer;
 
-    public Output() {
         //Instantiates the output files
-        File outputsDir = new File("outputs");
+        File outputsDir = new File(directory);
         if (!outputsDir.exists()) {
             outputsDir.mkdir();
         }
         try {
-            this.initialParamsOutput = new PrintWriter("outputs/initial_params.txt", "UTF-8");
-            this.initialWeightsOutput = new PrintWriter("outputs/initial_weights.txt", "UTF-8");
-            this.trainOutput = new PrintWriter("outputs/train_model.txt", "UTF-8");
-            this.finalWeightsOutput = new PrintWriter("outputs/final_weights.txt", "UTF-8");
-            this.modelOutput = new PrintWriter("outputs/model_output.txt", "UTF-8");
-            this.trainErrorsOutput = new PrintWriter("outputs/train_errors.txt", "UTF-8");
-            this.validationErrorsOutput = new PrintWriter("outputs/validation_errors.txt", "UTF-8");
-            this.testSummaryOutput = new PrintWriter("outputs/tests_summary.txt", "UTF-8");
-            this.modelConfusionMatrix = new PrintWriter("outputs/model_confusion_matrix.txt", "UTF-8");
+            this.initialParamsOutput = open(directory, "initial_params.txt");
+            this.initialWeightsOutput = open(directory, "initial_weights.txt");
+            this.trainOutput = open(directory, "train_model.txt");
+            this.finalWeightsOutput = open(directory, "final_weights.txt");
+            this.modelOutput = open(directory, "model_output.txt");
+            this.trainErrorsOutput = open(directory, "train_errors.txt");
+            this.validationErrorsOutput = open(directory, "validation_errors.txt");
+            this.testSummaryOutput = open(directory, "tests_summary.txt");
+            this.modelConfusionMatrix = open(directory, "model_confusion_matrix.txt");
         } catch (IOException e) {
             System.out.println("An error occurred while creating output files");
             e.printStackTrace();
@@ -63,49 +95,76 @@ public class Output {
         allFiles.add(modelConfusionMatrix);
     }
 
+    //Opens a file of the directory with a large buffer, it is only written by the writer thread
+    private static PrintWriter open(String directory, String name) throws IOException {
+        OutputStream stream = new FileOutputStream(new File(directory, name));
+        return new PrintWriter(new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), bufferBytes));
+    }
+
     public void printTestError(Float error)
     {
-        this.validationErrorsOutput.println(error);
+        if (level != Level.OFF) {
+            writer.submit(() -> this.validationErrorsOutput.println(error));
+        }
     }
 
-    public void printInitialParams(Layer inputLayer, Layer hiddenLayer, Layer outputLayer, Float alpha) {
-        this.initialParamsOutput.println("Alpha: " + alpha);
-        this.initialParamsOutput.println();
-
-        this.initialParamsOutput.println("Number of perceptrons in the input layer: " + inputLayer.getPerceptrons().size());
-        this.initialParamsOutput.println();
-
-        this.initialParamsOutput.println("Number of perceptrons in the hidden layer: " + hiddenLayer.getPerceptrons().size());
-        this.initialParamsOutput.println("Activator function in the hidden layer: " + hiddenLayer.getFunction().getFunctionName());
-        this.initialParamsOutput.println();
+    //The layers start with the input layer and end with the output layer
+    public void printInitialParams(List<Layer> layers, Float alpha, Optimizer optimizer, LearningRateSchedule schedule,
+                                   WeightInitializer.Scheme weightInitialization) {
+        StringBuilder params = new StringBuilder("Alpha: " + alpha + "\n"
+                + "Optimizer: " + optimizer.getOptimizerName() + "\n"
+                + "Learning rate schedule: " + schedule.getScheduleName() + "\n"
+                + "Weight initialization: " + weightInitialization + "\n"
+                + "\n"
+                + "Number of perceptrons in the input layer: " + layers.get(0).getSize() + "\n");
+        for (int k = 1; k < layers.size(); k++) {
+            String name = layerName(k, layers.size());
+            params.append("\n")
+                    .append("Number of perceptrons in the ").append(name).append(": ").append(layers.get(k).getSize()).append("\n")
+                    .append("Activator function in the ").append(name).append(": ")
+                    .append(layers.get(k).getFunction().getFunctionName()).append("\n");
+        }
+        writer.put(() -> this.initialParamsOutput.print(params));
 
-        this.initialParamsOutput.println("Number of perceptrons in the output layer: " + outputLayer.getPerceptrons().size());
-        this.initialParamsOutput.println("Activator function in the output layer: " + outputLayer.getFunction().getFunctionName());
+        printWeights(layers, this.initialWeightsOutput, false);
+    }
 
-        printWeights(hiddenLayer.getPerceptrons(), this.initialWeightsOutput, "hidden layer");
-        printWeights(outputLayer.getPerceptrons(), this.initialWeightsOutput, "output layer");
+    //"output layer" for the last layer, "hidden layer" when there is a single hidden layer and "hidden layer k" otherwise
+    private static String layerName(int index, int numberOfLayers) {
+        if (index == numberOfLayers - 1) {
+            return "output layer";
+        }
+        return numberOfLayers == 3 ? "hidden layer" : "hidden layer " + index;
     }
 
-    //Prints the information for each epoch in training
-    public void printTrainStep(Layer hiddenLayer, Layer outputLayer, Float error, int epoch) {
-        this.trainOutput.println("--------------------------------Epoch " + epoch + "--------------------------------");
-        printWeights(hiddenLayer.getPerceptrons(), this.trainOutput, "hidden layer");
-        printWeights(outputLayer.getPerceptrons(), this.trainOutput, "output layer");
+    //Prints the information for each epoch in training.
+    //The header and the error are a single write that is never dropped, so train_errors.txt has a line for every epoch
+    //in order, only the weights that follow them can be skipped when the writer is behind
+    public void printTrainStep(List<Layer> layers, Float error, int epoch) {
+        if (level == Level.OFF) {
+            return;
+        }
 
-        this.trainOutput.println("Mean square error: " + error);
-        this.trainOutput.println();
+        writer.put(() -> {
+            this.trainOutput.println("--------------------------------Epoch " + epoch + "--------------------------------");
+            this.trainOutput.println("Mean square error: " + error);
+            this.trainOutput.println();
 
-        //Prints only the error in a separated file
-        this.trainErrorsOutput.println(error);
+            //Prints only the error in a separated file
+            this.trainErrorsOutput.println(error);
+        });
+        if (level == Level.FULL || (level == Level.SNAPSHOTS && epoch % snapshotEpochs == 0)) {
+            printWeights(layers, this.trainOutput, true);
+        }
     }
 
-    public void printFinalWeights(Layer hiddenLayer, Layer outputLayer) {
-        printWeights(hiddenLayer.getPerceptrons(), this.finalWeightsOutput, "hidden layer");
-        printWeights(outputLayer.getPerceptrons(), this.finalWeightsOutput, "output layer");
+    public void printFinalWeights(List<Layer> layers) {
+        printWeights(layers, this.finalWeightsOutput, false);
     }
 
-    //Prints the results from the model for a given input from the test dataset
-    public void printModelOutput(Layer outputLayer, DataVector test) {
+    //Prints the results from the model (the output signals of the output layer) for a given input from the test dataset,
+    //whether the response is correct is decided by the Evaluation of the test
+    public void printModelOutput(float[] outputSignals, DataVector test, boolean correct) {
         //Gets the inputs, expected outputs and actual outputs as integer arrays
         int[] inputsArray = new int[test.getInput().length];
         for (int i = 0; i < test.getInput().length; i++) {
@@ -117,145 +176,144 @@ public class Output {
             expectedOutputArray[i] = Math.round(test.getLabel()[i]);
         }
 
-        int[] outputArray = new int[outputLayer.getOutput().length];
-        int counter = 0;
-        for (String output: outputLayer.getOutput()) {
-            outputArray[counter] = Integer.parseInt(output);
-            counter++;
+        //If the output signal of the perceptron is higher than 0.9 then it's rounded up to 1,
+        //if it is lower than 0.1 then it's rounded down to 0 and if it is between those two values then it's set as -1
+        int[] outputArray = new int[outputSignals.length];
+        for (int i = 0; i < outputSignals.length; i++) {
+            outputArray[i] = Evaluation.threshold(outputSignals[i]);
         }
 
         //Formats the data for better visualization
         String input = Arrays.toString(inputsArray);
         String expectedOutput = Arrays.toString(expectedOutputArray);
-        String rawOutput = Arrays.toString(outputLayer.getRawOutput());
+        String rawOutput = Arrays.toString(outputSignals);
         String output = Arrays.toString(outputArray);
 
         //Prints the results
-        this.modelOutput.println("Inputs: " + input);
-        this.modelOutput.println("Raw output is: " + rawOutput);
-        this.modelOutput.println("Expected output: " + expectedOutput);
-        this.modelOutput.println("Output: " + output);
-
-        if(expectedOutput.equals(output)) {
-            correctResponses++;
-            this.modelOutput.println("Correct response ✓");
-        } else {
-            wrongResponses++;
-            this.modelOutput.println("Wrong response ✖");
-        }
-
-        this.modelOutput.println();
-
-        //Updates the confusion matrix
-        updateConfusionMatrix(expectedOutputArray, outputArray);
+        String result = correct ? "Correct response ✓" : "Wrong response ✖";
+
+        String text = "Inputs: " + input + "\n"
+                + "Raw output is: " + rawOutput + "\n"
+                + "Expected output: " + expectedOutput + "\n"
+                + "Output: " + output + "\n"
+                + result + "\n"
+                + "\n";
+        writer.put(() -> this.modelOutput.print(text));
     }
 
-    //Prints the confusion matrix
-    public void printConfusionMatrix() {
-        this.modelConfusionMatrix.println("Confusion Matrix:");
-        for(int i = 0; i < this.confusionMatrix.length; i++) {
-            for(int j = 0; j < this.confusionMatrix.length; j++) {
-                this.modelConfusionMatrix.print(this.confusionMatrix[i][j]);
-                this.modelConfusionMatrix.print("  ");
+    //Prints the confusion matrix of the test, expected outputs are in the rows and the actual outputs in the columns,
+    //followed by the accuracy and the precision and recall of each class
+    public void printConfusionMatrix(Evaluation evaluation) {
+        int[][] confusionMatrix = evaluation.getConfusionMatrix();
+        StringBuilder text = new StringBuilder("Confusion Matrix:\n");
+        for(int i = 0; i < confusionMatrix.length; i++) {
+            for(int j = 0; j < confusionMatrix.length; j++) {
+                text.append(confusionMatrix[i][j]);
+                text.append("  ");
             }
-            this.modelConfusionMatrix.println();
+            text.append("\n");
         }
 
         //prints the number of answers without any 1 as output from the perceptrons
-        this.modelConfusionMatrix.println("Occurrences of empty output: " + this.emptyOutputCount);
-    }
-
-    //Updates the confusion matrix by incrementing the proper row
-    //Expected outputs are in the row and the actual outputs in the columns
-    //If the output does not have any 1s the hasOne variable will remain false and emptyOutputCount is incremented
-    public void updateConfusionMatrix(int[] expectedOutput, int[] output) {
-        int row = getLabelPosition(expectedOutput);
-        boolean hasOnes = false;
-        for(int column = 0; column < output.length; column++) {
-            if(output[column] == 1) {
-                Output.confusionMatrix[row][column]++;
-                hasOnes = true;
-            }
-        }
-        if (hasOnes == false) Output.emptyOutputCount ++;
-    }
-
-    //Gets the row index in the confusion matrix based on the expected output
-    public int getLabelPosition(int[] expectedOutput) {
-        for(int i = 0; i < expectedOutput.length; i++) {
-            if (expectedOutput[i] == 1) return i;
+        text.append("Occurrences of empty output: ").append(evaluation.getEmptyOutputs()).append("\n");
+        text.append("\n");
+        text.append("Accuracy: ").append(evaluation.getAccuracy()).append("\n");
+        text.append("Empty output rate: ").append(evaluation.getEmptyOutputRate()).append("\n");
+        for (int i = 0; i < confusionMatrix.length; i++) {
+            text.append("Class ").append(i).append(": precision ").append(evaluation.getPrecision(i))
+                    .append(", recall ").append(evaluation.getRecall(i)).append("\n");
         }
-        return -1;
+        writer.put(() -> this.modelConfusionMatrix.print(text));
     }
 
     //Prints the final result
-    public void printFinalResult(Float meanError) {
-        this.modelOutput.println("---------------------------------------------------------------------------------------------------");
-        this.modelOutput.println("Mean square error: " + meanError);
-        this.modelOutput.println("Number of correct responses " + correctResponses + " out of " + (correctResponses + wrongResponses));
-        this.modelOutput.println("---------------------------------------------------------------------------------------------------");
+    public void printFinalResult(Float meanError, Evaluation evaluation) {
+        String text = "---------------------------------------------------------------------------------------------------\n"
+                + "Mean square error: " + meanError + "\n"
+                + "Number of correct responses " + evaluation.getCorrectResponses() + " out of " + evaluation.getCount() + "\n"
+                + "---------------------------------------------------------------------------------------------------\n";
+        writer.put(() -> this.modelOutput.print(text));
     }
 
     //Prints the information on the tests
-    public void printTestSummary(Layer hiddenLayer, Layer outputLayer, Float alpha, long time) {
-        this.testSummaryOutput.println("Number of hidden perceptrons: " + hiddenLayer.getPerceptrons().size());
-        this.testSummaryOutput.println("Hidden layer activator function: " + hiddenLayer.getFunction().getFunctionName());
-        this.testSummaryOutput.println("Output layer activator function: " + outputLayer.getFunction().getFunctionName());
-        this.testSummaryOutput.println("Alpha: " + alpha);
-        this.testSummaryOutput.println("Final mean square error: " + outputLayer.getMeanSquareError());
-        this.testSummaryOutput.println("Time in ms: " + time);
-        this.testSummaryOutput.println();
+    public void printTestSummary(List<Layer> layers, Float alpha, long time) {
+        Layer hiddenLayer = layers.get(1);
+        Layer outputLayer = layers.get(layers.size() - 1);
+        String text = "Number of hidden perceptrons: " + hiddenLayer.getSize() + "\n"
+                + "Hidden layer activator function: " + hiddenLayer.getFunction().getFunctionName() + "\n"
+                + "Output layer activator function: " + outputLayer.getFunction().getFunctionName() + "\n"
+                + "Alpha: " + alpha + "\n"
+                + "Final mean square error: " + outputLayer.getMeanSquareError() + "\n"
+                + "Time in ms: " + time + "\n"
+                + "\n";
+        writer.put(() -> this.testSummaryOutput.print(text));
     }
 
     //Prints the final results for the tests
     public void printTestResult(String result) {
-        this.testSummaryOutput.println("---------------------------------------------------------------------------------------------------");
-        this.testSummaryOutput.println();
-        this.testSummaryOutput.println(result);
-        this.testSummaryOutput.println();
+        writer.put(() -> {
+            this.testSummaryOutput.println("---------------------------------------------------------------------------------------------------");
+            this.testSummaryOutput.println();
+            this.testSummaryOutput.println(result);
+            this.testSummaryOutput.println();
+        });
     }
 
     public void printTestHeader(String testName) {
-        allFiles.forEach(file -> file.println("-------------------------------" + testName + "-------------------------------"));
+        writer.put(() -> allFiles.forEach(file -> file.println("-------------------------------" + testName + "-------------------------------")));
     }
 
+    //Waits for the queued writes and closes the files
     public void generateOutputFiles() {
+        writer.close();
         allFiles.forEach(PrintWriter::close);
+        if (writer.getDropped() > 0) {
+            System.out.println("\n" + writer.getDropped() + " writes of the output files were dropped because the disk was too slow");
+        }
+    }
+
+    //Copies the weights of every layer but the input one and queues them to be formatted and written by the writer thread.
+    //The weights of an epoch can be skipped when the writer is behind, the initial and final weights wait for room
+    private void printWeights(List<Layer> layers, PrintWriter out, boolean skippable) {
+        int numberOfLayers = layers.size();
+        float[][] weights = new float[numberOfLayers][];
+        float[][] biasWeights = new float[numberOfLayers][];
+        long bytes = 0;
+        for (int k = 1; k < numberOfLayers; k++) {
+            weights[k] = layers.get(k).getWeights().clone();
+            biasWeights[k] = layers.get(k).getBiasWeights().clone();
+            bytes += 4L * (weights[k].length + biasWeights[k].length);
+        }
+
+        Runnable write = () -> {
+            for (int k = 1; k < numberOfLayers; k++) {
+                printWeights(weights[k], biasWeights[k], out, layerName(k, numberOfLayers));
+            }
+        };
+        if (skippable) {
+            writer.submit(write, bytes);
+        } else {
+            writer.put(write);
+        }
     }
 
-    private void printWeights(List<Perceptron> perceptrons, PrintWriter out, String layer) {
-        for (int i = 0; i < perceptrons.size(); i++) {
+    private static void printWeights(float[] layerWeights, float[] biasWeights, PrintWriter out, String layer) {
+        int inputSize = layerWeights.length / biasWeights.length;
+        for (int i = 0; i < biasWeights.length; i++) {
             out.write("Input weights for perceptron " + (i + 1) + " of " + layer + ": ");
-            int weightIndex = 0;
-            for (Float weight : perceptrons.get(i).getWeights().values()) {
+            for (int weightIndex = 0; weightIndex < inputSize; weightIndex++) {
                 if (weightIndex == 0) {
-                    out.println(weight);
+                    out.println(layerWeights[i * inputSize + weightIndex]);
                 } else {
-                    out.println("                                                " + weight);
+                    out.println("                                                " + layerWeights[i * inputSize + weightIndex]);
                 }
-                weightIndex++;
             }
-            out.println("                                                " + perceptrons.get(i).getBiasWeight() + " (bias)");
+            out.println("                                                " + biasWeights[i] + " (bias)");
             out.println();
         }
     }
 
-    //Initializes a square matrix with the same size as the output and fills it with 0s
-    public static void initializeConfusionMatrix(int outputSize) {
-        int[][] matrix = new int[outputSize][outputSize];
-        for(int i = 0; i < outputSize; i++) {
-            for(int j = 0; j < outputSize; j++) {
-                matrix[i][j] = 0;
-            }
-        }
-        Output.confusionMatrix = matrix;
-    }
-
-    public static void setCorrectResponses(int correctResponses) {
-        Output.correctResponses = correctResponses;
-    }
+    public Level getLevel() { return this.level; }
 
-    public static void setWrongResponses(int wrongResponses) {
-        Output.wrongResponses = wrongResponses;
-    }
+    public int getDropped() { return writer.getDropped(); }
 }
@@ -0,0 +1,107 @@
+package IO;
+
+import Model.TrainingProgress;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class ProgressReporter {
+    //Shows the progress of a training from its own thread, at a fixed rate that doesn't depend on how fast
+    //the epochs are: each refresh reads the latest state published in the TrainingProgress.
+    //Nothing is shown when the epoch didn't change since the last refresh. In a terminal the screen is redrawn
+    //with colors, in headless mode (batch jobs, redirected output) a plain line is printed
+    final String reset_style = "\033[m";
+    final String redbg = "\033[1;30;101m";
+    final String greenbg = "\033[1;30;102m";
+
+    private TrainingProgress progress;
+    private boolean terminal;
+    private long periodMillis;
+    private ScheduledExecutorService executor;
+    private int lastEpoch = -1;
+
+    public ProgressReporter(TrainingProgress progress, boolean terminal, long periodMillis) {
+        if (periodMillis < 1) {
+            throw new IllegalArgumentException("The refresh period should be at least 1 ms");
+        }
+        this.progress = progress;
+        this.terminal = terminal;
+        this.periodMillis = periodMillis;
+    }
+
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "progress-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::refresh, 0, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    //Stops the refreshes and shows the last state of the training
+    public void stop() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        refresh();
+    }
+
+    //An exception would cancel the next refreshes, so it is only reported
+    private void refresh() {
+        try {
+            int epoch = progress.getEpoch();
+            if (epoch < 0 || epoch == lastEpoch) {
+                return;
+            }
+            lastEpoch = epoch;
+            if (terminal) {
+                draw(epoch);
+            } else {
+                printLine(epoch);
+            }
+        } catch (RuntimeException e) {
+            System.out.println("An error occurred while showing the progress: " + e.getMessage());
+        }
+    }
+
+    private void draw(int epoch) {
+        int maxEpochs = progress.getMaxEpochs();
+        float meanError = progress.getMeanError();
+        float minError = progress.getMinError();
+        StringBuilder screen = new StringBuilder("\033[2J\033[1;1H");
+        screen.append("Epoch: ").append(epoch != maxEpochs ? greenbg : redbg).append(epoch).append("/").append(maxEpochs)
+                .append(reset_style).append("\n\n");
+
+        if (minError > 0F) {
+            String operator = meanError > minError ? " > " : " < ";
+            screen.append("Mean error: ").append(meanError > minError ? greenbg : redbg).append(meanError).append(operator)
+                    .append(minError).append(reset_style).append("\n");
+        }
+        screen.append("\n");
+        if (progress.isEarlyStop() && progress.getValidations() > 3) {
+            float last = progress.getValidationError();
+            float previous = progress.getPreviousValidationError();
+            float older = progress.getOlderValidationError();
+
+            screen.append("Last two epoch's errors:\n");
+            screen.append("\t").append(last < previous ? greenbg : redbg).append(last).append(last > previous ? " > " : " < ")
+                    .append(previous).append(reset_style).append("\n");
+            screen.append("\t").append(previous < older ? greenbg : redbg).append(previous).append(previous > older ? " > " : " < ")
+                    .append(older).append(reset_style).append("\n");
+        }
+        System.out.print(screen);
+        System.out.flush();
+    }
+
+    private void printLine(int epoch) {
+        String line = "Epoch " + epoch + "/" + progress.getMaxEpochs() + ", mean error " + progress.getMeanError();
+        if (progress.getValidations() > 0) {
+            line += ", validation error " + progress.getValidationError();
+        }
+        System.out.println(line);
+    }
+}
@@ -0,0 +1,67 @@
+package IO;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SnapshotWriter {
+    //Writes the training snapshots on a background thread, so the training only pays for copying the weights.
+    //Only one snapshot is written at a time: while a write is in progress isBusy() returns true
+    //and the training should skip the snapshot instead of waiting for the disk
+    private ExecutorService executor;
+    private AtomicBoolean busy = new AtomicBoolean(false);
+    private AtomicInteger written = new AtomicInteger(0);
+    private int skipped = 0;
+
+    public SnapshotWriter() {
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean isBusy() {
+        return busy.get();
+    }
+
+    //Queues the snapshot to be written, returns false (and doesn't write it) when another write is in progress
+    public boolean submit(TrainingSnapshot snapshot, String path) {
+        if (!busy.compareAndSet(false, true)) {
+            skipped++;
+            return false;
+        }
+
+        executor.execute(() -> {
+            try {
+                snapshot.write(path);
+                written.incrementAndGet();
+            } catch (RuntimeException e) {
+                System.out.println("An error occurred while writing the training snapshot: " + e.getMessage());
+            } finally {
+                busy.set(false);
+            }
+        });
+        return true;
+    }
+
+    public void skip() {
+        skipped++;
+    }
+
+    //Waits for the snapshot being written (if any) and stops the writer thread
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getWritten() { return written.get(); }
+
+    public int getSkipped() { return skipped; }
+}
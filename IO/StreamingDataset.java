@@ -0,0 +1,177 @@
+package IO;
+
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class StreamingDataset implements TrainingSource {
+    //This class trains from a CSV file that doesn't need to fit in memory.
+    //A background thread reads the file in blocks of consecutive rows while the model trains on the previous blocks.
+    //There is a fixed pool of blocks: the reader can only be readAhead blocks ahead of the training and it waits
+    //for the training to give a block back before reading more, so the memory used doesn't depend on the size of the file.
+    //Each block is a shuffle window: the rows inside a block are shuffled, but the blocks come in the order of the file.
+    //The blocks are packed with the smallest storage that keeps their inputs exact
+    private static final DataBlock endOfEpoch = new DataBlock(0, 0);
+
+    private String path;
+    private int inputLength;
+    private int labelLength;
+    private int blockSize;
+
+    private BlockingQueue<DataBlock> free = new LinkedBlockingQueue<>();
+    private BlockingQueue<DataBlock> ready = new LinkedBlockingQueue<>();
+    private ExecutorService reader;
+    private Future<?> reading;
+    private volatile boolean stopping;
+    private volatile RuntimeException failure;
+
+    private Random random;
+    private DataBlock current;
+
+    public StreamingDataset(String path, int labelLength) {
+        this(path, labelLength, 4096, 4);
+    }
+
+    public StreamingDataset(String path, int labelLength, int blockSize, int readAhead) {
+        if (blockSize < 1 || readAhead < 1) {
+            throw new IllegalArgumentException("Block size and read ahead should be at least 1");
+        }
+        this.path = path;
+        this.labelLength = labelLength;
+        this.blockSize = blockSize;
+
+        //The first row is read to know the number of inputs before the training starts
+        try (CsvReader csv = new CsvReader(path)) {
+            DataTable firstRow = new DataTable();
+            if (!csv.readRow(firstRow)) {
+                throw new IllegalArgumentException(path + " has no rows");
+            }
+            this.inputLength = firstRow.getColumns() - labelLength;
+        }
+
+        for (int i = 0; i < readAhead + 1; i++) {
+            free.add(new DataBlock(inputLength, labelLength));
+        }
+
+        this.reader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dataset-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public int getInputLength() { return this.inputLength; }
+
+    @Override
+    public int getLabelLength() { return this.labelLength; }
+
+    //Starts reading the file from the beginning, stopping the reading of the previous epoch if it wasn't finished
+    @Override
+    public void startEpoch(Random random) {
+        stopReading();
+        this.random = random;
+        this.reading = reader.submit(this::readEpoch);
+    }
+
+    //Gives the previous block back to the reader and waits for the next one.
+    //The rows of the block are shuffled here, in the training thread, so the order only depends on the generator
+    @Override
+    public DataBlock nextBlock() {
+        if (reading == null) {
+            return null;
+        }
+        if (current != null) {
+            free.add(current);
+            current = null;
+        }
+
+        DataBlock block;
+        try {
+            block = ready.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+
+        if (block == endOfEpoch) {
+            reading = null;
+            if (failure != null) {
+                RuntimeException cause = failure;
+                failure = null;
+                System.out.println("An error occurred while reading the train set");
+                throw new RuntimeException(cause);
+            }
+            return null;
+        }
+
+        current = block;
+        block.shuffle(random);
+        return block;
+    }
+
+    @Override
+    public void close() {
+        stopReading();
+        reader.shutdown();
+    }
+
+    //Runs in the reader thread, the epoch always ends with the endOfEpoch marker (also when it fails)
+    private void readEpoch() {
+        try (CsvReader csv = new CsvReader(path)) {
+            DataTable table = new DataTable();
+            while (!stopping) {
+                DataBlock block = free.take();
+                table.clear();
+                while (table.getRows() < blockSize && csv.readRow(table)) {
+                }
+                block.pack(table, null);
+                if (block.size() == 0) {
+                    free.add(block);
+                    break;
+                }
+                ready.add(block);
+                if (block.size() < blockSize) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        ready.add(endOfEpoch);
+    }
+
+    //Gives every block back to the pool and waits for the reader to finish the current epoch
+    private void stopReading() {
+        if (reading == null) {
+            return;
+        }
+
+        stopping = true;
+        if (current != null) {
+            free.add(current);
+            current = null;
+        }
+        try {
+            DataBlock block;
+            do {
+                block = ready.poll(1, TimeUnit.SECONDS);
+                if (block != null && block != endOfEpoch) {
+                    free.add(block);
+                }
+            } while (block != endOfEpoch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        stopping = false;
+        failure = null;
+        reading = null;
+    }
+}
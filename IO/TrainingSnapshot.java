@@ -0,0 +1,244 @@
+package IO;
+
+import Model.ActivationFunctions.ActivatorFunction;
+import Model.Components.ExecutionPlan;
+import Model.Components.Layer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TrainingSnapshot {
+    //This class holds everything needed to continue a training exactly where it stopped:
+    //the weights, the next epoch, the seed the train set is shuffled with (each epoch is shuffled
+    //with a generator derived from this seed and the epoch), the sum and count of the instant errors
+    //used by the mean error, the validation errors used by the early stop, the weights the early stop kept
+    //(the best validated ones, restored at the end of the training) and the state of the optimizer.
+    //The file is little endian: int magic ("ANNS"), int version, int epoch, float mean error,
+    //long shuffle seed, float instant error sum,
+    //int instant error count, int number of validation errors, float validation errors[],
+    //short optimizer name length, optimizer name (UTF-8), int optimizer step, int number of state arrays,
+    //for each state array: int length of the weight state, float weight state[], int length of the bias state,
+    //float bias state[], int number of kept layers (0 when no weights were kept), for each layer but the input one:
+    //int number of kept weights, float kept weights[], int number of kept bias weights, float kept bias weights[],
+    //padding up to a multiple of 8 bytes and then the weights in the ModelCheckpoint format.
+    //The snapshots of version 1 have no optimizer fields (they were trained with plain SGD, which has no state)
+    //and the ones of version 2 have no kept weights
+    public static final int magic = 0x414E4E53;
+    public static final int version = 3;
+
+    private int epoch;
+    private float meanError;
+    private long shuffleSeed;
+    private float instantErrorSum;
+    private int instantErrorCount;
+    private float[] validationErrors;
+
+    //Name of the optimizer (null in the snapshots of version 1), the number of updates and copies of its state
+    private String optimizerName;
+    private int optimizerStep;
+    private float[][] weightState;
+    private float[][] biasState;
+
+    //Copies of the weights kept by the early stop, indexed by layer (the input layer has none), or null
+    private float[][] keptWeights;
+    private float[][] keptBiasWeights;
+
+    //Copies of the weights when the snapshot is taken, or the layers when it is read from a file
+    private int[] sizes;
+    private ActivatorFunction[] functions;
+    private float[][] weights;
+    private float[][] biasWeights;
+    private List<Layer> layers;
+
+    private TrainingSnapshot() { }
+
+    //Copies the current state of the training, so the training can go on while the snapshot is written.
+    //The kept weights are null when the early stop didn't keep any
+    public static TrainingSnapshot take(int epoch, float meanError, long shuffleSeed, float instantErrorSum,
+                                        int instantErrorCount, List<Float> validationErrors, List<Layer> layers,
+                                        float[][] keptWeights, float[][] keptBiasWeights, ExecutionPlan plan) {
+        TrainingSnapshot snapshot = new TrainingSnapshot();
+        snapshot.epoch = epoch;
+        snapshot.meanError = meanError;
+        snapshot.shuffleSeed = shuffleSeed;
+        snapshot.instantErrorSum = instantErrorSum;
+        snapshot.instantErrorCount = instantErrorCount;
+        snapshot.validationErrors = toArray(validationErrors);
+        snapshot.optimizerName = plan.getOptimizer().getOptimizerName();
+        snapshot.optimizerStep = plan.getOptimizerStep();
+        snapshot.weightState = copy(plan.getWeightState());
+        snapshot.biasState = copy(plan.getBiasState());
+        if (keptWeights != null) {
+            snapshot.keptWeights = new float[keptWeights.length][];
+            snapshot.keptBiasWeights = new float[keptBiasWeights.length][];
+            for (int k = 1; k < keptWeights.length; k++) {
+                snapshot.keptWeights[k] = keptWeights[k].clone();
+                snapshot.keptBiasWeights[k] = keptBiasWeights[k].clone();
+            }
+        }
+
+        snapshot.sizes = new int[layers.size()];
+        snapshot.functions = new ActivatorFunction[layers.size()];
+        snapshot.weights = new float[layers.size()][];
+        snapshot.biasWeights = new float[layers.size()][];
+        for (int i = 0; i < layers.size(); i++) {
+            snapshot.sizes[i] = layers.get(i).getSize();
+            snapshot.functions[i] = layers.get(i).getFunction();
+            snapshot.weights[i] = layers.get(i).getWeights().clone();
+            snapshot.biasWeights[i] = layers.get(i).getBiasWeights().clone();
+        }
+        return snapshot;
+    }
+
+    public void write(String path) {
+        ByteBuffer model = ModelCheckpoint.encode(sizes, functions, weights, biasWeights);
+        byte[] name = optimizerName.getBytes(StandardCharsets.UTF_8);
+        //50 bytes of fixed fields, the validation errors, the optimizer name and state, the kept weights and up to
+        //7 bytes of padding before the model
+        int headerLength = 50 + 4 * validationErrors.length + name.length;
+        for (int s = 0; s < weightState.length; s++) {
+            headerLength += 8 + 4 * (weightState[s].length + biasState[s].length);
+        }
+        int keptLayers = keptWeights != null ? keptWeights.length : 0;
+        for (int k = 1; k < keptLayers; k++) {
+            headerLength += 8 + 4 * (keptWeights[k].length + keptBiasWeights[k].length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(headerLength + 7 + model.remaining()).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(magic).putInt(version).putInt(epoch).putFloat(meanError);
+        buffer.putLong(shuffleSeed);
+        buffer.putFloat(instantErrorSum).putInt(instantErrorCount);
+        buffer.putInt(validationErrors.length);
+        ModelCheckpoint.putFloats(buffer, validationErrors);
+        buffer.putShort((short) name.length).put(name);
+        buffer.putInt(optimizerStep).putInt(weightState.length);
+        for (int s = 0; s < weightState.length; s++) {
+            buffer.putInt(weightState[s].length);
+            ModelCheckpoint.putFloats(buffer, weightState[s]);
+            buffer.putInt(biasState[s].length);
+            ModelCheckpoint.putFloats(buffer, biasState[s]);
+        }
+        buffer.putInt(keptLayers);
+        for (int k = 1; k < keptLayers; k++) {
+            buffer.putInt(keptWeights[k].length);
+            ModelCheckpoint.putFloats(buffer, keptWeights[k]);
+            buffer.putInt(keptBiasWeights[k].length);
+            ModelCheckpoint.putFloats(buffer, keptBiasWeights[k]);
+        }
+        buffer.position((buffer.position() + 7) / 8 * 8);
+        buffer.put(model);
+
+        ModelCheckpoint.writeAtomically(Paths.get(path), buffer.flip());
+    }
+
+    public static TrainingSnapshot read(String path) {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (buffer.getInt() != magic) {
+                throw new IllegalArgumentException(path + " is not a training snapshot");
+            }
+            int fileVersion = buffer.getInt();
+            if (fileVersion < 1 || fileVersion > version) {
+                throw new IllegalArgumentException("Unsupported snapshot version " + fileVersion + " in " + path);
+            }
+
+            TrainingSnapshot snapshot = new TrainingSnapshot();
+            snapshot.epoch = buffer.getInt();
+            snapshot.meanError = buffer.getFloat();
+            snapshot.shuffleSeed = buffer.getLong();
+            snapshot.instantErrorSum = buffer.getFloat();
+            snapshot.instantErrorCount = buffer.getInt();
+            snapshot.validationErrors = ModelCheckpoint.getFloats(buffer, buffer.getInt());
+            if (fileVersion >= 2) {
+                byte[] name = new byte[buffer.getShort()];
+                buffer.get(name);
+                snapshot.optimizerName = new String(name, StandardCharsets.UTF_8);
+                snapshot.optimizerStep = buffer.getInt();
+                int stateSize = buffer.getInt();
+                snapshot.weightState = new float[stateSize][];
+                snapshot.biasState = new float[stateSize][];
+                for (int s = 0; s < stateSize; s++) {
+                    snapshot.weightState[s] = ModelCheckpoint.getFloats(buffer, buffer.getInt());
+                    snapshot.biasState[s] = ModelCheckpoint.getFloats(buffer, buffer.getInt());
+                }
+            }
+            if (fileVersion >= 3) {
+                int keptLayers = buffer.getInt();
+                if (keptLayers > 0) {
+                    snapshot.keptWeights = new float[keptLayers][];
+                    snapshot.keptBiasWeights = new float[keptLayers][];
+                    for (int k = 1; k < keptLayers; k++) {
+                        snapshot.keptWeights[k] = ModelCheckpoint.getFloats(buffer, buffer.getInt());
+                        snapshot.keptBiasWeights[k] = ModelCheckpoint.getFloats(buffer, buffer.getInt());
+                    }
+                }
+            }
+            buffer.position((buffer.position() + 7) / 8 * 8);
+            snapshot.layers = ModelCheckpoint.decode(buffer, path);
+            return snapshot;
+        } catch (IOException e) {
+            System.out.println("An error occurred while reading the training snapshot");
+            throw new RuntimeException(e);
+        }
+    }
+
+    public int getEpoch() { return epoch; }
+
+    public float getMeanError() { return meanError; }
+
+    public List<Layer> getLayers() { return layers; }
+
+    public long getShuffleSeed() { return shuffleSeed; }
+
+    public float getInstantErrorSum() { return instantErrorSum; }
+
+    public int getInstantErrorCount() { return instantErrorCount; }
+
+    public List<Float> getValidationErrors() { return toList(validationErrors); }
+
+    public String getOptimizerName() { return optimizerName; }
+
+    public int getOptimizerStep() { return optimizerStep; }
+
+    public float[][] getWeightState() { return weightState; }
+
+    public float[][] getBiasState() { return biasState; }
+
+    public float[][] getKeptWeights() { return keptWeights; }
+
+    public float[][] getKeptBiasWeights() { return keptBiasWeights; }
+
+    private static float[][] copy(float[][] arrays) {
+        float[][] copy = new float[arrays.length][];
+        for (int i = 0; i < arrays.length; i++) {
+            copy[i] = arrays[i].clone();
+        }
+        return copy;
+    }
+
+    private static float[] toArray(List<Float> values) {
+        float[] array = new float[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    private static List<Float> toList(float[] values) {
+        List<Float> list = new ArrayList<>(values.length);
+        for (float value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}
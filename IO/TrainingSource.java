@@ -0,0 +1,20 @@
+package IO;
+
+import java.util.Random;
+
+public interface TrainingSource {
+    //Source of the samples used to train a model. Each epoch is read as a sequence of blocks,
+    //so all the samples don't need to be in memory at the same time
+    int getInputLength();
+    int getLabelLength();
+
+    //Starts a new epoch whose samples are shuffled with the given generator
+    void startEpoch(Random random);
+
+    //Returns the next block of samples of the epoch, or null when the epoch is over.
+    //The source can reuse the block after the next call, so the block must not be kept
+    DataBlock nextBlock();
+
+    //Releases the files and threads used by the source
+    void close();
+}
@@ -0,0 +1,73 @@
+package Inference;
+
+public class Float16 {
+    //Conversions between floats and IEEE 754 half precision floats stored in shorts (1 sign bit, 5 exponent bits with
+    //a bias of 15 and 10 mantissa bits), written by hand because Java only has them since Java 20.
+    //A half has about 3 significant decimal digits and its largest finite value is 65504
+    public static final float maxValue = 65504F;
+    //The float of every half, indexed by the bits of the half (half & 0xFFFF). Converting the weights with a lookup
+    //is about 3 times faster than with toFloat() in the loops of the layers. The table takes 256 KB for the whole JVM,
+    //and the weights of a layer only use a small part of it (the halves of a few exponents)
+    static final float[] values = new float[1 << 16];
+
+    static {
+        for (int bits = 0; bits < values.length; bits++) {
+            values[bits] = toFloat((short) bits);
+        }
+    }
+
+    //Rounds the float to the nearest half (ties to even), values beyond the largest half become infinities
+    public static short fromFloat(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int exponent = (bits >>> 23) & 0xFF;
+        int mantissa = bits & 0x7FFFFF;
+
+        //Infinities and NaN (NaN keeps a mantissa bit so it doesn't become an infinity)
+        if (exponent == 0xFF) {
+            return (short) (sign | 0x7C00 | (mantissa != 0 ? 0x200 : 0));
+        }
+
+        int halfExponent = exponent - 127 + 15;
+        if (halfExponent >= 0x1F) {
+            return (short) (sign | 0x7C00);
+        }
+
+        if (halfExponent <= 0) {
+            //Subnormal half: the value in units of 2^-24, with the implicit 1 of the float
+            int shift = 126 - exponent;
+            if (shift > 24) {
+                return (short) sign;
+            }
+            int full = mantissa | 0x800000;
+            int half = full >>> shift;
+            int remainder = full & ((1 << shift) - 1);
+            int halfway = 1 << (shift - 1);
+            if (remainder > halfway || (remainder == halfway && (half & 1) != 0)) {
+                half++;
+            }
+            return (short) (sign | half);
+        }
+
+        //A carry of the rounding goes into the exponent, which is still the right encoding (up to the infinity)
+        int half = (halfExponent << 10) | (mantissa >>> 13);
+        int remainder = mantissa & 0x1FFF;
+        if (remainder > 0x1000 || (remainder == 0x1000 && (half & 1) != 0)) {
+            half++;
+        }
+        return (short) (sign | half);
+    }
+
+    //The exponent and mantissa of the half are moved to the place of the ones of a float and the value is multiplied
+    //by 2^112 (the difference of the biases, 127 - 15), which also gives the right value for the subnormal halves.
+    //Only the infinities and NaN need their own case
+    public static float toFloat(short half) {
+        int bits = half & 0xFFFF;
+        int sign = (bits & 0x8000) << 16;
+        if ((bits & 0x7C00) == 0x7C00) {
+            return Float.intBitsToFloat(sign | 0x7F800000 | ((bits & 0x3FF) << 13));
+        }
+        float magnitude = Float.intBitsToFloat((bits & 0x7FFF) << 13) * 0x1p112F;
+        return Float.intBitsToFloat(Float.floatToRawIntBits(magnitude) | sign);
+    }
+}
@@ -0,0 +1,197 @@
+package Inference;
+
+import Metrics.Histogram;
+import Metrics.Metrics;
+import Model.Model;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class InferenceServer {
+    //Serves the predictions of a trained model over HTTP on the loopback interface:
+    //  POST /predict with the inputs of a sample as comma separated values (a line of a dataset without the label)
+    //    answers {"class": 3, "outputs": [...]}, the class is -1 when no output is above the 0.9 threshold
+    //  GET /stats answers the requests served, the throughput, the latency percentiles and the mean batch size
+    //Each request is handled on its own virtual thread when the JVM has them (Java 21 or later), or on a pool of
+    //platform threads otherwise, and waits while a MicroBatcher scores it together with the concurrent requests
+    //Usage: java Inference.InferenceServer [CHECKPOINT] [PORT] [LATENCY BUDGET MICROSECONDS] [MAX BATCH]
+    private static final Histogram requestLatency = Metrics.histogram("ann_server_request_seconds",
+            "Time to answer a request to /predict");
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private MicroBatcher batcher;
+    private Histogram latency = new Histogram();
+    private long startTime = System.nanoTime();
+
+    public static void main(String[] args) {
+        String checkpoint = args.length > 0 ? args[0] : "outputs/model.ckpt";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+        long budgetMicros = args.length > 2 ? Long.parseLong(args[2]) : 2000;
+        int maxBatch = args.length > 3 ? Integer.parseInt(args[3]) : 256;
+
+        InferenceServer server = new InferenceServer(Model.fromCheckpoint(checkpoint), port, budgetMicros * 1000, maxBatch);
+        System.out.println("Serving " + checkpoint + " on http://localhost:" + server.getPort() + "/predict with a latency budget of "
+                + budgetMicros + " us and batches of up to " + maxBatch + " samples");
+    }
+
+    public InferenceServer(Model model, int port, long latencyBudget, int maxBatch) {
+        this.batcher = new MicroBatcher(model, latencyBudget, maxBatch);
+        this.executor = newExecutor();
+        try {
+            this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        } catch (IOException e) {
+            batcher.close();
+            System.out.println("An error occurred while starting the inference server");
+            throw new RuntimeException(e);
+        }
+        server.createContext("/predict", this::predict);
+        server.createContext("/stats", this::stats);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    //Virtual threads are created through reflection, so the server still compiles and runs on Java 11
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "inference-request");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private void predict(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        if (!exchange.getRequestMethod().equals("POST")) {
+            respond(exchange, 405, "{\"error\": \"use POST\"}");
+            return;
+        }
+
+        Prediction prediction;
+        try {
+            prediction = batcher.predict(parse(readBody(exchange)));
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, error(e.getMessage()));
+            return;
+        } catch (RuntimeException e) {
+            respond(exchange, 503, error(e.toString()));
+            return;
+        }
+
+        StringBuilder json = new StringBuilder("{\"class\": ").append(prediction.getPredictedClass()).append(", \"outputs\": [");
+        float[] outputs = prediction.getOutputs();
+        for (int i = 0; i < outputs.length; i++) {
+            json.append(i > 0 ? ", " : "").append(outputs[i]);
+        }
+        respond(exchange, 200, json.append("]}").toString());
+
+        long elapsed = System.nanoTime() - start;
+        latency.record(elapsed);
+        if (Metrics.enabled) {
+            requestLatency.record(elapsed);
+        }
+    }
+
+    private void stats(HttpExchange exchange) throws IOException {
+        respond(exchange, 200, getStats());
+    }
+
+    //Requests served since the server started, with the latency of /predict in milliseconds
+    public String getStats() {
+        long requests = latency.getCount();
+        long batches = batcher.getBatches();
+        double seconds = (System.nanoTime() - startTime) * 1e-9;
+        return "{\"requests\": " + requests
+                + ", \"requests_per_second\": " + requests / seconds
+                + ", \"latency_ms\": {\"p50\": " + latency.percentile(0.5) / 1e6
+                + ", \"p99\": " + latency.percentile(0.99) / 1e6
+                + ", \"p999\": " + latency.percentile(0.999) / 1e6
+                + ", \"max\": " + latency.getMax() / 1e6 + "}"
+                + ", \"batches\": " + batches
+                + ", \"mean_batch_size\": " + (batches > 0 ? (double) batcher.getSamples() / batches : 0) + "}";
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream stream = exchange.getRequestBody()) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                body.write(buffer, 0, read);
+            }
+            return body.toString("UTF-8");
+        }
+    }
+
+    private float[] parse(String body) {
+        String[] values = body.trim().split(",");
+        if (values.length != batcher.getInputLength()) {
+            throw new IllegalArgumentException("Expected " + batcher.getInputLength() + " inputs but got " + values.length);
+        }
+        float[] input = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            try {
+                input[i] = Float.parseFloat(values[i].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid input " + (i + 1) + ": " + values[i].trim());
+            }
+        }
+        return input;
+    }
+
+    //The messages can hold the raw inputs of the client, so they are escaped to keep the response valid JSON
+    private static String error(String message) {
+        return "{\"error\": \"" + escape(String.valueOf(message)) + "\"}";
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"': escaped.append("\\\""); break;
+                case '\\': escaped.append("\\\\"); break;
+                case '\n': escaped.append("\\n"); break;
+                case '\r': escaped.append("\\r"); break;
+                case '\t': escaped.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        escaped.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        escaped.append(c);
+                    }
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream stream = exchange.getResponseBody()) {
+            stream.write(bytes);
+        }
+    }
+
+    public int getPort() { return server.getAddress().getPort(); }
+
+    public void stop() {
+        server.stop(0);
+        batcher.close();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,168 @@
+package Inference;
+
+import Metrics.Counter;
+import Metrics.Metrics;
+import Model.Model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class MicroBatcher {
+    //Coalesces the samples sent by many threads at the same time into batches scored by Model.predictBatch().
+    //A single thread owns the model: it takes the first waiting sample, then keeps collecting samples until maxBatch
+    //are waiting or the first one has waited latencyBudget nanoseconds, and scores them all with one call.
+    //With a budget of 0 only the samples that are already waiting are batched, so a sample never waits for others
+    private static final Counter scoredBatches = Metrics.counter("ann_server_batches_total", "Batches scored by the server");
+    private static final Counter scoredSamples = Metrics.counter("ann_server_samples_total", "Samples scored by the server");
+
+    private Model model;
+    private int inputLength;
+    private int labelLength;
+    private long latencyBudget;
+    private int maxBatch;
+
+    private BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private Thread thread;
+    private volatile boolean closed = false;
+    private LongAdder batches = new LongAdder();
+    private LongAdder samples = new LongAdder();
+
+    //Buffers of the batching thread, reused for every batch
+    private float[] inputs;
+    private float[] outputs;
+    private int[] classes;
+
+    public MicroBatcher(Model model, long latencyBudget, int maxBatch) {
+        if (latencyBudget < 0 || maxBatch < 1) {
+            throw new IllegalArgumentException("Expected a latency budget >= 0 and a maximum batch >= 1");
+        }
+        this.model = model;
+        this.inputLength = model.getInputLength();
+        this.labelLength = model.getLabelLength();
+        this.latencyBudget = latencyBudget;
+        this.maxBatch = maxBatch;
+        this.inputs = new float[maxBatch * inputLength];
+        this.outputs = new float[maxBatch * labelLength];
+        this.classes = new int[maxBatch];
+
+        this.thread = new Thread(this::run, "inference-batcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    //Queues the sample and waits until the batch it joined is scored
+    public Prediction predict(float[] input) {
+        return submit(input).join();
+    }
+
+    //Queues the sample, the returned future completes when the batch it joined is scored
+    public CompletableFuture<Prediction> submit(float[] input) {
+        if (input.length != inputLength) {
+            throw new IllegalArgumentException("Expected " + inputLength + " inputs but got " + input.length);
+        }
+        Request request = new Request(input);
+        //Synchronized with the last drain of the queue, so a sample is either scored or failed when the batcher closes
+        synchronized (queue) {
+            if (closed) {
+                throw new IllegalStateException("The batcher is closed");
+            }
+            queue.add(request);
+        }
+        return request.result;
+    }
+
+    private void run() {
+        List<Request> batch = new ArrayList<>(maxBatch);
+        try {
+            while (!closed) {
+                Request first = queue.take();
+                batch.add(first);
+
+                long deadline = first.queued + latencyBudget;
+                while (batch.size() < maxBatch) {
+                    long wait = deadline - System.nanoTime();
+                    Request next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                score(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            //close() interrupts the thread, the samples still waiting are failed below
+        }
+
+        IllegalStateException closedException = new IllegalStateException("The batcher is closed");
+        for (Request request : batch) {
+            request.result.completeExceptionally(closedException);
+        }
+        synchronized (queue) {
+            Request request;
+            while ((request = queue.poll()) != null) {
+                request.result.completeExceptionally(closedException);
+            }
+        }
+    }
+
+    private void score(List<Request> batch) {
+        int rows = batch.size();
+        try {
+            for (int r = 0; r < rows; r++) {
+                System.arraycopy(batch.get(r).input, 0, inputs, r * inputLength, inputLength);
+            }
+            model.predictBatch(inputs, rows, outputs, classes);
+        } catch (RuntimeException e) {
+            for (Request request : batch) {
+                request.result.completeExceptionally(e);
+            }
+            return;
+        }
+
+        batches.increment();
+        samples.add(rows);
+        if (Metrics.enabled) {
+            scoredBatches.increment();
+            scoredSamples.add(rows);
+        }
+        for (int r = 0; r < rows; r++) {
+            float[] sampleOutputs = Arrays.copyOfRange(outputs, r * labelLength, (r + 1) * labelLength);
+            batch.get(r).result.complete(new Prediction(sampleOutputs, classes[r]));
+        }
+    }
+
+    //Stops the batching thread, the samples that weren't scored yet fail with an IllegalStateException
+    public void close() {
+        closed = true;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getInputLength() { return inputLength; }
+
+    public long getBatches() { return batches.sum(); }
+
+    public long getSamples() { return samples.sum(); }
+
+    private static class Request {
+        private float[] input;
+        private long queued = System.nanoTime();
+        private CompletableFuture<Prediction> result = new CompletableFuture<>();
+
+        private Request(float[] input) {
+            this.input = input;
+        }
+    }
+}
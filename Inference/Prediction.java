@@ -0,0 +1,17 @@
+package Inference;
+
+public class Prediction {
+    //Result of a sample scored by the server: the output signals of the model and the class,
+    //the index of the strongest output or -1 when no output is above the 0.9 threshold
+    private float[] outputs;
+    private int predictedClass;
+
+    public Prediction(float[] outputs, int predictedClass) {
+        this.outputs = outputs;
+        this.predictedClass = predictedClass;
+    }
+
+    public float[] getOutputs() { return outputs; }
+
+    public int getPredictedClass() { return predictedClass; }
+}
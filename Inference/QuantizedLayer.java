@@ -0,0 +1,111 @@
+package Inference;
+
+import Model.ActivationFunctions.ActivatorFunction;
+import Model.Components.Layer;
+
+public class QuantizedLayer {
+    //Copy of the weights of a trained layer in a smaller type, used only for inference. The weights keep the row-major
+    //layout of the Layer (row i holds the input weights of perceptron i), the bias weights stay as floats.
+    //INT8: each row is scaled so its largest weight is ±127, weight{i, j} ≈ int8Weights{i, j} * scales{i}, and the input
+    //of each sample is quantized the same way with a single scale, so the products are summed as ints:
+    //input{i} = bias{i} + (Σ qinput{j} * qweight{i, j}) * scales{i} * inputScale
+    //FLOAT16: each weight is rounded to a half, and the halves are converted back to floats with the table of Float16
+    //as they are multiplied
+    private QuantizedModel.Precision precision;
+    private ActivatorFunction function;
+    private int size;
+    private int inputSize;
+    private float[] biasWeights;
+
+    private byte[] int8Weights;
+    private float[] scales;
+    private short[] halfWeights;
+
+    public QuantizedLayer(Layer layer, QuantizedModel.Precision precision) {
+        this.precision = precision;
+        this.function = layer.getFunction();
+        this.size = layer.getSize();
+        this.inputSize = layer.getInputSize();
+        this.biasWeights = layer.getBiasWeights().clone();
+
+        float[] weights = layer.getWeights();
+        if (precision == QuantizedModel.Precision.INT8) {
+            this.int8Weights = new byte[weights.length];
+            this.scales = new float[size];
+            for (int i = 0; i < size; i++) {
+                int row = i * inputSize;
+                float largest = 0F;
+                for (int j = 0; j < inputSize; j++) {
+                    largest = Math.max(largest, Math.abs(weights[row + j]));
+                }
+                scales[i] = largest / 127F;
+                float inverse = largest > 0F ? 127F / largest : 0F;
+                for (int j = 0; j < inputSize; j++) {
+                    int8Weights[row + j] = (byte) Math.round(weights[row + j] * inverse);
+                }
+            }
+        } else {
+            this.halfWeights = new short[weights.length];
+            for (int k = 0; k < weights.length; k++) {
+                //The weights beyond the largest half are saturated instead of becoming infinities
+                float weight = Math.max(-Float16.maxValue, Math.min(Float16.maxValue, weights[k]));
+                halfWeights[k] = Float16.fromFloat(weight);
+            }
+        }
+    }
+
+    //Calculates the output signals of the layer from the outputs of the previous layer in input[0 .. inputSize - 1].
+    //quantizedInput is a scratch buffer of at least inputSize bytes used by INT8
+    public void calculateOutput(float[] input, float[] signals, float[] outputs, byte[] quantizedInput) {
+        if (precision == QuantizedModel.Precision.INT8) {
+            multiplyInt8(input, signals, quantizedInput);
+        } else {
+            multiplyHalf(input, signals);
+        }
+        function.activate(signals, outputs, 0, size);
+    }
+
+    private void multiplyInt8(float[] input, float[] signals, byte[] quantizedInput) {
+        float largest = 0F;
+        for (int j = 0; j < inputSize; j++) {
+            largest = Math.max(largest, Math.abs(input[j]));
+        }
+        float inputScale = largest / 127F;
+        float inverse = largest > 0F ? 127F / largest : 0F;
+        for (int j = 0; j < inputSize; j++) {
+            quantizedInput[j] = (byte) Math.round(input[j] * inverse);
+        }
+
+        //|Σ qinput * qweight| <= inputSize * 127², so the sum only overflows an int with more than 133 thousand inputs
+        for (int i = 0; i < size; i++) {
+            int row = i * inputSize;
+            int sum = 0;
+            for (int j = 0; j < inputSize; j++) {
+                sum += quantizedInput[j] * int8Weights[row + j];
+            }
+            signals[i] = biasWeights[i] + sum * scales[i] * inputScale;
+        }
+    }
+
+    private void multiplyHalf(float[] input, float[] signals) {
+        float[] values = Float16.values;
+        for (int i = 0; i < size; i++) {
+            int row = i * inputSize;
+            float signal = biasWeights[i];
+            for (int j = 0; j < inputSize; j++) {
+                signal += input[j] * values[halfWeights[row + j] & 0xFFFF];
+            }
+            signals[i] = signal;
+        }
+    }
+
+    //Bytes taken by the weights, the scales and the bias weights
+    public long getWeightBytes() {
+        long weights = precision == QuantizedModel.Precision.INT8 ? int8Weights.length + 4L * scales.length : 2L * halfWeights.length;
+        return weights + 4L * biasWeights.length;
+    }
+
+    public int getSize() { return size; }
+
+    public int getInputSize() { return inputSize; }
+}
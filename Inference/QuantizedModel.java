@@ -0,0 +1,99 @@
+package Inference;
+
+import Evaluation.Evaluation;
+import IO.DataVector;
+import Model.Components.Layer;
+import Model.Model;
+
+import java.util.List;
+
+public class QuantizedModel {
+    //Post-training quantization of a model for inference: the weights of the hidden and output layers are copied in
+    //int8 (a scale per perceptron) or float16, which take 4 or 2 times less memory than floats, so more models fit
+    //in the memory and the caches and each sample reads less memory. The model can only predict, it can't be trained.
+    //Like Model.predict() it doesn't allocate memory and must not be called by more than one thread at the same time
+    public enum Precision { INT8, FLOAT16 }
+
+    private Precision precision;
+    private QuantizedLayer[] layers;
+    private int inputLength;
+    private int labelLength;
+    //outputs[k] holds the output signals of the layer k (outputs[0] is the input)
+    private float[][] signals;
+    private float[][] outputs;
+    private byte[] quantizedInput;
+
+    public QuantizedModel(List<Layer> modelLayers, Precision precision) {
+        this.precision = precision;
+        this.layers = new QuantizedLayer[modelLayers.size()];
+        this.signals = new float[modelLayers.size()][];
+        this.outputs = new float[modelLayers.size()][];
+        this.inputLength = modelLayers.get(0).getSize();
+        this.labelLength = modelLayers.get(modelLayers.size() - 1).getSize();
+        this.outputs[0] = new float[inputLength];
+
+        int largestInput = 0;
+        for (int k = 1; k < modelLayers.size(); k++) {
+            layers[k] = new QuantizedLayer(modelLayers.get(k), precision);
+            signals[k] = new float[layers[k].getSize()];
+            outputs[k] = new float[layers[k].getSize()];
+            largestInput = Math.max(largestInput, layers[k].getInputSize());
+        }
+        this.quantizedInput = new byte[largestInput];
+    }
+
+    //Quantizes the current weights of the model, the model can go on being trained without changing this copy
+    public static QuantizedModel quantize(Model model, Precision precision) {
+        return new QuantizedModel(model.getLayers(), precision);
+    }
+
+    //Feeds the input forward and copies the output signals to output, returns the index of the strongest output
+    //when it is above the 0.9 threshold or -1 when no output is, like Model.predict()
+    public int predict(float[] input, float[] output) {
+        System.arraycopy(input, 0, outputs[0], 0, inputLength);
+        for (int k = 1; k < layers.length; k++) {
+            layers[k].calculateOutput(outputs[k - 1], signals[k], outputs[k], quantizedInput);
+        }
+
+        float[] outputSignals = outputs[layers.length - 1];
+        int best = 0;
+        for (int i = 0; i < labelLength; i++) {
+            output[i] = outputSignals[i];
+            if (outputSignals[i] > outputSignals[best]) {
+                best = i;
+            }
+        }
+        return outputSignals[best] > 0.9F ? best : -1;
+    }
+
+    //Scores the test set like Model.evaluate(), with the instant errors E{n} = 1/2 * Σ(target - output)²
+    public Evaluation evaluate(List<DataVector> testSet) {
+        Evaluation evaluation = new Evaluation(labelLength);
+        float[] output = new float[labelLength];
+        for (DataVector test : testSet) {
+            predict(test.getInput(), output);
+            float errorSum = 0F;
+            for (int i = 0; i < labelLength; i++) {
+                float difference = test.getLabel()[i] - output[i];
+                errorSum += difference * difference;
+            }
+            evaluation.add(output, 0, test.getLabel(), 0.5F * errorSum);
+        }
+        return evaluation;
+    }
+
+    //Bytes taken by the weights of all the layers
+    public long getWeightBytes() {
+        long bytes = 0;
+        for (int k = 1; k < layers.length; k++) {
+            bytes += layers[k].getWeightBytes();
+        }
+        return bytes;
+    }
+
+    public Precision getPrecision() { return precision; }
+
+    public int getInputLength() { return inputLength; }
+
+    public int getLabelLength() { return labelLength; }
+}
@@ -1,19 +1,28 @@
 import IO.Dataset;
 import IO.Output;
+import IO.ProgressReporter;
+import IO.StreamingDataset;
+import Metrics.Metrics;
+import Metrics.MetricsServer;
 import Model.ActivationFunctions.ActivatorFunction;
+import Model.ActivationFunctions.LeakyReLuFunction;
 import Model.Model;
+import Model.Search.HyperparameterSearch;
+import Model.Search.Trial;
+import Model.Search.TrialConfig;
 import Model.ActivationFunctions.ReLuFunction;
 import Model.ActivationFunctions.SigmoidFunction;
+import Model.ActivationFunctions.TanhFunction;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import java.util.Scanner;
 
 public class Main {
     private static int nOfHiddenPerceptrons = 12;
     private static ActivatorFunction hiddenLayerActivatorFunction = new ReLuFunction();
     private static ActivatorFunction outputLayerActivatorFunction = new SigmoidFunction();
-    private static List<ActivatorFunction> functions = new ArrayList<>();
     private static Float alpha = 0.35F;
     private static Dataset dataset;
 
@@ -26,100 +35,84 @@ public class Main {
         String testDatasetPath = args[1];
         int labelLength = Integer.parseInt(args[2]);
 
-        dataset = new Dataset(trainDatasetPath, testDatasetPath, labelLength);
+        //With -Dann.metrics=true the metrics are written to outputs/metrics.prom and outputs/metrics.json at the end,
+        //and with -Dann.metrics.port=N they are also served on http://localhost:N/metrics while the program runs
+        Integer metricsPort = Integer.getInteger("ann.metrics.port");
+        MetricsServer metricsServer = Metrics.enabled && metricsPort != null ? new MetricsServer(metricsPort) : null;
+
+        //With -Dann.stream=true the train set is read from the file during the training instead of being loaded in memory
+        boolean stream = Boolean.getBoolean("ann.stream");
+        dataset = stream ? new Dataset(testDatasetPath, labelLength) : new Dataset(trainDatasetPath, testDatasetPath, labelLength);
         Output output = new Output();
 
         Model model = new Model(dataset, output);
+        if (stream) {
+            model.setTrainingSource(new StreamingDataset(trainDatasetPath, labelLength));
+        }
 
-        //Uncomment the bellow lines to run tests to find the best parameters
-        //testNumberOfHiddenPerceptrons(model, output);
-        //testActivationFunctions(model, output);
-        //testAlpha(model, output);
-        //output.printFinalExecution();
+        //Uncomment the bellow line to search the best parameters before the training
+        //searchParameters(model, output);
 
-        enterAltTermBuffer();
+        //In headless mode (-Dann.headless=true, or when there is no terminal, e.g. in a batch job) the progress is printed
+        //as plain lines and the program exits at the end instead of waiting for enter.
+        //The progress is refreshed every 100 ms in a terminal and every second in headless mode (-Dann.progress.ms=N)
+        boolean headless = Boolean.getBoolean("ann.headless") || System.console() == null;
+        long refreshMillis = Long.getLong("ann.progress.ms", headless ? 1000 : 100);
+        ProgressReporter reporter = new ProgressReporter(model.getProgress(), !headless, refreshMillis);
+
+        if (!headless) {
+            enterAltTermBuffer();
+        }
+        reporter.start();
 
         model.trainModel(true, 0.01F);
+        reporter.stop();
         model.testModel(false);
 
         output.generateOutputFiles();
-
-        leaveAltTermBuffer();
-    }
-
-    private static void testNumberOfHiddenPerceptrons(Model model, Output output) {
-        long bestTime = Long.MAX_VALUE;
-        for (int nOfPerceptrons = 2; nOfPerceptrons <= 63; nOfPerceptrons++) {
-            System.out.println("Testing with " + nOfPerceptrons + " perceptrons in hidden layer");
-            model.setNOfHiddenPerceptrons(nOfPerceptrons);
-            long time = trainModel(model, output, "Testing Number of Hidden Perceptrons - #" + nOfPerceptrons);
-
-            if (time < bestTime) {
-                nOfHiddenPerceptrons = nOfPerceptrons;
-                bestTime = time;
-            }
+        if (Metrics.enabled) {
+            Metrics.write("outputs");
         }
 
-        model.setNOfHiddenPerceptrons(nOfHiddenPerceptrons);
-        output.printTestResult("BEST NUMBER OF HIDDEN PERCEPTRON IS: " + nOfHiddenPerceptrons);
+        if (!headless) {
+            leaveAltTermBuffer();
+        }
+        if (metricsServer != null) {
+            metricsServer.stop();
+        }
     }
 
-    private static void testActivationFunctions(Model model, Output output) {
-        functions.add(new SigmoidFunction());
-        functions.add(new ReLuFunction());
-
-        long bestTime = Long.MAX_VALUE;
-
-        for (ActivatorFunction hiddenFunction : functions) {
-            for (ActivatorFunction outputFunction : functions) {
-                System.out.println("Testing with " + hiddenFunction.getFunctionName() + " function in hidden layer and "
-                        + outputFunction.getFunctionName() + " in output layer");
-
-
-                model.setHiddenLayerFunction(hiddenFunction);
-                model.setOutputLayerFunction(outputFunction);
-
-                long time = trainModel(model, output, "Testing Activator Functions - Hidden: " + hiddenFunction.getFunctionName() + " - Output: " + outputFunction.getFunctionName());
-                if (time < bestTime) {
-                    hiddenLayerActivatorFunction = hiddenFunction;
-                    outputLayerActivatorFunction = outputFunction;
-                    bestTime = time;
-                }
-            }
+    //Searches the best number of hidden perceptrons, activation functions and alpha among random configurations
+    //of the ranges the previous sweeps tested (2 to 63 perceptrons, the 4 functions in each layer, alpha from 0.01 to 0.96).
+    //The trials are trained in parallel on every core with successive halving, ranked by validation error,
+    //and the best configuration is set in the model
+    private static void searchParameters(Model model, Output output) {
+        List<ActivatorFunction> functions = Arrays.asList(new SigmoidFunction(), new ReLuFunction(), new LeakyReLuFunction(),
+                new TanhFunction());
+        HyperparameterSearch search = new HyperparameterSearch(dataset);
+        List<TrialConfig> configs = HyperparameterSearch.random(243, new Random(1), 2, 63, functions, functions, 0.01F, 0.96F);
+
+        long start = System.currentTimeMillis();
+        List<Trial> trials = search.run(configs);
+        long time = System.currentTimeMillis() - start;
+
+        StringBuilder ranking = new StringBuilder("SEARCH OF " + trials.size() + " CONFIGURATIONS IN " + time + " MS, BEST FIRST:");
+        for (int i = 0; i < Math.min(10, trials.size()); i++) {
+            ranking.append("\n").append(i + 1).append(". ").append(trials.get(i));
         }
+        output.printTestResult(ranking.toString());
 
+        TrialConfig best = trials.get(0).getConfig();
+        nOfHiddenPerceptrons = best.getNOfHiddenPerceptrons();
+        hiddenLayerActivatorFunction = best.getHiddenLayerFunction();
+        outputLayerActivatorFunction = best.getOutputLayerFunction();
+        alpha = best.getAlpha();
+        model.setNOfHiddenPerceptrons(nOfHiddenPerceptrons);
         model.setHiddenLayerFunction(hiddenLayerActivatorFunction);
         model.setOutputLayerFunction(outputLayerActivatorFunction);
-        output.printTestResult("BEST ACTIVATOR FUNCTION FOR HIDDEN LAYER IS: " + hiddenLayerActivatorFunction.getFunctionName()
-        + "\nBEST ACTIVATOR FUNCTION FOR OUTPUT LAYER IS: " + outputLayerActivatorFunction.getFunctionName());
-    }
-
-    private static void testAlpha(Model model, Output output) {
-        long bestTime = Long.MAX_VALUE;
-
-        for (float currentAlpha = 0.01F; currentAlpha < 1.0F; currentAlpha += 0.05F) {
-            System.out.println("Testing with alpha " + currentAlpha);
-            model.setAlpha(currentAlpha);
-            long time = trainModel(model, output, "Testing Alphas - #" + currentAlpha);
-
-            if (time < bestTime) {
-                alpha = currentAlpha;
-                bestTime = time;
-            }
-        }
-
-        output.printTestResult("BEST ALPHA IS: " + alpha);
         model.setAlpha(alpha);
     }
 
-    private static long trainModel(Model model, Output output, String testName) {
-        output.printTestHeader(testName);
-        long time = model.trainModel(true, 0.1F);
-        output.printTestSummary(model.getHiddenLayer(), model.getOutputLayer(), model.getAlpha(), time);
-
-        return time;
-    }
-
     private static void enterAltTermBuffer() {
         System.out.print("\033[?1049h\033[?25l");
     }
@@ -0,0 +1,28 @@
+package Metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class Counter {
+    //Sum that only grows, e.g. the number of samples trained or the nanoseconds spent in a phase.
+    //The value is kept as a long and multiplied by the unit when it is exported (1e-9 exports nanoseconds as seconds).
+    //A LongAdder keeps adds from several threads (e.g. the workers of the ParallelTrainer) from contending
+    private LongAdder value = new LongAdder();
+    private double unit;
+
+    public Counter(double unit) {
+        this.unit = unit;
+    }
+
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    public void increment() {
+        value.increment();
+    }
+
+    public long get() { return value.sum(); }
+
+    //Returns the value in the unit of the metric
+    public double getValue() { return value.sum() * unit; }
+}
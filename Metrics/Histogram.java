@@ -0,0 +1,70 @@
+package Metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Histogram {
+    //Distribution of durations in nanoseconds, used for the percentiles of the epoch and inference latencies.
+    //Values under 8 have their own bucket, larger values are split in 8 buckets per power of two,
+    //so a percentile is at most 12.5% above the real value and recording is a few shifts and an atomic add
+    private static final int subBuckets = 8;
+    private static final int buckets = subBuckets + 61 * subBuckets;
+
+    private AtomicLongArray counts = new AtomicLongArray(buckets);
+    private LongAdder count = new LongAdder();
+    private LongAdder sum = new LongAdder();
+    private LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts.incrementAndGet(bucketOf(nanos));
+        count.increment();
+        sum.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    private static int bucketOf(long value) {
+        if (value < subBuckets) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - 3)) & (subBuckets - 1);
+        return subBuckets + (exponent - 3) * subBuckets + sub;
+    }
+
+    //Largest value that falls in the bucket
+    private static long upperBound(int bucket) {
+        if (bucket < subBuckets) {
+            return bucket;
+        }
+        int exponent = (bucket - subBuckets) / subBuckets + 3;
+        int sub = (bucket - subBuckets) % subBuckets;
+        return ((long) (subBuckets + sub + 1) << (exponent - 3)) - 1;
+    }
+
+    //Returns the value (in nanoseconds) under which the given fraction of the recorded values are, 0 when it is empty
+    public long percentile(double fraction) {
+        long total = count.sum();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < buckets; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public long getCount() { return count.sum(); }
+
+    public long getSum() { return sum.sum(); }
+
+    public long getMax() { return max.get(); }
+}
@@ -0,0 +1,150 @@
+package Metrics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+
+public class Metrics {
+    //Registry of the metrics of the training, the datasets and the inference, exported in the Prometheus text format
+    //or as JSON (to files with write() or over HTTP with a MetricsServer).
+    //The metrics are only recorded when the program runs with -Dann.metrics=true. Every instrumented place checks
+    //the enabled constant first, so when it is false the JIT removes the instrumentation and it costs nothing
+    public static final boolean enabled = Boolean.getBoolean("ann.metrics");
+    private static final double nanosecond = 1e-9;
+    private static final double[] quantiles = {0.5, 0.9, 0.99};
+
+    private static final Map<String, Object> metrics = new LinkedHashMap<>();
+    private static final Map<String, String> descriptions = new LinkedHashMap<>();
+
+    //Returns the counter with the given name, registering it the first time
+    public static synchronized Counter counter(String name, String description) {
+        return (Counter) register(name, description, new Counter(1));
+    }
+
+    //Counter of nanoseconds, exported in seconds
+    public static synchronized Counter timeCounter(String name, String description) {
+        return (Counter) register(name, description, new Counter(nanosecond));
+    }
+
+    //Histogram of nanoseconds, exported in seconds as a summary with its percentiles
+    public static synchronized Histogram histogram(String name, String description) {
+        return (Histogram) register(name, description, new Histogram());
+    }
+
+    //Value calculated when the metrics are exported, e.g. a rate from two counters
+    public static synchronized void gauge(String name, String description, DoubleSupplier supplier) {
+        register(name, description, supplier);
+    }
+
+    private static Object register(String name, String description, Object metric) {
+        Object registered = metrics.get(name);
+        if (registered != null) {
+            if (registered.getClass() != metric.getClass()) {
+                throw new IllegalArgumentException("The metric " + name + " is already registered with another type");
+            }
+            return registered;
+        }
+        metrics.put(name, metric);
+        descriptions.put(name, description);
+        return metric;
+    }
+
+    //Returns the number of bytes allocated so far by the current thread, or -1 when the JVM can't measure it
+    public static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    public static synchronized String toPrometheus() {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, Object> entry : metrics.entrySet()) {
+            String name = entry.getKey();
+            Object metric = entry.getValue();
+            text.append("# HELP ").append(name).append(' ').append(descriptions.get(name)).append('\n');
+
+            if (metric instanceof Counter) {
+                text.append("# TYPE ").append(name).append(" counter\n");
+                text.append(name).append(' ').append(number(((Counter) metric).getValue())).append('\n');
+            } else if (metric instanceof Histogram) {
+                Histogram histogram = (Histogram) metric;
+                text.append("# TYPE ").append(name).append(" summary\n");
+                for (double quantile : quantiles) {
+                    text.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                            .append(number(histogram.percentile(quantile) * nanosecond)).append('\n');
+                }
+                text.append(name).append("_sum ").append(number(histogram.getSum() * nanosecond)).append('\n');
+                text.append(name).append("_count ").append(histogram.getCount()).append('\n');
+            } else {
+                text.append("# TYPE ").append(name).append(" gauge\n");
+                text.append(name).append(' ').append(number(((DoubleSupplier) metric).getAsDouble())).append('\n');
+            }
+        }
+        return text.toString();
+    }
+
+    public static synchronized String toJson() {
+        StringBuilder json = new StringBuilder("{");
+        for (Map.Entry<String, Object> entry : metrics.entrySet()) {
+            Object metric = entry.getValue();
+            json.append(json.length() > 1 ? ",\n  " : "\n  ").append('"').append(entry.getKey()).append("\": {");
+            json.append("\"help\": \"").append(descriptions.get(entry.getKey()).replace("\"", "\\\"")).append("\", ");
+
+            if (metric instanceof Counter) {
+                json.append("\"type\": \"counter\", \"value\": ").append(jsonNumber(((Counter) metric).getValue()));
+            } else if (metric instanceof Histogram) {
+                Histogram histogram = (Histogram) metric;
+                long count = histogram.getCount();
+                json.append("\"type\": \"summary\", \"count\": ").append(count);
+                json.append(", \"sum\": ").append(jsonNumber(histogram.getSum() * nanosecond));
+                json.append(", \"mean\": ").append(jsonNumber(count > 0 ? histogram.getSum() * nanosecond / count : 0));
+                for (double quantile : quantiles) {
+                    json.append(", \"p").append(Math.round(quantile * 100)).append("\": ")
+                            .append(jsonNumber(histogram.percentile(quantile) * nanosecond));
+                }
+                json.append(", \"max\": ").append(jsonNumber(histogram.getMax() * nanosecond));
+            } else {
+                json.append("\"type\": \"gauge\", \"value\": ").append(jsonNumber(((DoubleSupplier) metric).getAsDouble()));
+            }
+            json.append('}');
+        }
+        return json.append("\n}\n").toString();
+    }
+
+    //Writes metrics.prom and metrics.json to the directory
+    public static void write(String directory) {
+        try {
+            Path path = Paths.get(directory);
+            Files.createDirectories(path);
+            Files.write(path.resolve("metrics.prom"), toPrometheus().getBytes(StandardCharsets.UTF_8));
+            Files.write(path.resolve("metrics.json"), toJson().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.out.println("An error occurred while writing the metrics");
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String number(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    //JSON has no NaN or infinity, they are written as null
+    private static String jsonNumber(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? "null" : number(value);
+    }
+}
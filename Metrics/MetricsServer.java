@@ -0,0 +1,44 @@
+package Metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+public class MetricsServer {
+    //Serves the metrics on the loopback interface, so they can be scraped while the model trains:
+    //  /metrics in the Prometheus text format and /metrics.json as JSON
+    private HttpServer server;
+
+    public MetricsServer(int port) {
+        try {
+            this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (IOException e) {
+            System.out.println("An error occurred while starting the metrics server");
+            throw new RuntimeException(e);
+        }
+        server.createContext("/metrics", exchange -> respond(exchange, "text/plain; version=0.0.4", Metrics::toPrometheus));
+        server.createContext("/metrics.json", exchange -> respond(exchange, "application/json", Metrics::toJson));
+        server.start();
+    }
+
+    private static void respond(HttpExchange exchange, String contentType, Supplier<String> body) throws IOException {
+        byte[] bytes = body.get().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream stream = exchange.getResponseBody()) {
+            stream.write(bytes);
+        }
+    }
+
+    public int getPort() { return server.getAddress().getPort(); }
+
+    public void stop() {
+        server.stop(0);
+    }
+}
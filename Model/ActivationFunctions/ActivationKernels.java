@@ -0,0 +1,23 @@
+package Model.ActivationFunctions;
+
+public interface ActivationKernels {
+    //Array kernels used by the activation functions, each one works on the positions from .. to - 1
+    //The derivative kernels multiply the errors by the derivative calculated from the outputs
+    void relu(float[] signals, float[] outputs, int from, int to);
+    void reluDerivative(float[] outputs, float[] errors, int from, int to);
+
+    void leakyRelu(float slope, float[] signals, float[] outputs, int from, int to);
+    void leakyReluDerivative(float slope, float[] outputs, float[] errors, int from, int to);
+
+    void sigmoid(float[] signals, float[] outputs, int from, int to);
+    void sigmoidDerivative(float[] outputs, float[] errors, int from, int to);
+
+    void tanh(float[] signals, float[] outputs, int from, int to);
+    void tanhDerivative(float[] outputs, float[] errors, int from, int to);
+
+    //Softmax normalizes the whole range, so from .. to - 1 must be the signals of a single sample
+    void softmax(float[] signals, float[] outputs, int from, int to);
+    void softmaxDerivative(float[] outputs, float[] errors, int from, int to);
+
+    String getName();
+}
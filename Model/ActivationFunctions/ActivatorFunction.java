@@ -1,7 +1,12 @@
 package Model.ActivationFunctions;
 
 public interface ActivatorFunction {
-    Float activate(Float signal);
-    Float derivative(Float signal);
+    //Applies the function to signals[from .. to - 1] and stores the results in outputs[from .. to - 1]
+    void activate(float[] signals, float[] outputs, int from, int to);
+
+    //Multiplies errors[from .. to - 1] by the derivative of the function, which is calculated
+    //from the outputs the function produced, so the signals don't need to be kept or recalculated
+    void applyDerivative(float[] outputs, float[] errors, int from, int to);
+
     String getFunctionName();
 }
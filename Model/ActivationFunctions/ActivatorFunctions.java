@@ -0,0 +1,30 @@
+package Model.ActivationFunctions;
+
+public class ActivatorFunctions {
+    //Creates an activation function from the name returned by its getFunctionName() and its parameter
+    //(the slope for Leaky ReLu, unused by the other functions), used when a saved model is loaded
+    public static ActivatorFunction create(String name, float parameter) {
+        switch (name) {
+            case "ReLu":
+                return new ReLuFunction();
+            case "LeakyReLu":
+                return new LeakyReLuFunction(parameter);
+            case "Sigmoid":
+                return new SigmoidFunction();
+            case "Tanh":
+                return new TanhFunction();
+            case "Softmax":
+                return new SoftmaxFunction();
+            default:
+                throw new IllegalArgumentException("Unknown activation function: " + name);
+        }
+    }
+
+    //Returns the parameter that has to be saved with the function so create() can rebuild it
+    public static float getParameter(ActivatorFunction function) {
+        if (function instanceof LeakyReLuFunction) {
+            return ((LeakyReLuFunction) function).getSlope();
+        }
+        return 0F;
+    }
+}
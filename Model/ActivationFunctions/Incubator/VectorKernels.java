@@ -0,0 +1,161 @@
+package Model.ActivationFunctions.Incubator;
+
+import Model.ActivationFunctions.ActivationKernels;
+import Model.ActivationFunctions.ScalarKernels;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+public class VectorKernels implements ActivationKernels {
+    //This class is only compiled by "make vector-kernels", since it needs the jdk.incubator.vector module.
+    //Each kernel processes the arrays in chunks of the preferred vector length of the CPU,
+    //and the positions left at the end (less than one vector) are handled by the scalar kernels
+    private static final VectorSpecies<Float> species = FloatVector.SPECIES_PREFERRED;
+    private final ScalarKernels tail = new ScalarKernels();
+
+    @Override
+    public void relu(float[] signals, float[] outputs, int from, int to) {
+        int i = from;
+        for (; i < from + species.loopBound(to - from); i += species.length()) {
+            FloatVector.fromArray(species, signals, i).max(0F).intoArray(outputs, i);
+        }
+        tail.relu(signals, outputs, i, to);
+    }
+
+    @Override
+    public void reluDerivative(float[] outputs, float[] errors, int from, int to) {
+        int i = from;
+        for (; i < from + species.loopBound(to - from); i += species.length()) {
+            VectorMask<Float> inactive = FloatVector.fromArray(species, outputs, i).compare(VectorOperators.LE, 0F);
+            FloatVector.fromArray(species, errors, i).blend(0F, inactive).intoArray(errors, i);
+        }
+        tail.reluDerivative(outputs, errors, i, to);
+    }
+
+    @Override
+    public void leakyRelu(float slope, float[] signals, float[] outputs, int from, int to) {
+        int i = from;
+        for (; i < from + species.loopBound(to - from); i += species.length()) {
+            FloatVector signal = FloatVector.fromArray(species, signals, i);
+            VectorMask<Float> negative = signal.compare(VectorOperators.LE, 0F);
+            signal.blend(signal.mul(slope), negative).intoArray(outputs, i);
+        }
+        tail.leakyRelu(slope, signals, outputs, i, to);
+    }
+
+    @Override
+    public void leakyReluDerivative(float slope, float[] outputs, float[] errors, int from, int to) {
+        int i = from;
+        for (; i < from + species.loopBound(to - from); i += species.length()) {
+            VectorMask<Float> negative = FloatVector.fromArray(species, outputs, i).compare(VectorOperators.LE, 0F);
+            FloatVector error = FloatVector.fromArray(species, errors, i);
+            error.blend(error.mul(slope), negative).intoArray(errors, i);
+        }
+        tail.leakyReluDerivative(slope, outputs, errors, i, to);
+    }
+
+    @Override
+    public void sigmoid(float[] signals, float[] outputs, int from, int to) {
+        int i = from;
+        for (; i < from + species.loopBound(to - from); i += species.length()) {
+            FloatVector exp = FloatVector.fromArray(species, signals, i).neg().lanewise(VectorOperators.EXP);
+            FloatVector.broadcast(species, 1.0F).div(exp.add(1.0F)).intoArray(outputs, i);
+        }
+        tail.sigmoid(signals, outputs, i, to);
+    }
+
+    @Override
+    public void sigmoidDerivative(float[] outputs, float[] errors, int from, int to) {
+        int i = from;
+        for (; i < from + species.loopBound(to - from); i += species.length()) {
+            FloatVector output = FloatVector.fromArray(species, outputs, i);
+            FloatVector derivative = output.mul(output.neg().add(1.0F));
+            FloatVector.fromArray(species, errors, i).mul(derivative).intoArray(errors, i);
+        }
+        tail.sigmoidDerivative(outputs, errors, i, to);
+    }
+
+    @Override
+    public void tanh(float[] signals, float[] outputs, int from, int to) {
+        int i = from;
+        for (; i < from + species.loopBound(to - from); i += species.length()) {
+            FloatVector.fromArray(species, signals, i).lanewise(VectorOperators.TANH).intoArray(outputs, i);
+        }
+        tail.tanh(signals, outputs, i, to);
+    }
+
+    @Override
+    public void tanhDerivative(float[] outputs, float[] errors, int from, int to) {
+        int i = from;
+        for (; i < from + species.loopBound(to - from); i += species.length()) {
+            FloatVector output = FloatVector.fromArray(species, outputs, i);
+            FloatVector derivative = output.mul(output).neg().add(1.0F);
+            FloatVector.fromArray(species, errors, i).mul(derivative).intoArray(errors, i);
+        }
+        tail.tanhDerivative(outputs, errors, i, to);
+    }
+
+    //The max, the exponentials and the sum are calculated a vector at a time, the positions left at the end are added
+    //to them one by one, since the whole range is normalized together (the sum is added in another order than the
+    //scalar kernel, so the outputs can differ in the last bits)
+    @Override
+    public void softmax(float[] signals, float[] outputs, int from, int to) {
+        int bound = from + species.loopBound(to - from);
+        float max = Float.NEGATIVE_INFINITY;
+        int i = from;
+        for (; i < bound; i += species.length()) {
+            max = Math.max(max, FloatVector.fromArray(species, signals, i).reduceLanes(VectorOperators.MAX));
+        }
+        for (; i < to; i++) {
+            max = Math.max(max, signals[i]);
+        }
+
+        FloatVector sums = FloatVector.zero(species);
+        for (i = from; i < bound; i += species.length()) {
+            FloatVector exp = FloatVector.fromArray(species, signals, i).sub(max).lanewise(VectorOperators.EXP);
+            exp.intoArray(outputs, i);
+            sums = sums.add(exp);
+        }
+        float sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            outputs[i] = (float) Math.exp(signals[i] - max);
+            sum += outputs[i];
+        }
+
+        float inverse = 1.0F / sum;
+        for (i = from; i < bound; i += species.length()) {
+            FloatVector.fromArray(species, outputs, i).mul(inverse).intoArray(outputs, i);
+        }
+        for (; i < to; i++) {
+            outputs[i] *= inverse;
+        }
+    }
+
+    @Override
+    public void softmaxDerivative(float[] outputs, float[] errors, int from, int to) {
+        int bound = from + species.loopBound(to - from);
+        FloatVector dots = FloatVector.zero(species);
+        int i = from;
+        for (; i < bound; i += species.length()) {
+            dots = FloatVector.fromArray(species, errors, i).fma(FloatVector.fromArray(species, outputs, i), dots);
+        }
+        float dot = dots.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            dot += errors[i] * outputs[i];
+        }
+
+        for (i = from; i < bound; i += species.length()) {
+            FloatVector output = FloatVector.fromArray(species, outputs, i);
+            output.mul(FloatVector.fromArray(species, errors, i).sub(dot)).intoArray(errors, i);
+        }
+        for (; i < to; i++) {
+            errors[i] = outputs[i] * (errors[i] - dot);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "vector (" + species + ")";
+    }
+}
@@ -0,0 +1,26 @@
+package Model.ActivationFunctions;
+
+public class Kernels {
+    //The kernels are chosen once when the class is loaded, using the ann.kernels system property:
+    //-Dann.kernels=vector selects the jdk.incubator.vector implementation, which must be compiled
+    //with "make vector-kernels" and needs "--add-modules jdk.incubator.vector" when running.
+    //When the vector implementation can't be loaded the scalar one is used instead
+    private static final ActivationKernels kernels = load(System.getProperty("ann.kernels", "scalar"));
+
+    public static ActivationKernels get() {
+        return kernels;
+    }
+
+    private static ActivationKernels load(String name) {
+        if (name.equals("vector")) {
+            try {
+                return (ActivationKernels) Class.forName("Model.ActivationFunctions.Incubator.VectorKernels")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                System.out.println("Vector kernels are not available (" + e + "), using scalar kernels");
+            }
+        }
+
+        return new ScalarKernels();
+    }
+}
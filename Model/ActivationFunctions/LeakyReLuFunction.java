@@ -0,0 +1,36 @@
+package Model.ActivationFunctions;
+
+public class LeakyReLuFunction implements ActivatorFunction {
+    //Slope used for negative signals
+    private final float slope;
+
+    public LeakyReLuFunction() {
+        this(0.01F);
+    }
+
+    public LeakyReLuFunction(float slope) {
+        if (slope <= 0F) {
+            throw new IllegalArgumentException("Leaky ReLu slope should be greater than 0");
+        }
+        this.slope = slope;
+    }
+
+    @Override
+    public void activate(float[] signals, float[] outputs, int from, int to) {
+        Kernels.get().leakyRelu(slope, signals, outputs, from, to);
+    }
+
+    @Override
+    public void applyDerivative(float[] outputs, float[] errors, int from, int to) {
+        Kernels.get().leakyReluDerivative(slope, outputs, errors, from, to);
+    }
+
+    @Override
+    public String getFunctionName() {
+        return "LeakyReLu";
+    }
+
+    public float getSlope() {
+        return slope;
+    }
+}
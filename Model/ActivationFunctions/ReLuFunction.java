@@ -2,21 +2,13 @@ package Model.ActivationFunctions;
 
 public class ReLuFunction implements ActivatorFunction {
     @Override
-    public Float activate(Float signal) {
-        if (signal > 0F) {
-            return signal;
-        }
-
-        return 0F;
+    public void activate(float[] signals, float[] outputs, int from, int to) {
+        Kernels.get().relu(signals, outputs, from, to);
     }
 
     @Override
-    public Float derivative(Float signal) {
-        if (signal > 0F) {
-            return 1F;
-        }
-
-        return 0F;
+    public void applyDerivative(float[] outputs, float[] errors, int from, int to) {
+        Kernels.get().reluDerivative(outputs, errors, from, to);
     }
 
     @Override
@@ -0,0 +1,103 @@
+package Model.ActivationFunctions;
+
+public class ScalarKernels implements ActivationKernels {
+    @Override
+    public void relu(float[] signals, float[] outputs, int from, int to) {
+        for (int i = from; i < to; i++) {
+            outputs[i] = signals[i] > 0F ? signals[i] : 0F;
+        }
+    }
+
+    //f'(x) = 1 when x > 0, which is the same as output > 0
+    @Override
+    public void reluDerivative(float[] outputs, float[] errors, int from, int to) {
+        for (int i = from; i < to; i++) {
+            errors[i] *= outputs[i] > 0F ? 1F : 0F;
+        }
+    }
+
+    @Override
+    public void leakyRelu(float slope, float[] signals, float[] outputs, int from, int to) {
+        for (int i = from; i < to; i++) {
+            outputs[i] = signals[i] > 0F ? signals[i] : slope * signals[i];
+        }
+    }
+
+    //The slope is positive, so the output has the same sign as the signal
+    @Override
+    public void leakyReluDerivative(float slope, float[] outputs, float[] errors, int from, int to) {
+        for (int i = from; i < to; i++) {
+            errors[i] *= outputs[i] > 0F ? 1F : slope;
+        }
+    }
+
+    @Override
+    public void sigmoid(float[] signals, float[] outputs, int from, int to) {
+        for (int i = from; i < to; i++) {
+            outputs[i] = 1.0F / (1.0F + (float) Math.exp(-signals[i]));
+        }
+    }
+
+    //f'(x) = f(x) * (1 - f(x))
+    @Override
+    public void sigmoidDerivative(float[] outputs, float[] errors, int from, int to) {
+        for (int i = from; i < to; i++) {
+            errors[i] *= outputs[i] * (1.0F - outputs[i]);
+        }
+    }
+
+    @Override
+    public void tanh(float[] signals, float[] outputs, int from, int to) {
+        for (int i = from; i < to; i++) {
+            outputs[i] = (float) Math.tanh(signals[i]);
+        }
+    }
+
+    //f'(x) = 1 - f(x)²
+    @Override
+    public void tanhDerivative(float[] outputs, float[] errors, int from, int to) {
+        for (int i = from; i < to; i++) {
+            errors[i] *= 1.0F - outputs[i] * outputs[i];
+        }
+    }
+
+    //output{i} = e^(signal{i} - max) / Σ e^(signal{k} - max)
+    //The max signal is subtracted so the exponentials can't overflow
+    @Override
+    public void softmax(float[] signals, float[] outputs, int from, int to) {
+        float max = Float.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            max = Math.max(max, signals[i]);
+        }
+
+        float sum = 0F;
+        for (int i = from; i < to; i++) {
+            outputs[i] = (float) Math.exp(signals[i] - max);
+            sum += outputs[i];
+        }
+
+        float inverse = 1.0F / sum;
+        for (int i = from; i < to; i++) {
+            outputs[i] *= inverse;
+        }
+    }
+
+    //Each output depends on every signal, so the errors are multiplied by the whole jacobian:
+    //δ{i} = output{i} * (error{i} - Σ error{k} * output{k})
+    @Override
+    public void softmaxDerivative(float[] outputs, float[] errors, int from, int to) {
+        float dot = 0F;
+        for (int k = from; k < to; k++) {
+            dot += errors[k] * outputs[k];
+        }
+
+        for (int i = from; i < to; i++) {
+            errors[i] = outputs[i] * (errors[i] - dot);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+}
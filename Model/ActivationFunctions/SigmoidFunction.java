@@ -4,13 +4,13 @@ public class SigmoidFunction implements ActivatorFunction {
     public SigmoidFunction() { }
 
     @Override
-    public Float activate(Float signal) {
-        return 1.0F / (1.0F + (float) Math.pow(Math.E, -signal));
+    public void activate(float[] signals, float[] outputs, int from, int to) {
+        Kernels.get().sigmoid(signals, outputs, from, to);
     }
 
     @Override
-    public Float derivative(Float signal) {
-        return activate(signal) * (1.0F - activate(signal));
+    public void applyDerivative(float[] outputs, float[] errors, int from, int to) {
+        Kernels.get().sigmoidDerivative(outputs, errors, from, to);
     }
 
     @Override
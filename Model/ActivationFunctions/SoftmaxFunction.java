@@ -0,0 +1,19 @@
+package Model.ActivationFunctions;
+
+public class SoftmaxFunction implements ActivatorFunction {
+    //The signals of a layer are normalized together, the layers call it once per sample with the range of that sample
+    @Override
+    public void activate(float[] signals, float[] outputs, int from, int to) {
+        Kernels.get().softmax(signals, outputs, from, to);
+    }
+
+    @Override
+    public void applyDerivative(float[] outputs, float[] errors, int from, int to) {
+        Kernels.get().softmaxDerivative(outputs, errors, from, to);
+    }
+
+    @Override
+    public String getFunctionName() {
+        return "Softmax";
+    }
+}
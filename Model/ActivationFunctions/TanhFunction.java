@@ -0,0 +1,18 @@
+package Model.ActivationFunctions;
+
+public class TanhFunction implements ActivatorFunction {
+    @Override
+    public void activate(float[] signals, float[] outputs, int from, int to) {
+        Kernels.get().tanh(signals, outputs, from, to);
+    }
+
+    @Override
+    public void applyDerivative(float[] outputs, float[] errors, int from, int to) {
+        Kernels.get().tanhDerivative(outputs, errors, from, to);
+    }
+
+    @Override
+    public String getFunctionName() {
+        return "Tanh";
+    }
+}
@@ -0,0 +1,68 @@
+package Model.Components;
+
+import java.util.Arrays;
+
+public class Arena {
+    //Everything written while a sample goes through a network, for all the layers at once, laid out by an ExecutionPlan.
+    //The signals, outputs, errors and bias deltas of a layer are at the same offset in their arrays (the output of the
+    //input layer is at 0), so the activation functions can read one array and write another with the same indices.
+    //The weight deltas of every layer are in a single array too, with the same layout as the weights of each layer.
+    //Each thread that feeds samples forward or backpropagates through the same network uses its own arena
+    private float[] signals;
+    private float[] outputs;
+    private float[] errors;
+    private float[] deltaWeights;
+    private float[] deltaBiases;
+    //Input of the sample as the indices and values of its nonzero inputs, used instead of the output of the input
+    //layer when the sample is fed through the sparse input path of the plan
+    private int[] inputIndices;
+    private float[] inputValues;
+    private int inputCount;
+
+    public Arena(int neurons, int weights, int inputLength) {
+        this.signals = new float[neurons];
+        this.outputs = new float[neurons];
+        this.errors = new float[neurons];
+        this.deltaWeights = new float[weights];
+        this.deltaBiases = new float[neurons];
+        this.inputIndices = new int[inputLength];
+        this.inputValues = new float[inputLength];
+        clearDeltaWeights();
+    }
+
+    //The deltas are reset to -0 instead of 0 because -0 + x == x for every x (including +0 and -0),
+    //so a batch of a single sample leaves exactly the same delta as the online update
+    public void clearDeltaWeights() {
+        Arrays.fill(deltaWeights, -0.0F);
+        Arrays.fill(deltaBiases, -0.0F);
+    }
+
+    //Sums the deltas of another arena of the same plan into this one
+    public void addDeltaWeights(Arena other) {
+        for (int k = 0; k < deltaWeights.length; k++) {
+            deltaWeights[k] += other.deltaWeights[k];
+        }
+
+        for (int i = 0; i < deltaBiases.length; i++) {
+            deltaBiases[i] += other.deltaBiases[i];
+        }
+    }
+
+    public float[] getSignals() { return signals; }
+
+    public float[] getOutputs() { return outputs; }
+
+    public float[] getErrors() { return errors; }
+
+    public float[] getDeltaWeights() { return deltaWeights; }
+
+    public float[] getDeltaBiases() { return deltaBiases; }
+
+    public int[] getInputIndices() { return inputIndices; }
+
+    public float[] getInputValues() { return inputValues; }
+
+    public int getInputCount() { return inputCount; }
+
+    public void setInputCount(int inputCount) { this.inputCount = inputCount; }
+}
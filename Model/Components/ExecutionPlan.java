@@ -0,0 +1,177 @@
+package Model.Components;
+
+import IO.DataBlock;
+import Model.Optimizers.Optimizer;
+import Model.Optimizers.SgdOptimizer;
+
+import java.util.List;
+
+public class ExecutionPlan {
+    //The layers of a network (the input layer first) compiled into arrays: the offset of each layer in an Arena and
+    //the offset of its weight deltas are calculated once when the plan is built, so feeding a sample forward and
+    //backpropagating it are plain loops over arrays, without lists, states or any allocation.
+    //The plan only reads the layers, the weights are updated by update(), so one plan can be shared by many threads
+    //as long as each one uses its own arena (and only one of them calls update()).
+    //The state of the optimizer is kept in flat arrays too, weightState[s] and biasState[s] have the same layout as
+    //the weight and bias deltas of an arena
+    //The training samples can go through the first layer in two ways: DENSE multiplies every weight by its input,
+    //SPARSE only visits the inputs that aren't 0 (listed in the arena), in the same order, so it gets the same signals
+    //and deltas (as long as the weights are finite) in a time proportional to the nonzero inputs
+    public enum InputPath { DENSE, SPARSE }
+
+    //The sparse path is used when at most this fraction of the inputs aren't 0. Below it, it was faster than the dense
+    //path on layers of 12 to 256 perceptrons, while closer to 1 the dense loops (the weight deltas are vectorized) win
+    private static final float sparseDensity = 1F / 3F;
+
+    private Layer[] layers;
+    private int[] offsets;
+    private int[] weightOffsets;
+    private int neurons;
+    private int weights;
+
+    private Optimizer optimizer;
+    private float[][] weightState;
+    private float[][] biasState;
+    //Number of updates since the optimizer was set
+    private int step;
+
+    public ExecutionPlan(List<Layer> layers) {
+        if (layers.size() < 2) {
+            throw new IllegalArgumentException("A network needs at least an input and an output layer");
+        }
+        this.layers = layers.toArray(new Layer[0]);
+        this.offsets = new int[this.layers.length];
+        this.weightOffsets = new int[this.layers.length];
+
+        for (int k = 0; k < this.layers.length; k++) {
+            offsets[k] = neurons;
+            weightOffsets[k] = weights;
+            neurons += this.layers[k].getSize();
+            weights += this.layers[k].getWeights().length;
+        }
+        setOptimizer(new SgdOptimizer());
+    }
+
+    //Uses the given optimizer for the next updates, starting with a new state
+    public void setOptimizer(Optimizer optimizer) {
+        this.optimizer = optimizer;
+        this.weightState = new float[optimizer.getStateSize()][weights];
+        this.biasState = new float[optimizer.getStateSize()][neurons];
+        this.step = 0;
+    }
+
+    //Continues the updates from a state saved by a training snapshot
+    public void restoreOptimizerState(int step, float[][] weightState, float[][] biasState) {
+        if (weightState.length != optimizer.getStateSize() || biasState.length != optimizer.getStateSize()) {
+            throw new IllegalArgumentException("Expected " + optimizer.getStateSize() + " state arrays for the "
+                    + optimizer.getOptimizerName() + " optimizer");
+        }
+        for (int s = 0; s < weightState.length; s++) {
+            if (weightState[s].length != weights || biasState[s].length != neurons) {
+                throw new IllegalArgumentException("The optimizer state doesn't match the layers");
+            }
+        }
+        this.step = step;
+        this.weightState = weightState;
+        this.biasState = biasState;
+    }
+
+    public Arena newArena() {
+        return new Arena(neurons, weights, getInputLength());
+    }
+
+    //Chooses the input path of the rows of a block from the statistics gathered when it was packed
+    public static InputPath choosePath(DataBlock block) {
+        return block.getInputDensity() <= sparseDensity ? InputPath.SPARSE : InputPath.DENSE;
+    }
+
+    //Unpacks the input of the i-th row of the block into the arena, where the given path reads it
+    public void loadInput(DataBlock block, int i, Arena arena, InputPath path) {
+        if (path == InputPath.SPARSE) {
+            arena.setInputCount(block.copySparseInput(i, arena.getInputIndices(), arena.getInputValues()));
+        } else {
+            block.copyInput(i, arena.getOutputs());
+        }
+    }
+
+    //Feeds forward the input, which must have been written to the first inputLength outputs of the arena
+    public void forward(Arena arena) { forward(arena, InputPath.DENSE); }
+
+    //Feeds forward the input loaded for the given path
+    public void forward(Arena arena, InputPath path) {
+        float[] signals = arena.getSignals();
+        float[] outputs = arena.getOutputs();
+        if (path == InputPath.SPARSE) {
+            layers[1].calculateOutput(arena.getInputIndices(), arena.getInputValues(), arena.getInputCount(), signals,
+                    outputs, offsets[1]);
+        } else {
+            layers[1].calculateOutput(outputs, offsets[0], signals, outputs, offsets[1]);
+        }
+        for (int k = 2; k < layers.length; k++) {
+            layers[k].calculateOutput(outputs, offsets[k - 1], signals, outputs, offsets[k]);
+        }
+    }
+
+    //Propagates the error of the label back from the output layer and adds the deltas of every layer to the arena
+    public void backward(Arena arena, float alpha, float[] label) { backward(arena, InputPath.DENSE, alpha, label); }
+
+    //Same as above for an input loaded for the given path, which is only read by the deltas of the first layer
+    public void backward(Arena arena, InputPath path, float alpha, float[] label) {
+        float[] outputs = arena.getOutputs();
+        float[] errors = arena.getErrors();
+        float[] deltaWeights = arena.getDeltaWeights();
+        float[] deltaBiases = arena.getDeltaBiases();
+
+        int last = layers.length - 1;
+        for (int k = last; k > 0; k--) {
+            if (k == last) {
+                layers[k].calculateErrorsFromLabel(label, outputs, errors, offsets[k]);
+            } else {
+                layers[k].propagateError(layers[k + 1], errors, offsets[k + 1], outputs, errors, offsets[k]);
+            }
+
+            if (k == 1 && path == InputPath.SPARSE) {
+                layers[k].calculateDeltaWeights(alpha, arena.getInputIndices(), arena.getInputValues(),
+                        arena.getInputCount(), errors, offsets[k], deltaWeights, weightOffsets[k], deltaBiases);
+            } else {
+                layers[k].calculateDeltaWeights(alpha, outputs, offsets[k - 1], errors, offsets[k], deltaWeights,
+                        weightOffsets[k], deltaBiases);
+            }
+        }
+    }
+
+    //E{n} = 1/2 * Σ(target - output)² of the sample fed forward in the arena
+    public float calculateInstantError(Arena arena, float[] label) {
+        return layers[layers.length - 1].calculateInstantError(label, arena.getOutputs(), getOutputOffset());
+    }
+
+    //Updates the weights of every layer (the output layer first) with the optimizer, from the deltas of the arena
+    //calculated with the given rate, then clears the deltas
+    public void update(Arena arena, float rate) {
+        float[] deltaWeights = arena.getDeltaWeights();
+        float[] deltaBiases = arena.getDeltaBiases();
+        step++;
+        for (int k = layers.length - 1; k > 0; k--) {
+            optimizer.update(layers[k].getWeights(), deltaWeights, weightOffsets[k], weightState, weightOffsets[k],
+                    layers[k].getWeights().length, rate, step);
+            optimizer.update(layers[k].getBiasWeights(), deltaBiases, offsets[k], biasState, offsets[k],
+                    layers[k].getSize(), rate, step);
+        }
+        arena.clearDeltaWeights();
+    }
+
+    //Offset of the output layer in the arena, its output signals are at outputs[outputOffset .. outputOffset + labelLength - 1]
+    public int getOutputOffset() { return offsets[layers.length - 1]; }
+
+    public int getInputLength() { return layers[0].getSize(); }
+
+    public int getLabelLength() { return layers[layers.length - 1].getSize(); }
+
+    public Optimizer getOptimizer() { return optimizer; }
+
+    public int getOptimizerStep() { return step; }
+
+    public float[][] getWeightState() { return weightState; }
+
+    public float[][] getBiasState() { return biasState; }
+}
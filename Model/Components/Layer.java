@@ -1,57 +1,222 @@
 package Model.Components;
 
-import IO.DataVector;
 import Model.ActivationFunctions.ActivatorFunction;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.SplittableRandom;
 
 public class Layer {
     private List<Perceptron> perceptrons;
     private ActivatorFunction function;
     private Float meanSquareError;
 
-    //Instantiates all the perceptrons of the layer using random weights
+    //Number of perceptrons whose weights are multiplied by every sample of a batch before moving to the next ones
+    //(32 perceptrons of 784 weights are 100 KB, which stays in the L2 cache)
+    private static final int tileColumns = 32;
+
+    private int size;
+    private int inputSize;
+
+    //The weights are stored in a single row-major matrix: row i holds the input weights of perceptron i,
+    //so the weight between perceptron i and the input perceptron j is at weights[i * inputSize + j]
+    private float[] weights;
+    private float[] biasWeights;
+
+    //Instantiates all the perceptrons of the layer using random weights (in the UNIFORM ranges, from a random seed)
     public Layer(int numberOfPerceptrons, Layer previousLayer, ActivatorFunction function) {
+        this(numberOfPerceptrons, previousLayer, function, new WeightInitializer(WeightInitializer.Scheme.UNIFORM, 1),
+                new SplittableRandom().nextLong());
+    }
+
+    //Instantiates all the perceptrons of the layer using weights drawn by the initializer from the seed of the layer
+    public Layer(int numberOfPerceptrons, Layer previousLayer, ActivatorFunction function, WeightInitializer initializer,
+                 long seed) {
         this.perceptrons = new ArrayList<>();
         this.function = function;
+        this.size = numberOfPerceptrons;
+        this.inputSize = previousLayer != null ? previousLayer.getSize() : 0;
 
-        for (int i = 0; i < numberOfPerceptrons; i++) {
-            List<Perceptron> perceptronsFromPreviousLayer = new ArrayList<>();
+        this.weights = new float[size * inputSize];
+        this.biasWeights = new float[size];
+        initializer.initialize(weights, biasWeights, size, inputSize, function, seed);
 
-            if (previousLayer != null) {
-                perceptronsFromPreviousLayer = previousLayer.getPerceptrons();
+        for (int i = 0; i < size; i++) {
+            this.perceptrons.add(new Perceptron(this, i));
+        }
+    }
+
+    //Instantiates a layer with weights that were already trained, the size of the layer is the number of bias weights
+    public Layer(Layer previousLayer, ActivatorFunction function, float[] weights, float[] biasWeights) {
+        this.perceptrons = new ArrayList<>();
+        this.function = function;
+        this.size = biasWeights.length;
+        this.inputSize = previousLayer.getSize();
+
+        if (weights.length != size * inputSize) {
+            throw new IllegalArgumentException("Expected " + size * inputSize + " weights but got " + weights.length);
+        }
+
+        this.weights = weights;
+        this.biasWeights = biasWeights;
+
+        for (int i = 0; i < size; i++) {
+            this.perceptrons.add(new Perceptron(this, i));
+        }
+    }
+
+    //Calculates the output signal of every perceptron based on the output of the previous layer
+    //input{i} = bias{i} + Σ output{j} * weight{i, j}
+    //output{i} = f(input{i})
+    //The output of the previous layer is read from input[inputOffset ..] and the signals of this layer are written to
+    //signals[offset ..] and outputs[offset ..], so the layers of an ExecutionPlan can share the arrays of an Arena
+    public void calculateOutput(float[] input, int inputOffset, float[] signals, float[] outputs, int offset) {
+        for (int i = 0; i < size; i++) {
+            int row = i * inputSize;
+            float signal = biasWeights[i];
+
+            for (int j = 0; j < inputSize; j++) {
+                signal += input[inputOffset + j] * weights[row + j];
             }
 
-            Perceptron perceptron = new Perceptron(perceptronsFromPreviousLayer, this);
+            signals[offset + i] = signal;
+        }
 
-            this.perceptrons.add(perceptron);
+        function.activate(signals, outputs, offset, offset + size);
+    }
+
+    //Same as above with the output of the previous layer given by its nonzero values, values[k] being the output of
+    //the input perceptron indices[k] (in ascending order). The zeros would only add 0 to the sums, so the signals
+    //are the same as the dense ones
+    public void calculateOutput(int[] indices, float[] values, int count, float[] signals, float[] outputs, int offset) {
+        for (int i = 0; i < size; i++) {
+            int row = i * inputSize;
+            float signal = biasWeights[i];
+
+            for (int k = 0; k < count; k++) {
+                signal += values[k] * weights[row + indices[k]];
+            }
+
+            signals[offset + i] = signal;
         }
+
+        function.activate(signals, outputs, offset, offset + size);
     }
 
-    //Sets outputs of the perceptrons using the data from the dataset (this method is only used for input layer)
-    public void setOutput(float[] data) {
-        for (int i = 0; i < perceptrons.size(); i++) {
-            perceptrons.get(i).setOutputSignal(data[i]);
+    //Calculates the output signals of rows samples at once (a matrix-matrix product instead of one matrix-vector
+    //product per sample). inputs holds a row of inputSize signals per sample starting at inputOffset, and signals and
+    //outputs receive a row of size signals per sample starting at 0, before and after the activation function.
+    //The weights are multiplied in tiles of tileColumns perceptrons, and each tile is used for every sample before
+    //moving to the next one, so it is read from the cache instead of the memory. Inside a tile 4 samples are multiplied
+    //by 4 perceptrons at a time, so each weight and input loaded is used 4 times and the 16 sums stay in registers.
+    //Each sum starts with the bias and adds the inputs in order like calculateOutput(), so the results are the same
+    public void calculateOutputBatch(float[] inputs, int inputOffset, float[] signals, float[] outputs, int rows) {
+        for (int tile = 0; tile < size; tile += tileColumns) {
+            int tileEnd = Math.min(tile + tileColumns, size);
+
+            int r = 0;
+            for (; r + 4 <= rows; r += 4) {
+                int i = tile;
+                for (; i + 4 <= tileEnd; i += 4) {
+                    multiplyBlock(inputs, inputOffset, signals, r, i);
+                }
+                for (; i < tileEnd; i++) {
+                    for (int k = r; k < r + 4; k++) {
+                        signals[k * size + i] = multiply(inputs, inputOffset, k, i);
+                    }
+                }
+            }
+            for (; r < rows; r++) {
+                for (int i = tile; i < tileEnd; i++) {
+                    signals[r * size + i] = multiply(inputs, inputOffset, r, i);
+                }
+            }
+        }
+
+        //The function is applied to each sample separately, because some functions (softmax) depend on the whole row
+        for (int r = 0; r < rows; r++) {
+            function.activate(signals, outputs, r * size, (r + 1) * size);
         }
     }
 
-    //Calls calculateOutput() from all perceptrons dataIndexof the layer
-    public void calculateOutput() { this.perceptrons.forEach(Perceptron::calculateOutput); }
+    //input{r, i} = bias{i} + Σ inputs{r, j} * weight{i, j} for the samples r .. r + 3 and the perceptrons i .. i + 3
+    private void multiplyBlock(float[] inputs, int inputOffset, float[] signals, int r, int i) {
+        int input0 = inputOffset + r * inputSize;
+        int input1 = input0 + inputSize;
+        int input2 = input1 + inputSize;
+        int input3 = input2 + inputSize;
+        int row0 = i * inputSize;
+        int row1 = row0 + inputSize;
+        int row2 = row1 + inputSize;
+        int row3 = row2 + inputSize;
+
+        float s00 = biasWeights[i], s01 = biasWeights[i + 1], s02 = biasWeights[i + 2], s03 = biasWeights[i + 3];
+        float s10 = s00, s11 = s01, s12 = s02, s13 = s03;
+        float s20 = s00, s21 = s01, s22 = s02, s23 = s03;
+        float s30 = s00, s31 = s01, s32 = s02, s33 = s03;
 
-    //Calls updateWeights() from all perceptrons of the layer
-    public void updateWeights() { this.perceptrons.forEach(Perceptron::updateWeights); }
+        for (int j = 0; j < inputSize; j++) {
+            float w0 = weights[row0 + j];
+            float w1 = weights[row1 + j];
+            float w2 = weights[row2 + j];
+            float w3 = weights[row3 + j];
+
+            float x = inputs[input0 + j];
+            s00 += x * w0; s01 += x * w1; s02 += x * w2; s03 += x * w3;
+            x = inputs[input1 + j];
+            s10 += x * w0; s11 += x * w1; s12 += x * w2; s13 += x * w3;
+            x = inputs[input2 + j];
+            s20 += x * w0; s21 += x * w1; s22 += x * w2; s23 += x * w3;
+            x = inputs[input3 + j];
+            s30 += x * w0; s31 += x * w1; s32 += x * w2; s33 += x * w3;
+        }
+
+        int out = r * size + i;
+        signals[out] = s00; signals[out + 1] = s01; signals[out + 2] = s02; signals[out + 3] = s03;
+        out += size;
+        signals[out] = s10; signals[out + 1] = s11; signals[out + 2] = s12; signals[out + 3] = s13;
+        out += size;
+        signals[out] = s20; signals[out + 1] = s21; signals[out + 2] = s22; signals[out + 3] = s23;
+        out += size;
+        signals[out] = s30; signals[out + 1] = s31; signals[out + 2] = s32; signals[out + 3] = s33;
+    }
+
+    //input{r, i} for a single sample and perceptron, used for the rows and columns left out of the 4x4 blocks
+    private float multiply(float[] inputs, int inputOffset, int r, int i) {
+        int input = inputOffset + r * inputSize;
+        int row = i * inputSize;
+        float signal = biasWeights[i];
+
+        for (int j = 0; j < inputSize; j++) {
+            signal += inputs[input + j] * weights[row + j];
+        }
+
+        return signal;
+    }
+
+    //Updates the weights and bias of every perceptron by summing them with the deltas accumulated since the last update,
+    //at deltaWeights[weightOffset ..] and deltaBiases[biasOffset ..], the deltas are cleared by the owner of the arrays
+    public void updateWeights(float[] deltaWeights, int weightOffset, float[] deltaBiases, int biasOffset) {
+        for (int k = 0; k < weights.length; k++) {
+            weights[k] += deltaWeights[weightOffset + k];
+        }
+
+        for (int i = 0; i < size; i++) {
+            biasWeights[i] += deltaBiases[biasOffset + i];
+        }
+    }
 
     //Calculates the error using the labels in the dataset.
     //δ{k} = (target{k} - output{k}) * f'(input{k})
     //Where k = 1 .. m  / m = number of perceptrons in the output layer
-    public void calculateErrorsFromLabel(float alpha, float[] label) {
-        for (int i = 0; i < perceptrons.size(); i++) {
-            Float outputSignal = perceptrons.get(i).getOutputSignal();
-            Float inputSignal = perceptrons.get(i).getInputSignal();
-            Float error = (label[i] - outputSignal)  * function.derivative(inputSignal);
-            perceptrons.get(i).calculateDeltaWeights(error, alpha);
+    //The derivative is calculated by the activation function from the output signals. The outputs and errors of this
+    //layer are at offset (the arrays of an Arena), the deltas are calculated by calculateDeltaWeights()
+    public void calculateErrorsFromLabel(float[] label, float[] outputs, float[] errors, int offset) {
+        for (int i = 0; i < size; i++) {
+            errors[offset + i] = label[i] - outputs[offset + i];
         }
+
+        function.applyDerivative(outputs, errors, offset, offset + size);
     }
 
     //Calculates the error using the errors from the upper layer.
@@ -59,77 +224,80 @@ public class Layer {
     //δ{j} = δ_in{j} * f'(input{j})
     //Where k = 1 .. m  / m = number of perceptrons in the upper layer
     //Where j = 1 .. p / p = number of perceptrons in the current layer
-    public void propagateError(float alpha, List<Perceptron> outputPerceptrons) {
-        for (Perceptron p : perceptrons) {
-            Float errorIn = 0.0F;
+    //The errors of the upper layer are at upperErrors[upperOffset ..], the deltas are calculated by calculateDeltaWeights()
+    public void propagateError(Layer upperLayer, float[] upperErrors, int upperOffset, float[] outputs, float[] errors,
+                               int offset) {
+        float[] upperWeights = upperLayer.weights;
 
-            for (Perceptron op : outputPerceptrons) {
-                Float weight = op.getWeights().get(p);
-                errorIn += weight * op.getError();
-            }
-
-            Float error = errorIn * function.derivative(p.getInputSignal());
-
-            p.calculateDeltaWeights(error, alpha);
+        for (int j = 0; j < size; j++) {
+            errors[offset + j] = 0F;
         }
-    }
 
-    //Calculates instant error based on the label in the dataset
-    //E{n} = 1/2 * Σ(target - output)²
-    public Float calculateInstantError(DataVector data) {
-        Float errorSum = 0.0F;
+        //The upper layer matrix is walked row by row so the weights are read contiguously
+        for (int k = 0; k < upperLayer.size; k++) {
+            int row = k * size;
+            float upperError = upperErrors[upperOffset + k];
 
-        for (int i = 0; i < data.getLabel().length; i++) {
-            Float target = data.getLabel()[i];
-            Float output = this.perceptrons.get(i).getOutputSignal();
-            errorSum += (target - output) * (target - output);
+            for (int j = 0; j < size; j++) {
+                errors[offset + j] += upperWeights[row + j] * upperError;
+            }
         }
 
-        return  0.5F * errorSum;
+        function.applyDerivative(outputs, errors, offset, offset + size);
     }
 
-    //Calculates mean square error: E{av} = 1/N * Σ E{n}
-    //Where n = 1 .. N / N = number of entries in the dataset
-    public Float calculateMeanSquareError(List<Float> instantErrors) {
-        Float errorSum = 0.0F;
-        for (Float error : instantErrors) {
-            errorSum += error;
-        }
+    //Calculates the delta weights for each input perceptron
+    //based on their output signal and the error and alpha of the perceptron
+    //Δweight{i, j} = alpha * δ{i} * output{j}
+    //The deltas are summed to the ones of the previous samples of the batch until updateWeights() is called
+    public void calculateDeltaWeights(float alpha, float[] input, int inputOffset, float[] errors, int offset,
+                                      float[] deltaWeights, int weightOffset, float[] deltaBiases) {
+        for (int i = 0; i < size; i++) {
+            int row = weightOffset + i * inputSize;
+            float delta = alpha * errors[offset + i];
 
-        this.meanSquareError = errorSum / instantErrors.size();
-        return this.meanSquareError;
+            for (int j = 0; j < inputSize; j++) {
+                deltaWeights[row + j] += delta * input[inputOffset + j];
+            }
+
+            deltaBiases[offset + i] += delta * 1;
+        }
     }
 
-    //Returns a string array of the output signals of all the perceptrons of the layer
-    public String[] getRawOutput() {
-        String[] output = new String[this.perceptrons.size()];
+    //Same as above with the output of the previous layer given by its nonzero values (like the sparse calculateOutput),
+    //only the deltas of the weights of those inputs change (the zeros would add 0 to the others)
+    public void calculateDeltaWeights(float alpha, int[] indices, float[] values, int count, float[] errors, int offset,
+                                      float[] deltaWeights, int weightOffset, float[] deltaBiases) {
+        for (int i = 0; i < size; i++) {
+            int row = weightOffset + i * inputSize;
+            float delta = alpha * errors[offset + i];
 
-        for (int i = 0; i < this.perceptrons.size(); i++) {
-            output[i] = perceptrons.get(i).getOutputSignal().toString();
-        }
+            for (int k = 0; k < count; k++) {
+                deltaWeights[row + indices[k]] += delta * values[k];
+            }
 
-        return output;
+            deltaBiases[offset + i] += delta * 1;
+        }
     }
 
+    //Calculates instant error based on the label in the dataset, with the output signals at outputs[offset ..]
+    //E{n} = 1/2 * Σ(target - output)²
+    public float calculateInstantError(float[] label, float[] outputs, int offset) {
+        float errorSum = 0.0F;
 
-    //Returns a string array of the output signals of all the perceptron using a threshold
-    //if the output signal of the perceptron is higher than 0.9 then it's rounded up to 1
-    //if the output signal of the perceptron is lower than 0.1 then it's rounded down to 0
-    //if the output signal of the perceptron is between those two values then it's set as -1
-    public String[] getOutput() {
-        String[] output = new String[this.perceptrons.size()];
-
-        for (int i = 0; i < this.perceptrons.size(); i++) {
-            if (this.perceptrons.get(i).getOutputSignal() > 0.9F) {
-                output[i] = "1";
-            } else if (this.perceptrons.get(i).getOutputSignal() < 0.1F){
-                output[i] = "0";
-            } else {
-                output[i] = "-1";
-            }
+        for (int i = 0; i < label.length; i++) {
+            float difference = label[i] - outputs[offset + i];
+            errorSum += difference * difference;
         }
 
-        return output;
+        return  0.5F * errorSum;
+    }
+
+    //Calculates mean square error: E{av} = 1/N * Σ E{n}
+    //Where n = 1 .. N / N = number of entries in the dataset, from the sum of the instant errors and the number of errors summed
+    public Float calculateMeanSquareError(float errorSum, int count) {
+        this.meanSquareError = errorSum / count;
+        return this.meanSquareError;
     }
 
     public List<Perceptron> getPerceptrons() { return this.perceptrons; }
@@ -137,4 +305,12 @@ public class Layer {
     public ActivatorFunction getFunction() { return this.function; }
 
     public Float getMeanSquareError() { return this.meanSquareError; }
+
+    public int getSize() { return this.size; }
+
+    public int getInputSize() { return this.inputSize; }
+
+    public float[] getWeights() { return this.weights; }
+
+    public float[] getBiasWeights() { return this.biasWeights; }
 }
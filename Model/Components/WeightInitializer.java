@@ -0,0 +1,125 @@
+package Model.Components;
+
+import Model.ActivationFunctions.ActivatorFunction;
+import Model.ActivationFunctions.LeakyReLuFunction;
+import Model.ActivationFunctions.ReLuFunction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class WeightInitializer {
+    //Draws the initial weights of a layer from a seed. The weights and the bias of each perceptron (a row of the weight
+    //matrix) come from their own SplittableRandom, seeded with a hash of the seed of the layer and the index of the row,
+    //so a row doesn't depend on the others: the rows are split between threads and the weights of a seed are the same
+    //for any number of threads (and in any order the rows are filled).
+    //UNIFORM keeps the ranges the layers always used, weights in [-0.5, 0.5) and biases in [0, 1).
+    //XAVIER (Glorot) draws the weights in [-limit, limit) with limit = √(6 / (inputs + perceptrons)), which keeps the
+    //variance of the signals through sigmoid, tanh and softmax layers, and HE uses limit = √(6 / inputs) for ReLU layers,
+    //which zero half of their signals. Both start with the biases at 0. AUTO uses HE for ReLU and leaky ReLU layers
+    //and XAVIER for the others
+    public enum Scheme { UNIFORM, XAVIER, HE, AUTO }
+
+    //Layers with fewer weights are filled by the calling thread, starting the threads would take longer
+    private static final int parallelWeights = 1 << 16;
+
+    private Scheme scheme;
+    private int threads;
+
+    public WeightInitializer(Scheme scheme, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads should be at least 1");
+        }
+        this.scheme = scheme;
+        this.threads = threads;
+    }
+
+    //Returns the scheme used for a layer with the given activation function (AUTO is replaced by XAVIER or HE)
+    public Scheme schemeFor(ActivatorFunction function) {
+        if (scheme != Scheme.AUTO) {
+            return scheme;
+        }
+        return function instanceof ReLuFunction || function instanceof LeakyReLuFunction ? Scheme.HE : Scheme.XAVIER;
+    }
+
+    //Fills the weights (row-major, size rows of inputSize weights) and the bias weights of a layer from the seed
+    public void initialize(float[] weights, float[] biasWeights, int size, int inputSize, ActivatorFunction function,
+                           long seed) {
+        Scheme layerScheme = schemeFor(function);
+        if (threads == 1 || weights.length < parallelWeights) {
+            fillRows(weights, biasWeights, 0, size, inputSize, layerScheme, seed);
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "weight-initializer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            int rowsPerThread = (size + threads - 1) / threads;
+            List<Future<?>> futures = new ArrayList<>();
+            for (int from = 0; from < size; from += rowsPerThread) {
+                int rowFrom = from;
+                int rowTo = Math.min(from + rowsPerThread, size);
+                futures.add(executor.submit(() -> fillRows(weights, biasWeights, rowFrom, rowTo, inputSize, layerScheme, seed)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            System.out.println("An error occurred while initializing the weights");
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void fillRows(float[] weights, float[] biasWeights, int from, int to, int inputSize, Scheme scheme,
+                                 long seed) {
+        int size = biasWeights.length;
+        float limit;
+        switch (scheme) {
+            case XAVIER:
+                limit = (float) Math.sqrt(6.0 / (inputSize + size));
+                break;
+            case HE:
+                limit = inputSize > 0 ? (float) Math.sqrt(6.0 / inputSize) : 0F;
+                break;
+            default:
+                limit = 0.5F;
+        }
+
+        for (int i = from; i < to; i++) {
+            SplittableRandom random = new SplittableRandom(rowSeed(seed, i));
+            int row = i * inputSize;
+            for (int j = 0; j < inputSize; j++) {
+                weights[row + j] = (2F * nextFloat(random) - 1F) * limit;
+            }
+            biasWeights[i] = scheme == Scheme.UNIFORM ? nextFloat(random) : 0F;
+        }
+    }
+
+    //Uniform in [0, 1) with the 24 bits of a float mantissa, like Random.nextFloat()
+    private static float nextFloat(SplittableRandom random) {
+        return (random.nextInt() >>> 8) * 0x1p-24F;
+    }
+
+    //Mixes the seed of the layer with the row (the finalizer of MurmurHash3), so the seeds of neighbouring rows
+    //are unrelated and their streams don't overlap
+    private static long rowSeed(long seed, int row) {
+        long z = seed + 0x9E3779B97F4A7C15L * (row + 1L);
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    public Scheme getScheme() { return scheme; }
+}
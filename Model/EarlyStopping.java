@@ -0,0 +1,81 @@
+package Model;
+
+public class EarlyStopping {
+    //Decides when the training stops from the errors of the validations, with one of two rules:
+    //  two increases (the default): stops when the validation error increased on the last two validations,
+    //  after at least four validations (the rule the training always used)
+    //  patience: stops when the best validation error hasn't improved by more than minDelta for patience validations,
+    //  and the weights of the best validation can be restored at the end of the training
+    private int patience;
+    private float minDelta;
+    private boolean restoreBestWeights;
+
+    private int validations;
+    private int sinceBest;
+    private float bestError;
+    private float lastError;
+    private float previousError;
+    private boolean stop;
+
+    private EarlyStopping(int patience, float minDelta, boolean restoreBestWeights) {
+        this.patience = patience;
+        this.minDelta = minDelta;
+        this.restoreBestWeights = restoreBestWeights;
+        reset();
+    }
+
+    public static EarlyStopping twoIncreases() {
+        return new EarlyStopping(0, 0F, false);
+    }
+
+    public static EarlyStopping patience(int patience, float minDelta, boolean restoreBestWeights) {
+        if (patience < 1 || minDelta < 0F) {
+            throw new IllegalArgumentException("Expected patience >= 1 and minDelta >= 0");
+        }
+        return new EarlyStopping(patience, minDelta, restoreBestWeights);
+    }
+
+    //Forgets the validations of the previous training
+    public void reset() {
+        this.validations = 0;
+        this.sinceBest = 0;
+        this.bestError = Float.POSITIVE_INFINITY;
+        this.lastError = Float.NaN;
+        this.previousError = Float.NaN;
+        this.stop = false;
+    }
+
+    //Adds the error of a validation, returns true when it is the best error so far (by more than minDelta).
+    //A NaN error is never the best one
+    public boolean add(float error) {
+        boolean improved = error < bestError - minDelta;
+        if (improved) {
+            bestError = error;
+            sinceBest = 0;
+        } else {
+            sinceBest++;
+        }
+
+        if (patience == 0) {
+            stop = validations >= 3 && error > lastError && lastError > previousError;
+        } else {
+            stop = sinceBest >= patience;
+        }
+        previousError = lastError;
+        lastError = error;
+        validations++;
+        return improved;
+    }
+
+    public boolean shouldStop() { return stop; }
+
+    public boolean isRestoreBestWeights() { return restoreBestWeights; }
+
+    public float getBestError() { return bestError; }
+
+    @Override
+    public String toString() {
+        return patience == 0 ? "two increases" : "patience " + patience + ", min delta " + minDelta
+                + (restoreBestWeights ? ", restore best weights" : "");
+    }
+}
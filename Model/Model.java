@@ -1,164 +1,611 @@
 package Model;
 
+import Evaluation.Evaluation;
+import Evaluation.Evaluator;
+import IO.DataBlock;
 import IO.Dataset;
 import IO.DataVector;
+import IO.ModelCheckpoint;
+import IO.SnapshotWriter;
+import IO.TrainingSnapshot;
+import IO.TrainingSource;
 import IO.Output;
 import Model.ActivationFunctions.ActivatorFunction;
 import Model.ActivationFunctions.ReLuFunction;
 import Model.ActivationFunctions.SigmoidFunction;
+import Model.Components.Arena;
+import Model.Components.ExecutionPlan;
 import Model.Components.Layer;
+import Model.Components.WeightInitializer;
+import Model.Optimizers.ConstantSchedule;
+import Model.Optimizers.LearningRateSchedule;
+import Model.Optimizers.Optimizer;
+import Model.Optimizers.SgdOptimizer;
+import Metrics.Counter;
+import Metrics.Histogram;
+import Metrics.Metrics;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+public class Model implements AutoCloseable {
+    //Metrics of the training and the inference, only recorded with -Dann.metrics=true. The time of each phase is
+    //summed in local variables and added to the counters once per epoch, so the samples don't touch shared memory
+    private static final Counter trainedSamples = Metrics.counter("ann_train_samples_total", "Samples trained");
+    private static final Histogram epochLatency = Metrics.histogram("ann_epoch_seconds", "Time of an epoch");
+    private static final Counter forwardTime = Metrics.timeCounter("ann_train_forward_seconds_total",
+            "Time spent feeding the samples forward during the training");
+    private static final Counter backpropagationTime = Metrics.timeCounter("ann_train_backpropagation_seconds_total",
+            "Time spent propagating the errors back and calculating the instant errors");
+    private static final Counter updateTime = Metrics.timeCounter("ann_train_update_seconds_total",
+            "Time spent updating the weights");
+    private static final Counter allocatedBytes = Metrics.counter("ann_train_allocated_bytes_total",
+            "Bytes allocated by the training thread during the epochs");
+    private static final Histogram inferenceLatency = Metrics.histogram("ann_inference_seconds",
+            "Time of a call to predict()");
+    private static final Histogram batchInferenceLatency = Metrics.histogram("ann_batch_inference_seconds",
+            "Time of a call to predictBatch()");
+    private static final Counter batchInferenceSamples = Metrics.counter("ann_batch_inference_samples_total",
+            "Samples scored by predictBatch()");
+
+    static {
+        Metrics.gauge("ann_train_samples_per_second", "Samples trained per second of epoch",
+                () -> trainedSamples.get() / (epochLatency.getSum() * 1e-9));
+        Metrics.gauge("ann_train_allocation_bytes_per_second", "Bytes allocated by the training thread per second of epoch",
+                () -> allocatedBytes.get() / (epochLatency.getSum() * 1e-9));
+    }
 
-public class Model {
     private Dataset dataset;
     private Output output;
-
-    private Layer inputLayer;
-    private Layer hiddenLayer;
-    private Layer outputLayer;
+    //Samples used for the training, the dataset unless another source is set (the dataset is still used for the tests)
+    private TrainingSource trainingSource;
+
+    //Layers of the network, from the input layer to the output layer, compiled into the execution plan used by the
+    //training and the inference. The arena holds the signals, errors and deltas of every layer for the training
+    //on a single thread
+    private List<Layer> layers;
+    private ExecutionPlan plan;
+    private Arena arena;
+
+    //Arena reused by every call to predict(), so the inference doesn't allocate anything
+    private Arena inferenceArena;
+    //Buffers reused by every call to predictBatch(), which feeds the samples forward batchBlock samples at a time
+    //(256 samples of 256 hidden signals are 256 KB, so the signals of a block stay in the cache between the layers).
+    //batchSignals[k] and batchOutputs[k] hold the signals of the layer k (the input layer has none)
+    private static final int batchBlock = 256;
+    private float[][] batchSignals;
+    private float[][] batchOutputs;
+    //Label of the sample being trained, unpacked from the block
+    private float[] label;
 
     private Float alpha = 0.35F;
-    private int nOfHiddenPerceptrons = 12;
-    private ActivatorFunction hiddenLayerFunction = new ReLuFunction();
+    //The optimizer updates the weights from the deltas of each batch, and the schedule changes the learning rate
+    //(alpha on the first epoch) at the start of each epoch
+    private Optimizer optimizer = new SgdOptimizer();
+    private LearningRateSchedule schedule = new ConstantSchedule();
+    //Number of perceptrons and activation function of each hidden layer, from the first one to the last one
+    private int[] hiddenLayerSizes = {12};
+    private ActivatorFunction[] hiddenLayerFunctions = {new ReLuFunction()};
     private ActivatorFunction outputLayerFunction = new SigmoidFunction();
     private int maxEpochs = 5000;
-
-    // ANSI escape sequences for colorful outputs
-    final String reset_style = "\033[m";
-    final String bold_yellow = "\033[1;93m";
-    final String bold_red = "\033[1;91m";
-    final String redbg = "\033[1;30;101m";
-    final String greenbg = "\033[1;30;102m";
+    //With the early stop on, the model is validated every validationEpochs epochs on validationFraction of the test set
+    //by a ValidationEngine, while the next epoch is trained, and the early stopping decides when the training stops
+    private EarlyStopping earlyStopping = EarlyStopping.twoIncreases();
+    private int validationEpochs = 1;
+    private float validationFraction = 1F;
+    //Number of samples whose deltas are summed before the weights are updated (1 is online training)
+    private int batchSize = 1;
+    //Number of threads that share each batch (and fill the initial weights), and the seed used for the initial weights
+    //and the shuffling of the train set (when null a different seed is used on every training)
+    private int threads = 1;
+    private Long seed = null;
+    private WeightInitializer.Scheme weightInitialization = WeightInitializer.Scheme.UNIFORM;
+    //Each epoch shuffles the train set with a generator derived from the shuffle seed and the epoch number,
+    //so the order of any epoch can be reproduced without keeping the state of a generator
+    private long shuffleSeed;
+    private int shuffleEpoch;
+    private ParallelTrainer trainer;
+    //Sum and count of the instant errors of every epoch run so far, used to calculate the mean error
+    private float instantErrorSum;
+    private int instantErrorCount;
+    //File where the trained model is saved at the end of trainModel() (when null the model isn't saved)
+    private String checkpointPath = "outputs/model.ckpt";
+    //A snapshot of the training is written every snapshotEpochs epochs and/or every snapshotSeconds seconds
+    //(0 disables each condition), and trainModel() continues from resumePath when it is set
+    private int snapshotEpochs = 0;
+    private long snapshotSeconds = 0;
+    private String snapshotPath = "outputs/training.snapshot";
+    private String resumePath = null;
+
+    //The training only publishes its state here, the progress is shown by another thread
+    private TrainingProgress progress = new TrainingProgress();
 
     //Instantiates the model using the data specified when running the program
     public Model(Dataset dataset, Output output) {
         this.dataset = dataset;
         this.output = output;
+        this.trainingSource = dataset;
     }
 
     //Trains the model
     public long trainModel(boolean earlyStop, float minError) {        //Initial configurations
-        this.initializeLayers();
-        output.printInitialParams(inputLayer, hiddenLayer, outputLayer, alpha);
+        TrainingSnapshot resumed = resumePath != null ? TrainingSnapshot.read(resumePath) : null;
+        if (resumed != null) {
+            this.resume(resumed);
+        } else {
+            this.initialize();
+        }
+        output.printInitialParams(layers, alpha, optimizer, schedule, weightInitialization);
         long startTime = System.currentTimeMillis();
 
-        int epoch = 0;
+        int epoch = resumed != null ? resumed.getEpoch() : 0;
         boolean stop = false;
-        Float meanError = 1F;
-        List<Float> validationErrors = new ArrayList<>();
-        List<Float> instantErrors = new ArrayList<>();
+        Float meanError = resumed != null ? resumed.getMeanError() : 1F;
+        List<Float> validationErrors = resumed != null ? resumed.getValidationErrors() : new ArrayList<>();
+        this.instantErrorSum = resumed != null ? resumed.getInstantErrorSum() : 0F;
+        this.instantErrorCount = resumed != null ? resumed.getInstantErrorCount() : 0;
+
+        SnapshotWriter snapshotWriter = snapshotEpochs > 0 || snapshotSeconds > 0 ? new SnapshotWriter() : null;
+        long lastSnapshot = System.nanoTime();
+        long snapshotPauses = 0;
+        long longestSnapshotPause = 0;
+
+        //The validation of an epoch runs on the thread of the validation engine while the next epoch is trained,
+        //so the stop is decided one epoch late: that last epoch is dropped, its weights are replaced by the validated
+        //ones and its error isn't added to the mean error, written to the output files or published to the progress.
+        //The state of the optimizer and the shuffle of the train set are not rolled back, as the training ends there
+        ValidationEngine validation = earlyStop ? new ValidationEngine(layers, dataset.getTestSet(), validationFraction) : null;
+        earlyStopping.reset();
+        for (Float validationError : validationErrors) {
+            earlyStopping.add(validationError);
+        }
+        if (validation != null && resumed != null && resumed.getKeptWeights() != null) {
+            validation.setKeptWeights(resumed.getKeptWeights(), resumed.getKeptBiasWeights());
+        }
 
+        progress.start(maxEpochs, minError, earlyStop);
         //Iterates while stop conditions are not met (maximum number of epochs or the mean error)
         while (epoch <= maxEpochs && !stop && meanError > minError) {
-            //Iterates through every data in the dataset and does the feedforward, backpropagation and update weights steps
-            for (DataVector data : dataset.getTrainSet()) {
-                feedFoward(data);
-                backPropagation(data);
-                updateWeights();
-                instantErrors.add(outputLayer.calculateInstantError(data));
-            }
-
-            //Calculates mean error to check early stop condition and increments number os epochs run
-            meanError = outputLayer.calculateMeanSquareError(instantErrors);
-            output.printTrainStep(hiddenLayer, outputLayer, meanError, epoch);
+            float previousErrorSum = instantErrorSum;
+            int previousErrorCount = instantErrorCount;
+            trainEpoch();
 
             //When the early stop param is true the model is validated to check
             //if it should stop the training early
-            if (earlyStop) {
-                Float validationError = testModel(true);
-                validationErrors.add(validationError);
-
-                //To check the early stop it is checked whereas the validation error
-                //has increased in the last two epochs
-                if (epoch > 2
-                        && validationErrors.get(epoch) > validationErrors.get(epoch - 1)
-                        && validationErrors.get(epoch - 1) > validationErrors.get(epoch - 2)) {
-                    stop = true;
+            if (validation != null) {
+                if (validation.isPending()) {
+                    stop = addValidation(validation, validationErrors);
+                    if (stop) {
+                        validation.restoreValidatedWeights(layers);
+                        instantErrorSum = previousErrorSum;
+                        instantErrorCount = previousErrorCount;
+                        getOutputLayer().calculateMeanSquareError(instantErrorSum, instantErrorCount);
+                        progress.publish(epoch - 1, meanError, validationErrors);
+                        break;
+                    }
+                }
+                if ((epoch + 1) % validationEpochs == 0) {
+                    validation.submit(layers, epoch);
                 }
-            }
-            if ((epoch % 10) == 0) {
-                printEpochInfo(epoch, meanError, minError, earlyStop, validationErrors);
             }
 
+            //Calculates mean error to check early stop condition and increments number os epochs run
+            meanError = getOutputLayer().calculateMeanSquareError(instantErrorSum, instantErrorCount);
+            output.printTrainStep(layers, meanError, epoch);
+            progress.publish(epoch, meanError, validationErrors);
+
             epoch++;
+
+            //The training thread only copies the state, the snapshot is written by the snapshot writer thread.
+            //If the previous snapshot is still being written this one is skipped instead of waiting for it
+            if (snapshotWriter != null && !stop && isSnapshotDue(epoch, lastSnapshot)) {
+                if (snapshotWriter.isBusy()) {
+                    snapshotWriter.skip();
+                } else {
+                    //The validation of the epoch just trained is awaited first, so the snapshot has its error and the
+                    //weights it kept. When it stops the training the weights are the validated ones and no snapshot is taken
+                    long pauseStart = System.nanoTime();
+                    if (validation != null && validation.isPending()) {
+                        stop = addValidation(validation, validationErrors);
+                        progress.publish(epoch - 1, meanError, validationErrors);
+                    }
+                    if (!stop) {
+                        TrainingSnapshot snapshot = TrainingSnapshot.take(epoch, meanError, shuffleSeed, instantErrorSum,
+                                instantErrorCount, validationErrors, layers,
+                                validation != null ? validation.getKeptWeights() : null,
+                                validation != null ? validation.getKeptBiasWeights() : null, plan);
+                        snapshotWriter.submit(snapshot, snapshotPath);
+                        lastSnapshot = System.nanoTime();
+
+                        long pause = lastSnapshot - pauseStart;
+                        snapshotPauses += pause;
+                        longestSnapshotPause = Math.max(longestSnapshotPause, pause);
+                    }
+                }
+            }
+        }
+        if (validation != null) {
+            //The last epoch trained is validated before the training ends
+            if (validation.isPending()) {
+                addValidation(validation, validationErrors);
+                progress.publish(epoch - 1, meanError, validationErrors);
+            }
+            if (earlyStopping.isRestoreBestWeights() && validation.hasKeptWeights()) {
+                validation.restoreKeptWeights(layers);
+            }
+            validation.shutdown();
+        }
+        progress.finish();
+        close();
+        if (snapshotWriter != null) {
+            snapshotWriter.close();
+            int taken = snapshotWriter.getWritten();
+            System.out.printf("%nSnapshots: %d written, %d skipped, mean pause %.3f ms, longest pause %.3f ms%n",
+                    taken, snapshotWriter.getSkipped(), taken > 0 ? snapshotPauses / 1e6 / taken : 0.0, longestSnapshotPause / 1e6);
         }
-        printEpochInfo(epoch - 1, meanError, minError, earlyStop, validationErrors);
 
         //Calculates the duration for the training
         long duration = System.currentTimeMillis() - startTime;
-        output.printFinalWeights(hiddenLayer, outputLayer);
+        output.printFinalWeights(layers);
+        if (checkpointPath != null) {
+            saveCheckpoint(checkpointPath);
+        }
 
         return duration;
     }
 
-    //Tests the model
-    public Float testModel(boolean isValidation) {
-        //Initial configuration of Output class attributes
-        Output.setCorrectResponses(0);
-        Output.setWrongResponses(0);
-        Output.initializeConfusionMatrix(dataset.getLabelLength());
+    //Instantiates a model with the topology and weights of a saved checkpoint, ready to be used by predict()
+    public static Model fromCheckpoint(String path) {
+        Model model = new Model(null, null);
+        model.loadCheckpoint(path);
+        return model;
+    }
+
+    //Saves the topology and weights of the model in a binary checkpoint
+    public void saveCheckpoint(String path) {
+        ModelCheckpoint.write(path, layers);
+    }
+
+    //Replaces the layers of the model with the ones saved in a checkpoint
+    public void loadCheckpoint(String path) {
+        setLayers(ModelCheckpoint.read(path));
+    }
+
+    //Initializes the layers with random weights (drawn from the seed when it is set), the state of the optimizer
+    //and the parallel trainer when more than one thread is used
+    public void initialize() {
+        //The shuffle seed and the seed of each layer are drawn one after the other from the seed of the model
+        SplittableRandom random = seed != null ? new SplittableRandom(seed) : new SplittableRandom();
+        this.shuffleSeed = random.nextLong();
+        this.initializeLayers(random);
+        this.shuffleEpoch = 0;
+        plan.setOptimizer(optimizer);
+
+        close();
+        this.trainer = threads > 1 ? new ParallelTrainer(plan, threads) : null;
+    }
+
+    //Restores the weights, the state of the optimizer and the shuffle seed of a training snapshot
+    private void resume(TrainingSnapshot snapshot) {
+        setLayers(snapshot.getLayers());
+        this.shuffleSeed = snapshot.getShuffleSeed();
+        this.shuffleEpoch = snapshot.getEpoch();
+        plan.setOptimizer(optimizer);
+        if (snapshot.getOptimizerName() != null) {
+            if (!snapshot.getOptimizerName().equals(optimizer.getOptimizerName())) {
+                throw new IllegalArgumentException("The snapshot was trained with the " + snapshot.getOptimizerName()
+                        + " optimizer but the model uses " + optimizer.getOptimizerName());
+            }
+            plan.restoreOptimizerState(snapshot.getOptimizerStep(), snapshot.getWeightState(), snapshot.getBiasState());
+        }
+
+        close();
+        this.trainer = threads > 1 ? new ParallelTrainer(plan, threads) : null;
+    }
+
+    //Stops the threads of the parallel trainer, which initialize() starts when more than one thread is used.
+    //trainModel() closes the model when the training ends, the next initialize() or trainModel() starts them again
+    @Override
+    public void close() {
+        if (trainer != null) {
+            trainer.shutdown();
+            trainer = null;
+        }
+    }
+
+    //Waits for the validation running on the engine and adds its error, returns true when the training should stop
+    private boolean addValidation(ValidationEngine validation, List<Float> validationErrors) {
+        float validationError = validation.await();
+        output.printTestError(validationError);
+        validationErrors.add(validationError);
+
+        if (earlyStopping.add(validationError) && earlyStopping.isRestoreBestWeights()) {
+            validation.keepValidatedWeights();
+        }
+        return earlyStopping.shouldStop();
+    }
+
+    private boolean isSnapshotDue(int epoch, long lastSnapshot) {
+        return (snapshotEpochs > 0 && epoch % snapshotEpochs == 0)
+                || (snapshotSeconds > 0 && System.nanoTime() - lastSnapshot >= snapshotSeconds * 1_000_000_000L);
+    }
+
+    //Runs a single epoch over the shuffled train set and adds the instant error of each sample to the sum of the
+    //instant errors, returns the number of samples trained. The train set is read block by block from the training
+    //source: the weights are updated at the end of each batch and after the last (possibly incomplete) batch of a block.
+    //The deltas are calculated with the learning rate the schedule gives for the epoch
+    public int trainEpoch() {
+        long epochStart = Metrics.enabled ? System.nanoTime() : 0;
+        long allocatedStart = Metrics.enabled ? Metrics.allocatedBytes() : 0;
+        long forward = 0;
+        long backpropagation = 0;
+        long update = 0;
+
+        float rate = schedule.getRate(alpha, shuffleEpoch);
+        trainingSource.startEpoch(new Random(shuffleSeed + 0x9E3779B97F4A7C15L * shuffleEpoch++));
+        float[] batchErrors = new float[0];
+        int samples = 0;
+
+        DataBlock block;
+        while ((block = trainingSource.nextBlock()) != null) {
+            if (trainer != null) {
+                //Each batch is split between the threads of the trainer, which also updates the weights
+                if (batchErrors.length < block.size()) {
+                    batchErrors = new float[block.size()];
+                }
+                for (int from = 0; from < block.size(); from += batchSize) {
+                    trainer.trainBatch(block, from, Math.min(from + batchSize, block.size()), rate, batchErrors);
+                }
+                for (int i = 0; i < block.size(); i++) {
+                    instantErrorSum += batchErrors[i];
+                }
+            } else {
+                //Iterates through every sample in the block and does the feedforward and backpropagation steps,
+                //the input is unpacked straight into the output signals of the input layer (the start of the arena),
+                //or as a list of its nonzero inputs when the block is sparse enough
+                ExecutionPlan.InputPath path = ExecutionPlan.choosePath(block);
+                for (int i = 0; i < block.size(); i++) {
+                    plan.loadInput(block, i, arena, path);
+                    block.copyLabel(i, label);
+                    long start = Metrics.enabled ? System.nanoTime() : 0;
+                    plan.forward(arena, path);
+                    long forwarded = Metrics.enabled ? System.nanoTime() : 0;
+                    plan.backward(arena, path, rate, label);
+                    instantErrorSum += plan.calculateInstantError(arena, label);
+                    if (Metrics.enabled) {
+                        long propagated = System.nanoTime();
+                        forward += forwarded - start;
+                        backpropagation += propagated - forwarded;
+                    }
+
+                    if ((i + 1) % batchSize == 0 || i == block.size() - 1) {
+                        long updateStart = Metrics.enabled ? System.nanoTime() : 0;
+                        plan.update(arena, rate);
+                        if (Metrics.enabled) {
+                            update += System.nanoTime() - updateStart;
+                        }
+                    }
+                }
+            }
+            samples += block.size();
+        }
+
+        instantErrorCount += samples;
+        if (Metrics.enabled) {
+            epochLatency.record(System.nanoTime() - epochStart);
+            trainedSamples.add(samples);
+            forwardTime.add(forward);
+            backpropagationTime.add(backpropagation);
+            updateTime.add(update);
+            if (allocatedStart >= 0) {
+                allocatedBytes.add(Metrics.allocatedBytes() - allocatedStart);
+            }
+        }
+        return samples;
+    }
+
+    //Returns the mean square error of the model on the test set, without writing any output.
+    //Unlike testModel() it doesn't use the shared counters of the Output, so models can be validated in parallel
+    public float validate() {
+        float errorSum = 0F;
+        for (DataVector test : dataset.getTestSet()) {
+            feedFoward(test);
+            errorSum += plan.calculateInstantError(arena, test.getLabel());
+        }
+        return getOutputLayer().calculateMeanSquareError(errorSum, dataset.getTestSet().size());
+    }
 
-        List<Float> instantErrors = new ArrayList<>();
+    //Tests the model, the responses are counted in an Evaluation of this test only
+    public Float testModel(boolean isValidation) {
+        Evaluation evaluation = new Evaluation(plan.getLabelLength());
 
         //Iterates through every data in the test dataset using the feedforward method
         // (in the test, the model has already been trained and the weights have already been determined,
         // so only the feedforward step is run to get the outputs)
+        int outputOffset = plan.getOutputOffset();
         for (DataVector test : dataset.getTestSet()) {
             feedFoward(test);
-            instantErrors.add(outputLayer.calculateInstantError(test));
+            boolean correct = evaluation.add(arena.getOutputs(), outputOffset, test.getLabel(),
+                    plan.calculateInstantError(arena, test.getLabel()));
 
-            if (!isValidation) output.printModelOutput(outputLayer, test);
+            if (!isValidation) {
+                float[] outputSignals = Arrays.copyOfRange(arena.getOutputs(), outputOffset, outputOffset + plan.getLabelLength());
+                output.printModelOutput(outputSignals, test, correct);
+            }
         }
 
-        Float meanError = outputLayer.calculateMeanSquareError(instantErrors);
+        Float meanError = getOutputLayer().calculateMeanSquareError(evaluation.getErrorSum(), evaluation.getCount());
         output.printTestError(meanError);
 
         if (!isValidation) {
-            output.printFinalResult(meanError);
-            output.printConfusionMatrix();
+            output.printFinalResult(meanError, evaluation);
+            output.printConfusionMatrix(evaluation);
         }
         return meanError;
     }
 
+    //Scores the test set on the given number of threads and returns the results, without writing any output.
+    //Each call counts its own responses, so several models can be evaluated at the same time
+    public Evaluation evaluate(int threads) {
+        Evaluator evaluator = new Evaluator(layers, threads);
+        try {
+            return evaluator.evaluate(dataset.getTestSet());
+        } finally {
+            evaluator.shutdown();
+        }
+    }
+
+    //Feeds the input forward through the trained model and copies the output signals to output.
+    //Returns the index of the strongest output when it is above the 0.9 threshold, or -1 when no output is.
+    //This method doesn't allocate any memory, but it reuses the same buffers on every call
+    //so it must not be called by more than one thread at the same time
+    public int predict(float[] input, float[] output) {
+        long start = Metrics.enabled ? System.nanoTime() : 0;
+        float[] outputSignals = inferenceArena.getOutputs();
+        System.arraycopy(input, 0, outputSignals, 0, plan.getInputLength());
+        plan.forward(inferenceArena);
+
+        int offset = plan.getOutputOffset();
+        int best = 0;
+        for (int i = 0; i < plan.getLabelLength(); i++) {
+            output[i] = outputSignals[offset + i];
+            if (outputSignals[offset + i] > outputSignals[offset + best]) {
+                best = i;
+            }
+        }
+
+        if (Metrics.enabled) {
+            inferenceLatency.record(System.nanoTime() - start);
+        }
+        return outputSignals[offset + best] > 0.9F ? best : -1;
+    }
+
+    //Feeds rows samples forward at once: inputs holds the inputs of the samples one after the other (rows x inputLength,
+    //row-major), the output signals of the sample r are copied to outputs[r * labelLength .. (r + 1) * labelLength - 1]
+    //and its class to classes[r], chosen like predict() does (the strongest output, or -1 when it is below 0.9).
+    //Each layer multiplies a block of samples by its weights with a matrix-matrix product, so the weights are read
+    //once per block instead of once per sample, which scores many samples much faster than calling predict() for each.
+    //The outputs are the same predict() returns. Like predict() it doesn't allocate any memory,
+    //and it must not be called by more than one thread at the same time
+    public void predictBatch(float[] inputs, int rows, float[] outputs, int[] classes) {
+        int inputLength = plan.getInputLength();
+        int labelLength = plan.getLabelLength();
+        int last = layers.size() - 1;
+        if (rows < 0 || inputs.length < rows * inputLength || outputs.length < rows * labelLength || classes.length < rows) {
+            throw new IllegalArgumentException("Expected " + rows + " rows of " + inputLength + " inputs, "
+                    + labelLength + " outputs and a class");
+        }
+
+        long start = Metrics.enabled ? System.nanoTime() : 0;
+        for (int from = 0; from < rows; from += batchBlock) {
+            int block = Math.min(batchBlock, rows - from);
+            layers.get(1).calculateOutputBatch(inputs, from * inputLength, batchSignals[1], batchOutputs[1], block);
+            for (int k = 2; k <= last; k++) {
+                layers.get(k).calculateOutputBatch(batchOutputs[k - 1], 0, batchSignals[k], batchOutputs[k], block);
+            }
+            float[] blockOutputs = batchOutputs[last];
+            System.arraycopy(blockOutputs, 0, outputs, from * labelLength, block * labelLength);
+
+            for (int r = 0; r < block; r++) {
+                int row = r * labelLength;
+                int best = 0;
+                for (int i = 1; i < labelLength; i++) {
+                    if (blockOutputs[row + i] > blockOutputs[row + best]) {
+                        best = i;
+                    }
+                }
+                classes[from + r] = blockOutputs[row + best] > 0.9F ? best : -1;
+            }
+        }
+
+        if (Metrics.enabled) {
+            batchInferenceLatency.record(System.nanoTime() - start);
+            batchInferenceSamples.add(rows);
+        }
+    }
+
     //Initializes each layer with the corresponding parameters
-    private void initializeLayers() {
-        this.inputLayer = new Layer(dataset.getInputLength(), null, null);
-        this.hiddenLayer = new Layer(nOfHiddenPerceptrons, this.inputLayer, hiddenLayerFunction);
-        this.outputLayer = new Layer(dataset.getLabelLength(), this.hiddenLayer, outputLayerFunction);
+    private void initializeLayers(SplittableRandom random) {
+        WeightInitializer initializer = new WeightInitializer(weightInitialization, threads);
+        List<Layer> layers = new ArrayList<>();
+        layers.add(new Layer(trainingSource.getInputLength(), null, null, initializer, random.nextLong()));
+        for (int k = 0; k < hiddenLayerSizes.length; k++) {
+            layers.add(new Layer(hiddenLayerSizes[k], layers.get(k), hiddenLayerFunctions[k], initializer, random.nextLong()));
+        }
+        layers.add(new Layer(trainingSource.getLabelLength(), layers.get(layers.size() - 1), outputLayerFunction,
+                initializer, random.nextLong()));
+        setLayers(layers);
+    }
+
+    //Uses the given layers (the input layer first) and compiles them into the execution plan,
+    //then allocates the arenas and the buffers of the inference
+    private void setLayers(List<Layer> layers) {
+        this.layers = layers;
+        this.plan = new ExecutionPlan(layers);
+        this.hiddenLayerSizes = new int[layers.size() - 2];
+        this.hiddenLayerFunctions = new ActivatorFunction[layers.size() - 2];
+        for (int k = 1; k < layers.size() - 1; k++) {
+            hiddenLayerSizes[k - 1] = layers.get(k).getSize();
+            hiddenLayerFunctions[k - 1] = layers.get(k).getFunction();
+        }
+        this.outputLayerFunction = getOutputLayer().getFunction();
+
+        this.arena = plan.newArena();
+        this.inferenceArena = plan.newArena();
+        this.batchSignals = new float[layers.size()][];
+        this.batchOutputs = new float[layers.size()][];
+        for (int k = 1; k < layers.size(); k++) {
+            batchSignals[k] = new float[batchBlock * layers.get(k).getSize()];
+            batchOutputs[k] = new float[batchBlock * layers.get(k).getSize()];
+        }
+        this.label = new float[plan.getLabelLength()];
     }
 
     //Propagates the input signal through the next layers, applying the weights for each perceptron
     private void feedFoward(DataVector data) {
-        this.inputLayer.setOutput(data.getInput());
-        this.hiddenLayer.calculateOutput();
-        this.outputLayer.calculateOutput();
+        System.arraycopy(data.getInput(), 0, arena.getOutputs(), 0, plan.getInputLength());
+        plan.forward(arena);
     }
 
-    //Propagates the error through to the previous layers, determining the weights and bias corrections
-    private void backPropagation(DataVector data) {
-        this.outputLayer.calculateErrorsFromLabel(alpha, data.getLabel());
-        this.hiddenLayer.propagateError(alpha, outputLayer.getPerceptrons());
-    }
+    //Layers of the network, the input layer first and the output layer last
+    public List<Layer> getLayers() { return this.layers; }
 
-    //Updates the weights and bias for each layer
-    private void updateWeights() {
-        this.outputLayer.updateWeights();
-        this.hiddenLayer.updateWeights();
-    }
+    public Layer getOutputLayer() { return this.layers.get(this.layers.size() - 1); }
 
-    public Layer getHiddenLayer() { return this.hiddenLayer; }
+    public int getInputLength() { return plan.getInputLength(); }
 
-    public Layer getOutputLayer() { return this.outputLayer; }
+    public int getLabelLength() { return plan.getLabelLength(); }
 
     public void setAlpha(Float alpha) { this.alpha = alpha; }
 
+    //Sets the number of perceptrons of every hidden layer
     public void setNOfHiddenPerceptrons(int nOfHiddenPerceptrons) {
-        this.nOfHiddenPerceptrons = nOfHiddenPerceptrons;
+        if (nOfHiddenPerceptrons < 1) {
+            throw new IllegalArgumentException("The number of hidden perceptrons should be at least 1");
+        }
+        Arrays.fill(hiddenLayerSizes, nOfHiddenPerceptrons);
     }
 
+    //Sets the activation function of every hidden layer
     public void setHiddenLayerFunction(ActivatorFunction hiddenLayerFunction) {
-        this.hiddenLayerFunction = hiddenLayerFunction;
+        Arrays.fill(hiddenLayerFunctions, hiddenLayerFunction);
+    }
+
+    //Sets the number of hidden layers, the number of perceptrons of each one and their activation functions,
+    //from the first hidden layer to the last one (the arrays can be empty to connect the input to the output layer)
+    public void setHiddenLayers(int[] sizes, ActivatorFunction[] functions) {
+        if (sizes.length != functions.length) {
+            throw new IllegalArgumentException("Expected a function for each of the " + sizes.length + " hidden layers");
+        }
+        for (int size : sizes) {
+            if (size < 1) {
+                throw new IllegalArgumentException("The number of hidden perceptrons should be at least 1");
+            }
+        }
+        this.hiddenLayerSizes = sizes.clone();
+        this.hiddenLayerFunctions = functions.clone();
     }
 
     public void setOutputLayerFunction(ActivatorFunction outputLayerFunction) {
@@ -167,27 +614,77 @@ public class Model {
 
     public Float getAlpha() { return alpha; }
 
-    private void clearScreen() {
-        System.out.print("\033[2J\033[1;1H");
+    //Sets the optimizer used by the next training (SGD by default), its state starts again when the model is initialized
+    public void setOptimizer(Optimizer optimizer) { this.optimizer = optimizer; }
+
+    public Optimizer getOptimizer() { return optimizer; }
+
+    //Sets how the learning rate changes from alpha over the epochs (constant by default)
+    public void setLearningRateSchedule(LearningRateSchedule schedule) { this.schedule = schedule; }
+
+    public LearningRateSchedule getLearningRateSchedule() { return schedule; }
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size should be at least 1");
+        }
+        this.batchSize = batchSize;
     }
 
-    private void printEpochInfo(int epoch, float meanError, float minError, boolean earlyStop, List<Float> validationErrors) {
-        clearScreen();
-        System.out.println("Epoch: " + (epoch != maxEpochs ? greenbg : redbg) + epoch + "/" + maxEpochs + reset_style);
-        System.out.println();
+    public int getBatchSize() { return batchSize; }
 
-        if (minError > 0F) {
-            String operator = meanError > minError ? " > " : " < ";
-            System.out.println("Mean error: " + (meanError > minError ? greenbg : redbg) + meanError  + operator + minError + reset_style);
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads should be at least 1");
         }
-        System.out.println();
-        if (earlyStop && epoch > 2) {
-            String operator1 = validationErrors.get(epoch) > validationErrors.get(epoch - 1) ? " > " : " < ";
-            String operator2 = validationErrors.get(epoch - 1) > validationErrors.get(epoch - 2) ? " > " : " < ";
+        this.threads = threads;
+    }
+
+    public int getThreads() { return threads; }
 
-            System.out.println("Last two epoch's errors:");
-            System.out.println("\t" + (validationErrors.get(epoch) < validationErrors.get(epoch - 1) ? greenbg : redbg) + validationErrors.get(epoch) + operator1 + validationErrors.get(epoch - 1) + reset_style);
-            System.out.println("\t" + (validationErrors.get(epoch - 1) < validationErrors.get(epoch - 2) ? greenbg : redbg) + validationErrors.get(epoch - 1) + operator2 + validationErrors.get(epoch - 2) + reset_style);
+    public void setSeed(Long seed) { this.seed = seed; }
+
+    //Sets how the weights are drawn by the next initialize() (UNIFORM by default)
+    public void setWeightInitialization(WeightInitializer.Scheme weightInitialization) {
+        this.weightInitialization = weightInitialization;
+    }
+
+    public WeightInitializer.Scheme getWeightInitialization() { return weightInitialization; }
+
+    public void setMaxEpochs(int maxEpochs) { this.maxEpochs = maxEpochs; }
+
+    //Sets the rule that stops the training when the early stop is on (two increases of the validation error by default)
+    public void setEarlyStopping(EarlyStopping earlyStopping) { this.earlyStopping = earlyStopping; }
+
+    public EarlyStopping getEarlyStopping() { return earlyStopping; }
+
+    //Validates the model every given number of epochs on the given fraction of the test set (every epoch on the
+    //whole test set by default), the rest of the test set is skipped at evenly spaced positions
+    public void setValidation(int everyEpochs, float fraction) {
+        if (everyEpochs < 1 || fraction <= 0F || fraction > 1F) {
+            throw new IllegalArgumentException("Expected everyEpochs >= 1 and a fraction in (0, 1]");
         }
+        this.validationEpochs = everyEpochs;
+        this.validationFraction = fraction;
     }
+
+    //Trains the model with the samples of the given source instead of the train set of the dataset
+    public void setTrainingSource(TrainingSource trainingSource) { this.trainingSource = trainingSource; }
+
+    public void setCheckpointPath(String checkpointPath) { this.checkpointPath = checkpointPath; }
+
+    //Writes a snapshot of the training to path every given number of epochs and/or seconds (0 disables each one)
+    public void setSnapshots(String path, int everyEpochs, long everySeconds) {
+        this.snapshotPath = path;
+        this.snapshotEpochs = everyEpochs;
+        this.snapshotSeconds = everySeconds;
+    }
+
+    //Makes the next call to trainModel() continue the training saved in the snapshot instead of starting a new one
+    public void setResumePath(String resumePath) { this.resumePath = resumePath; }
+
+    public Long getSeed() { return seed; }
+
+    //Latest state of the training, published at the end of each epoch for other threads (e.g. a ProgressReporter)
+    public TrainingProgress getProgress() { return progress; }
 }
@@ -0,0 +1,61 @@
+package Model.Optimizers;
+
+public class AdamOptimizer implements Optimizer {
+    //g{k} = Δweight{k} / rate (the gradient of the batch)
+    //m{k} = beta1 * m{k} + (1 - beta1) * g{k}
+    //v{k} = beta2 * v{k} + (1 - beta2) * g{k}²
+    //weight{k} = weight{k} + rate * m̂{k} / (√v̂{k} + epsilon)
+    //Where m̂ = m / (1 - beta1^step) and v̂ = v / (1 - beta2^step) correct the bias of m and v starting at 0
+    private float beta1;
+    private float beta2;
+    private float epsilon;
+
+    public AdamOptimizer() {
+        this(0.9F, 0.999F, 1e-7F);
+    }
+
+    public AdamOptimizer(float beta1, float beta2, float epsilon) {
+        if (beta1 < 0F || beta1 >= 1F || beta2 < 0F || beta2 >= 1F || epsilon <= 0F) {
+            throw new IllegalArgumentException("Expected 0 <= beta1, beta2 < 1 and epsilon > 0");
+        }
+        this.beta1 = beta1;
+        this.beta2 = beta2;
+        this.epsilon = epsilon;
+    }
+
+    @Override
+    public int getStateSize() {
+        return 2;
+    }
+
+    @Override
+    public void update(float[] params, float[] deltas, int deltaOffset, float[][] state, int stateOffset, int length,
+                       float rate, int step) {
+        if (rate == 0F) {
+            return;
+        }
+        float[] means = state[0];
+        float[] variances = state[1];
+        float inverseRate = 1F / rate;
+        //The corrections are folded into the rate and epsilon once per update:
+        //rate * m̂ / (√v̂ + epsilon) = stepRate * m / (√v + stepEpsilon)
+        double correction1 = 1.0 - Math.pow(beta1, step);
+        double correction2 = Math.sqrt(1.0 - Math.pow(beta2, step));
+        float stepRate = (float) (rate * correction2 / correction1);
+        float stepEpsilon = (float) (epsilon * correction2);
+
+        for (int k = 0; k < length; k++) {
+            float gradient = deltas[deltaOffset + k] * inverseRate;
+            float mean = beta1 * means[stateOffset + k] + (1F - beta1) * gradient;
+            float variance = beta2 * variances[stateOffset + k] + (1F - beta2) * gradient * gradient;
+            means[stateOffset + k] = mean;
+            variances[stateOffset + k] = variance;
+            params[k] += stepRate * mean / ((float) Math.sqrt(variance) + stepEpsilon);
+        }
+    }
+
+    @Override
+    public String getOptimizerName() {
+        return "Adam";
+    }
+}
@@ -0,0 +1,14 @@
+package Model.Optimizers;
+
+public class ConstantSchedule implements LearningRateSchedule {
+    //rate = alpha on every epoch
+    @Override
+    public float getRate(float alpha, int epoch) {
+        return alpha;
+    }
+
+    @Override
+    public String getScheduleName() {
+        return "Constant";
+    }
+}
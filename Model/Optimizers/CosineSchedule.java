@@ -0,0 +1,27 @@
+package Model.Optimizers;
+
+public class CosineSchedule implements LearningRateSchedule {
+    //rate = minRate + (alpha - minRate) * (1 + cos(π * epoch / epochs)) / 2
+    //The rate goes from alpha down to minRate along half a cosine in the given epochs and stays at minRate afterwards
+    private int epochs;
+    private float minRate;
+
+    public CosineSchedule(int epochs, float minRate) {
+        if (epochs < 1 || minRate < 0F) {
+            throw new IllegalArgumentException("Expected epochs >= 1 and minRate >= 0");
+        }
+        this.epochs = epochs;
+        this.minRate = minRate;
+    }
+
+    @Override
+    public float getRate(float alpha, int epoch) {
+        double progress = Math.min(epoch, epochs) / (double) epochs;
+        return (float) (minRate + (alpha - minRate) * (1 + Math.cos(Math.PI * progress)) / 2);
+    }
+
+    @Override
+    public String getScheduleName() {
+        return "Cosine (" + epochs + " epochs, min " + minRate + ")";
+    }
+}
@@ -0,0 +1,23 @@
+package Model.Optimizers;
+
+public class ExponentialSchedule implements LearningRateSchedule {
+    //rate = alpha * decay^epoch
+    private float decay;
+
+    public ExponentialSchedule(float decay) {
+        if (decay <= 0F || decay > 1F) {
+            throw new IllegalArgumentException("The decay should be in (0, 1]");
+        }
+        this.decay = decay;
+    }
+
+    @Override
+    public float getRate(float alpha, int epoch) {
+        return (float) (alpha * Math.pow(decay, epoch));
+    }
+
+    @Override
+    public String getScheduleName() {
+        return "Exponential (x" + decay + " every epoch)";
+    }
+}
@@ -0,0 +1,8 @@
+package Model.Optimizers;
+
+public interface LearningRateSchedule {
+    //Returns the learning rate of the given epoch (starting at 0) for the initial rate alpha
+    float getRate(float alpha, int epoch);
+
+    String getScheduleName();
+}
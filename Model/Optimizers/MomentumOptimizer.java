@@ -0,0 +1,48 @@
+package Model.Optimizers;
+
+public class MomentumOptimizer implements Optimizer {
+    //velocity{k} = momentum * velocity{k} + Δweight{k}
+    //weight{k} = weight{k} + velocity{k}
+    //With Nesterov momentum the weight moves by the velocity it will have on the next step instead:
+    //weight{k} = weight{k} + momentum * velocity{k} + Δweight{k}
+    private float momentum;
+    private boolean nesterov;
+
+    public MomentumOptimizer() {
+        this(0.9F, false);
+    }
+
+    public MomentumOptimizer(float momentum, boolean nesterov) {
+        if (momentum < 0F || momentum >= 1F) {
+            throw new IllegalArgumentException("The momentum should be in [0, 1)");
+        }
+        this.momentum = momentum;
+        this.nesterov = nesterov;
+    }
+
+    @Override
+    public int getStateSize() {
+        return 1;
+    }
+
+    @Override
+    public void update(float[] params, float[] deltas, int deltaOffset, float[][] state, int stateOffset, int length,
+                       float rate, int step) {
+        float[] velocities = state[0];
+        for (int k = 0; k < length; k++) {
+            float delta = deltas[deltaOffset + k];
+            float velocity = momentum * velocities[stateOffset + k] + delta;
+            velocities[stateOffset + k] = velocity;
+            params[k] += nesterov ? momentum * velocity + delta : velocity;
+        }
+    }
+
+    public float getMomentum() { return momentum; }
+
+    public boolean isNesterov() { return nesterov; }
+
+    @Override
+    public String getOptimizerName() {
+        return nesterov ? "Nesterov" : "Momentum";
+    }
+}
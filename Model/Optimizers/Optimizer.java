@@ -0,0 +1,15 @@
+package Model.Optimizers;
+
+public interface Optimizer {
+    //Number of values the optimizer keeps for each weight between the updates (e.g. 1 for the velocity of momentum),
+    //the values are kept by the ExecutionPlan in stateSize arrays with the same layout as the weight deltas
+    int getStateSize();
+
+    //Updates params[0 .. length - 1] with the deltas at deltas[deltaOffset ..], which are the deltas of plain SGD
+    //summed over the batch (Δweight = rate * δ * output, so adding them to the weights reduces the error).
+    //The state of params[k] is at state[s][stateOffset + k] and step is the number of updates so far, starting at 1
+    void update(float[] params, float[] deltas, int deltaOffset, float[][] state, int stateOffset, int length,
+                float rate, int step);
+
+    String getOptimizerName();
+}
@@ -0,0 +1,47 @@
+package Model.Optimizers;
+
+public class RmsPropOptimizer implements Optimizer {
+    //g{k} = Δweight{k} / rate (the gradient of the batch)
+    //mean{k} = decay * mean{k} + (1 - decay) * g{k}²
+    //weight{k} = weight{k} + rate * g{k} / (√mean{k} + epsilon)
+    private float decay;
+    private float epsilon;
+
+    public RmsPropOptimizer() {
+        this(0.9F, 1e-7F);
+    }
+
+    public RmsPropOptimizer(float decay, float epsilon) {
+        if (decay < 0F || decay >= 1F || epsilon <= 0F) {
+            throw new IllegalArgumentException("Expected 0 <= decay < 1 and epsilon > 0");
+        }
+        this.decay = decay;
+        this.epsilon = epsilon;
+    }
+
+    @Override
+    public int getStateSize() {
+        return 1;
+    }
+
+    @Override
+    public void update(float[] params, float[] deltas, int deltaOffset, float[][] state, int stateOffset, int length,
+                       float rate, int step) {
+        if (rate == 0F) {
+            return;
+        }
+        float[] means = state[0];
+        float inverseRate = 1F / rate;
+        for (int k = 0; k < length; k++) {
+            float gradient = deltas[deltaOffset + k] * inverseRate;
+            float mean = decay * means[stateOffset + k] + (1F - decay) * gradient * gradient;
+            means[stateOffset + k] = mean;
+            params[k] += rate * gradient / ((float) Math.sqrt(mean) + epsilon);
+        }
+    }
+
+    @Override
+    public String getOptimizerName() {
+        return "RMSProp";
+    }
+}
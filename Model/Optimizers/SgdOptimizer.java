@@ -0,0 +1,23 @@
+package Model.Optimizers;
+
+public class SgdOptimizer implements Optimizer {
+    //weight{k} = weight{k} + Δweight{k}
+    //The deltas are summed to the weights as they are, so the training is the same as before the optimizers existed
+    @Override
+    public int getStateSize() {
+        return 0;
+    }
+
+    @Override
+    public void update(float[] params, float[] deltas, int deltaOffset, float[][] state, int stateOffset, int length,
+                       float rate, int step) {
+        for (int k = 0; k < length; k++) {
+            params[k] += deltas[deltaOffset + k];
+        }
+    }
+
+    @Override
+    public String getOptimizerName() {
+        return "SGD";
+    }
+}
@@ -0,0 +1,25 @@
+package Model.Optimizers;
+
+public class StepSchedule implements LearningRateSchedule {
+    //rate = alpha * factor^⌊epoch / stepEpochs⌋, the rate is multiplied by factor every stepEpochs epochs
+    private int stepEpochs;
+    private float factor;
+
+    public StepSchedule(int stepEpochs, float factor) {
+        if (stepEpochs < 1 || factor <= 0F) {
+            throw new IllegalArgumentException("Expected stepEpochs >= 1 and factor > 0");
+        }
+        this.stepEpochs = stepEpochs;
+        this.factor = factor;
+    }
+
+    @Override
+    public float getRate(float alpha, int epoch) {
+        return (float) (alpha * Math.pow(factor, epoch / stepEpochs));
+    }
+
+    @Override
+    public String getScheduleName() {
+        return "Step (x" + factor + " every " + stepEpochs + " epochs)";
+    }
+}
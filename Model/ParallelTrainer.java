@@ -0,0 +1,131 @@
+package Model;
+
+import IO.DataBlock;
+import Metrics.Counter;
+import Metrics.Metrics;
+import Model.Components.Arena;
+import Model.Components.ExecutionPlan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ParallelTrainer {
+    //This class splits every batch in contiguous shards, one per worker thread.
+    //Each worker feeds forward and backpropagates its shard through the execution plan using its own arena, so the
+    //deltas of each shard are summed in separate buffers. When all the shards are done the deltas are summed
+    //into the arena of the trainer always in the same worker order before updating the weights, which makes the
+    //training reproducible for a given seed and number of threads
+    //Same counters as the sequential training of the Model, the workers add the time of their shards (so with
+    //more than one thread the forward and backpropagation times are the sum of the threads, not the elapsed time)
+    private static final Counter forwardTime = Metrics.timeCounter("ann_train_forward_seconds_total",
+            "Time spent feeding the samples forward during the training");
+    private static final Counter backpropagationTime = Metrics.timeCounter("ann_train_backpropagation_seconds_total",
+            "Time spent propagating the errors back and calculating the instant errors");
+    private static final Counter updateTime = Metrics.timeCounter("ann_train_update_seconds_total",
+            "Time spent updating the weights");
+
+    private ExecutionPlan plan;
+    private Arena arena;
+
+    private ExecutorService executor;
+    private List<Worker> workers;
+
+    public ParallelTrainer(ExecutionPlan plan, int threads) {
+        this.plan = plan;
+        this.arena = plan.newArena();
+        //The workers are daemon threads, so a trainer that isn't shut down doesn't keep the JVM running
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "trainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.workers = new ArrayList<>();
+
+        for (int i = 0; i < threads; i++) {
+            workers.add(new Worker());
+        }
+    }
+
+    //Trains the samples from (inclusive) to (exclusive) of the block as a single batch,
+    //the instant error of each sample is stored in the same position of instantErrors
+    public void trainBatch(DataBlock data, int from, int to, float alpha, float[] instantErrors) {
+        int shardSize = (to - from + workers.size() - 1) / workers.size();
+        ExecutionPlan.InputPath path = ExecutionPlan.choosePath(data);
+
+        List<Future<Void>> shards = new ArrayList<>();
+        for (int i = 0; i < workers.size(); i++) {
+            int shardFrom = Math.min(from + i * shardSize, to);
+            int shardTo = Math.min(shardFrom + shardSize, to);
+            shards.add(executor.submit(workers.get(i).shard(data, path, shardFrom, shardTo, alpha, instantErrors)));
+        }
+
+        try {
+            for (Future<Void> shard : shards) {
+                shard.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+
+        long updateStart = Metrics.enabled ? System.nanoTime() : 0;
+        //The shards are always reduced in the same order, regardless of which worker finished first
+        for (Worker worker : workers) {
+            arena.addDeltaWeights(worker.arena);
+            worker.arena.clearDeltaWeights();
+        }
+
+        plan.update(arena, alpha);
+        if (Metrics.enabled) {
+            updateTime.add(System.nanoTime() - updateStart);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    //Scratch buffers of a single worker thread
+    private class Worker {
+        private Arena arena = plan.newArena();
+        private float[] label = new float[plan.getLabelLength()];
+
+        private Callable<Void> shard(DataBlock data, ExecutionPlan.InputPath path, int from, int to, float alpha,
+                                    float[] instantErrors) {
+            return () -> {
+                long forward = 0;
+                long backpropagation = 0;
+                for (int i = from; i < to; i++) {
+                    //The input is unpacked straight into the output signals of the input layer (or as the list of its
+                    //nonzero inputs for the sparse path)
+                    plan.loadInput(data, i, arena, path);
+                    data.copyLabel(i, label);
+                    long start = Metrics.enabled ? System.nanoTime() : 0;
+                    plan.forward(arena, path);
+                    long forwarded = Metrics.enabled ? System.nanoTime() : 0;
+
+                    plan.backward(arena, path, alpha, label);
+
+                    instantErrors[i] = plan.calculateInstantError(arena, label);
+                    if (Metrics.enabled) {
+                        long propagated = System.nanoTime();
+                        forward += forwarded - start;
+                        backpropagation += propagated - forwarded;
+                    }
+                }
+                if (Metrics.enabled) {
+                    forwardTime.add(forward);
+                    backpropagationTime.add(backpropagation);
+                }
+                return null;
+            };
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package Model.Search;
+
+import IO.Dataset;
+import Model.ActivationFunctions.ActivatorFunction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class HyperparameterSearch {
+    //Trains many configurations at the same time on a pool of threads, each trial with its own model,
+    //and ranks them by validation error (and training time when the errors are equal).
+    //The trials are trained with successive halving: every trial is trained for minEpochs epochs, then only the best
+    //1/eta of them continue for eta times more epochs, and so on until maxEpochs, so most of the time is spent
+    //on the promising configurations. With eta = 1 every trial is trained for maxEpochs epochs.
+    //A trial also stops on its own when its validation error increases for two epochs in a row
+    private Dataset dataset;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long seed = 1L;
+    private int minEpochs = 10;
+    private int maxEpochs = 810;
+    private int eta = 3;
+
+    public HyperparameterSearch(Dataset dataset) {
+        this.dataset = dataset;
+    }
+
+    //Returns every combination of the given values
+    public static List<TrialConfig> grid(List<Integer> nOfHiddenPerceptrons, List<ActivatorFunction> hiddenLayerFunctions,
+                                         List<ActivatorFunction> outputLayerFunctions, List<Float> alphas) {
+        List<TrialConfig> configs = new ArrayList<>();
+        for (int hidden : nOfHiddenPerceptrons) {
+            for (ActivatorFunction hiddenFunction : hiddenLayerFunctions) {
+                for (ActivatorFunction outputFunction : outputLayerFunctions) {
+                    for (float alpha : alphas) {
+                        configs.add(new TrialConfig(hidden, hiddenFunction, outputFunction, alpha));
+                    }
+                }
+            }
+        }
+        return configs;
+    }
+
+    //Returns random configurations: the number of hidden perceptrons is uniform in [minHidden, maxHidden],
+    //the functions are picked uniformly and alpha is log-uniform in [minAlpha, maxAlpha]
+    public static List<TrialConfig> random(int count, Random random, int minHidden, int maxHidden,
+                                           List<ActivatorFunction> hiddenLayerFunctions,
+                                           List<ActivatorFunction> outputLayerFunctions, float minAlpha, float maxAlpha) {
+        if (minHidden > maxHidden || minAlpha <= 0F || minAlpha > maxAlpha) {
+            throw new IllegalArgumentException("Invalid search ranges");
+        }
+        List<TrialConfig> configs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int hidden = minHidden + random.nextInt(maxHidden - minHidden + 1);
+            ActivatorFunction hiddenFunction = hiddenLayerFunctions.get(random.nextInt(hiddenLayerFunctions.size()));
+            ActivatorFunction outputFunction = outputLayerFunctions.get(random.nextInt(outputLayerFunctions.size()));
+            float alpha = (float) Math.exp(Math.log(minAlpha) + random.nextDouble() * (Math.log(maxAlpha) - Math.log(minAlpha)));
+            configs.add(new TrialConfig(hidden, hiddenFunction, outputFunction, alpha));
+        }
+        return configs;
+    }
+
+    //Runs the trials and returns all of them, the best first. The trial i uses the seed of the search plus i,
+    //so the results don't depend on the number of threads
+    public List<Trial> run(List<TrialConfig> configs) {
+        List<Trial> trials = new ArrayList<>();
+        for (int i = 0; i < configs.size(); i++) {
+            trials.add(new Trial(configs.get(i), dataset, seed + i));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "search-trial");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Trial> running = new ArrayList<>(trials);
+            int epochs = eta == 1 ? maxEpochs : minEpochs;
+            while (!running.isEmpty()) {
+                trainAll(executor, running, epochs);
+                if (epochs >= maxEpochs) {
+                    break;
+                }
+
+                //Only the best trials that can still improve continue to the next rung
+                Collections.sort(running);
+                int keep = (running.size() + eta - 1) / eta;
+                List<Trial> next = new ArrayList<>();
+                for (Trial trial : running.subList(0, keep)) {
+                    if (!trial.isStopped()) {
+                        next.add(trial);
+                    }
+                }
+                running = next;
+                epochs = (int) Math.min((long) epochs * eta, maxEpochs);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Collections.sort(trials);
+        return trials;
+    }
+
+    private void trainAll(ExecutorService executor, List<Trial> running, int epochs) {
+        List<Future<?>> futures = new ArrayList<>();
+        for (Trial trial : running) {
+            futures.add(executor.submit(() -> trial.train(epochs)));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            System.out.println("An error occurred while training a trial of the search");
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads should be at least 1");
+        }
+        this.threads = threads;
+    }
+
+    public void setSeed(long seed) { this.seed = seed; }
+
+    //Sets the epochs of the first rung, the maximum epochs of a trial and the reduction factor between rungs
+    public void setSchedule(int minEpochs, int maxEpochs, int eta) {
+        if (minEpochs < 1 || maxEpochs < minEpochs || eta < 1) {
+            throw new IllegalArgumentException("Expected 1 <= minEpochs <= maxEpochs and eta >= 1");
+        }
+        this.minEpochs = minEpochs;
+        this.maxEpochs = maxEpochs;
+        this.eta = eta;
+    }
+}
@@ -0,0 +1,82 @@
+package Model.Search;
+
+import IO.Dataset;
+import Model.Model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class Trial implements Comparable<Trial> {
+    //A configuration being trained by a search, with its own model (and its own view of the dataset),
+    //so trials can run in parallel. The training continues where it stopped every time train() is called again.
+    //Trials are ranked by the last validation error, and by the training time when the errors are equal
+    private TrialConfig config;
+    private Model model;
+    private int epochs = 0;
+    private long trainingNanos = 0;
+    private List<Float> validationErrors = new ArrayList<>();
+    private boolean stopped = false;
+
+    public Trial(TrialConfig config, Dataset dataset, long seed) {
+        this.config = config;
+        this.model = new Model(dataset.view(), null);
+        model.setSeed(seed);
+        model.setNOfHiddenPerceptrons(config.getNOfHiddenPerceptrons());
+        model.setHiddenLayerFunction(config.getHiddenLayerFunction());
+        model.setOutputLayerFunction(config.getOutputLayerFunction());
+        model.setAlpha(config.getAlpha());
+        model.initialize();
+    }
+
+    //Trains until the given number of epochs, validating after each epoch. The trial stops for good when the
+    //validation error increased in the last two epochs (the early stop of Model.trainModel) or isn't a number
+    public void train(int untilEpoch) {
+        long start = System.nanoTime();
+        while (epochs < untilEpoch && !stopped) {
+            model.trainEpoch();
+            float error = model.validate();
+            validationErrors.add(error);
+            epochs++;
+
+            int last = validationErrors.size() - 1;
+            if (Float.isNaN(error) || (last >= 2
+                    && validationErrors.get(last) > validationErrors.get(last - 1)
+                    && validationErrors.get(last - 1) > validationErrors.get(last - 2))) {
+                stopped = true;
+            }
+        }
+        trainingNanos += System.nanoTime() - start;
+    }
+
+    public float getValidationError() {
+        return validationErrors.isEmpty() ? Float.NaN : validationErrors.get(validationErrors.size() - 1);
+    }
+
+    @Override
+    public int compareTo(Trial other) {
+        //NaN (a diverged or untrained trial) goes last
+        int byError = Float.compare(sortableError(), other.sortableError());
+        return byError != 0 ? byError : Long.compare(trainingNanos, other.trainingNanos);
+    }
+
+    private float sortableError() {
+        float error = getValidationError();
+        return Float.isNaN(error) ? Float.POSITIVE_INFINITY : error;
+    }
+
+    public TrialConfig getConfig() { return config; }
+
+    public Model getModel() { return model; }
+
+    public int getEpochs() { return epochs; }
+
+    public long getTrainingMillis() { return trainingNanos / 1_000_000; }
+
+    public boolean isStopped() { return stopped; }
+
+    @Override
+    public String toString() {
+        return config + ": validation error " + getValidationError() + " after " + epochs + " epochs"
+                + (stopped ? " (stopped early)" : "") + ", " + getTrainingMillis() + " ms";
+    }
+}
@@ -0,0 +1,37 @@
+package Model.Search;
+
+import Model.ActivationFunctions.ActivatorFunction;
+
+public class TrialConfig {
+    //Hyperparameters of a single trial of a search.
+    //The activation functions don't keep any state, so the same instances are shared by the models of the trials
+    private int nOfHiddenPerceptrons;
+    private ActivatorFunction hiddenLayerFunction;
+    private ActivatorFunction outputLayerFunction;
+    private float alpha;
+
+    public TrialConfig(int nOfHiddenPerceptrons, ActivatorFunction hiddenLayerFunction, ActivatorFunction outputLayerFunction,
+                       float alpha) {
+        if (nOfHiddenPerceptrons < 1) {
+            throw new IllegalArgumentException("The number of hidden perceptrons should be at least 1");
+        }
+        this.nOfHiddenPerceptrons = nOfHiddenPerceptrons;
+        this.hiddenLayerFunction = hiddenLayerFunction;
+        this.outputLayerFunction = outputLayerFunction;
+        this.alpha = alpha;
+    }
+
+    public int getNOfHiddenPerceptrons() { return nOfHiddenPerceptrons; }
+
+    public ActivatorFunction getHiddenLayerFunction() { return hiddenLayerFunction; }
+
+    public ActivatorFunction getOutputLayerFunction() { return outputLayerFunction; }
+
+    public float getAlpha() { return alpha; }
+
+    @Override
+    public String toString() {
+        return "hidden " + nOfHiddenPerceptrons + " " + hiddenLayerFunction.getFunctionName() + ", output "
+                + outputLayerFunction.getFunctionName() + ", alpha " + alpha;
+    }
+}
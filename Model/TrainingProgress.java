@@ -0,0 +1,69 @@
+package Model;
+
+import java.util.List;
+
+public class TrainingProgress {
+    //Latest state of a training, written by the training thread at the end of each epoch and read by other threads
+    //(e.g. a ProgressReporter). Publishing an epoch is only a few volatile writes, the training never waits for a reader.
+    //The epoch is written last, so a reader that sees an epoch also sees at least the errors of that epoch
+    private volatile int maxEpochs;
+    private volatile float minError;
+    private volatile boolean earlyStop;
+    private volatile boolean running;
+
+    private volatile float meanError;
+    //Last three validation errors, the most recent first, and the number of validations run so far
+    private volatile float validationError;
+    private volatile float previousValidationError;
+    private volatile float olderValidationError;
+    private volatile int validations;
+    private volatile int epoch = -1;
+
+    //Called by the training thread before the first epoch
+    public void start(int maxEpochs, float minError, boolean earlyStop) {
+        this.maxEpochs = maxEpochs;
+        this.minError = minError;
+        this.earlyStop = earlyStop;
+        this.validations = 0;
+        this.epoch = -1;
+        this.running = true;
+    }
+
+    //Called by the training thread at the end of each epoch
+    public void publish(int epoch, float meanError, List<Float> validationErrors) {
+        this.meanError = meanError;
+        int size = validationErrors.size();
+        if (size > 0) {
+            this.validationError = validationErrors.get(size - 1);
+            this.previousValidationError = size > 1 ? validationErrors.get(size - 2) : 0F;
+            this.olderValidationError = size > 2 ? validationErrors.get(size - 3) : 0F;
+        }
+        this.validations = size;
+        this.epoch = epoch;
+    }
+
+    //Called by the training thread when the training is over
+    public void finish() {
+        this.running = false;
+    }
+
+    public int getMaxEpochs() { return maxEpochs; }
+
+    public float getMinError() { return minError; }
+
+    public boolean isEarlyStop() { return earlyStop; }
+
+    public boolean isRunning() { return running; }
+
+    public float getMeanError() { return meanError; }
+
+    public float getValidationError() { return validationError; }
+
+    public float getPreviousValidationError() { return previousValidationError; }
+
+    public float getOlderValidationError() { return olderValidationError; }
+
+    public int getValidations() { return validations; }
+
+    public int getEpoch() { return epoch; }
+}
@@ -0,0 +1,202 @@
+package Model;
+
+import IO.DataVector;
+import Metrics.Histogram;
+import Metrics.Metrics;
+import Model.Components.Layer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ValidationEngine {
+    //Validates copies of the weights of a model on its own thread, so the validation of an epoch runs while the
+    //next epoch is trained. submit() only copies the weights (a copy of each weight array) and returns,
+    //and await() waits for the mean square error of the copy. A single validation runs at a time.
+    //The test set (or an evenly spaced subsample of it) is packed in two arrays when the engine is created and fed
+    //forward batchBlock samples at a time with Layer.calculateOutputBatch, which gives the same outputs as feeding
+    //the samples one by one, so the errors are the same testModel() calculates. Nothing is written to the Output
+    private static final Histogram validationLatency = Metrics.histogram("ann_validation_seconds",
+            "Time of a validation of the model");
+    private static final int batchBlock = 256;
+
+    //Layers with copies of the weights of the model, the weights being validated
+    private List<Layer> layers;
+    private float[] inputs;
+    private float[] labels;
+    private int rows;
+    private int inputLength;
+    private int labelLength;
+    private float[][] batchSignals;
+    private float[][] batchOutputs;
+    private float[] label;
+
+    //Weights of the validation kept by keepValidatedWeights(), e.g. the best ones
+    private float[][] keptWeights;
+    private float[][] keptBiasWeights;
+
+    private ExecutorService executor;
+    private Future<Float> pending;
+    private int validatedEpoch = -1;
+
+    //Validates the weights of the layers on the given fraction of the test set, from 0 (exclusive) to 1
+    public ValidationEngine(List<Layer> modelLayers, List<DataVector> testSet, float fraction) {
+        if (fraction <= 0F || fraction > 1F) {
+            throw new IllegalArgumentException("The fraction of the test set should be in (0, 1]");
+        }
+        this.layers = new ArrayList<>();
+        layers.add(new Layer(modelLayers.get(0).getSize(), null, null));
+        for (int k = 1; k < modelLayers.size(); k++) {
+            Layer layer = modelLayers.get(k);
+            layers.add(new Layer(layers.get(k - 1), layer.getFunction(), layer.getWeights().clone(),
+                    layer.getBiasWeights().clone()));
+        }
+        this.inputLength = layers.get(0).getSize();
+        this.labelLength = layers.get(layers.size() - 1).getSize();
+
+        //The subsample takes the rows at evenly spaced positions, so it is the same on every validation
+        this.rows = Math.max(1, Math.round(testSet.size() * fraction));
+        this.inputs = new float[rows * inputLength];
+        this.labels = new float[rows * labelLength];
+        for (int r = 0; r < rows; r++) {
+            DataVector test = testSet.get((int) ((long) r * testSet.size() / rows));
+            System.arraycopy(test.getInput(), 0, inputs, r * inputLength, inputLength);
+            System.arraycopy(test.getLabel(), 0, labels, r * labelLength, labelLength);
+        }
+
+        this.batchSignals = new float[layers.size()][];
+        this.batchOutputs = new float[layers.size()][];
+        for (int k = 1; k < layers.size(); k++) {
+            batchSignals[k] = new float[batchBlock * layers.get(k).getSize()];
+            batchOutputs[k] = new float[batchBlock * layers.get(k).getSize()];
+        }
+        this.label = new float[labelLength];
+
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "validation");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    //Copies the current weights of the model and starts validating them, the previous validation must be done
+    public void submit(List<Layer> modelLayers, int epoch) {
+        if (pending != null) {
+            throw new IllegalStateException("The previous validation wasn't awaited");
+        }
+        for (int k = 1; k < layers.size(); k++) {
+            Layer layer = modelLayers.get(k);
+            System.arraycopy(layer.getWeights(), 0, layers.get(k).getWeights(), 0, layer.getWeights().length);
+            System.arraycopy(layer.getBiasWeights(), 0, layers.get(k).getBiasWeights(), 0, layer.getSize());
+        }
+        this.validatedEpoch = epoch;
+        this.pending = executor.submit(this::validate);
+    }
+
+    public boolean isPending() { return pending != null; }
+
+    //Waits for the validation submitted last and returns its mean square error
+    public float await() {
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            System.out.println("An error occurred while validating the model");
+            throw new RuntimeException(e.getCause());
+        } finally {
+            pending = null;
+        }
+    }
+
+    //E{av} = 1/N * Σ E{n}, with the instant errors summed in the order of the test set
+    private float validate() {
+        long start = Metrics.enabled ? System.nanoTime() : 0;
+        int last = layers.size() - 1;
+        float errorSum = 0F;
+        for (int from = 0; from < rows; from += batchBlock) {
+            int block = Math.min(batchBlock, rows - from);
+            layers.get(1).calculateOutputBatch(inputs, from * inputLength, batchSignals[1], batchOutputs[1], block);
+            for (int k = 2; k <= last; k++) {
+                layers.get(k).calculateOutputBatch(batchOutputs[k - 1], 0, batchSignals[k], batchOutputs[k], block);
+            }
+            for (int r = 0; r < block; r++) {
+                System.arraycopy(labels, (from + r) * labelLength, label, 0, labelLength);
+                errorSum += layers.get(last).calculateInstantError(label, batchOutputs[last], r * labelLength);
+            }
+        }
+
+        if (Metrics.enabled) {
+            validationLatency.record(System.nanoTime() - start);
+        }
+        return errorSum / rows;
+    }
+
+    //Keeps a copy of the weights validated last, they can be restored after the training goes on
+    public void keepValidatedWeights() {
+        if (keptWeights == null) {
+            keptWeights = new float[layers.size()][];
+            keptBiasWeights = new float[layers.size()][];
+            for (int k = 1; k < layers.size(); k++) {
+                keptWeights[k] = new float[layers.get(k).getWeights().length];
+                keptBiasWeights[k] = new float[layers.get(k).getSize()];
+            }
+        }
+        for (int k = 1; k < layers.size(); k++) {
+            System.arraycopy(layers.get(k).getWeights(), 0, keptWeights[k], 0, keptWeights[k].length);
+            System.arraycopy(layers.get(k).getBiasWeights(), 0, keptBiasWeights[k], 0, keptBiasWeights[k].length);
+        }
+    }
+
+    public boolean hasKeptWeights() { return keptWeights != null; }
+
+    public float[][] getKeptWeights() { return keptWeights; }
+
+    public float[][] getKeptBiasWeights() { return keptBiasWeights; }
+
+    //Keeps copies of weights kept before, e.g. by the training a snapshot was taken from
+    public void setKeptWeights(float[][] weights, float[][] biasWeights) {
+        if (weights.length != layers.size() || biasWeights.length != layers.size()) {
+            throw new IllegalArgumentException("Expected kept weights for " + layers.size() + " layers");
+        }
+        keptWeights = new float[layers.size()][];
+        keptBiasWeights = new float[layers.size()][];
+        for (int k = 1; k < layers.size(); k++) {
+            if (weights[k].length != layers.get(k).getWeights().length || biasWeights[k].length != layers.get(k).getSize()) {
+                throw new IllegalArgumentException("The kept weights don't match the layer " + k);
+            }
+            keptWeights[k] = weights[k].clone();
+            keptBiasWeights[k] = biasWeights[k].clone();
+        }
+    }
+
+    //Copies the weights kept by keepValidatedWeights() back to the layers of the model
+    public void restoreKeptWeights(List<Layer> modelLayers) {
+        for (int k = 1; k < layers.size(); k++) {
+            System.arraycopy(keptWeights[k], 0, modelLayers.get(k).getWeights(), 0, keptWeights[k].length);
+            System.arraycopy(keptBiasWeights[k], 0, modelLayers.get(k).getBiasWeights(), 0, keptBiasWeights[k].length);
+        }
+    }
+
+    //Copies the weights validated last back to the layers of the model
+    public void restoreValidatedWeights(List<Layer> modelLayers) {
+        for (int k = 1; k < layers.size(); k++) {
+            Layer layer = layers.get(k);
+            System.arraycopy(layer.getWeights(), 0, modelLayers.get(k).getWeights(), 0, layer.getWeights().length);
+            System.arraycopy(layer.getBiasWeights(), 0, modelLayers.get(k).getBiasWeights(), 0, layer.getSize());
+        }
+    }
+
+    //Epoch of the weights validated last
+    public int getValidatedEpoch() { return validatedEpoch; }
+
+    public int getRows() { return rows; }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}